@@ -0,0 +1,32 @@
+package cat.itacademy.s04.t02.n03.fruit.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CacheConfig {
+
+    public static final String ORDER_STATS_CACHE = "orderStats";
+    public static final String IDEMPOTENCY_CACHE = "idempotencyKeys";
+
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> orderStatsCacheCustomizer(OrderStatsProperties properties) {
+        return cacheManager -> cacheManager.registerCustomCache(ORDER_STATS_CACHE, Caffeine.newBuilder()
+                .maximumSize(properties.getCacheMaxSize())
+                .expireAfterWrite(properties.getCacheTtl())
+                .recordStats()
+                .build());
+    }
+
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> idempotencyCacheCustomizer(IdempotencyProperties properties) {
+        return cacheManager -> cacheManager.registerCustomCache(IDEMPOTENCY_CACHE, Caffeine.newBuilder()
+                .maximumSize(properties.getCacheMaxSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build());
+    }
+}
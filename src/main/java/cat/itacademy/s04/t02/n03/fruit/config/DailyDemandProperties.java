@@ -0,0 +1,13 @@
+package cat.itacademy.s04.t02.n03.fruit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "orders.daily-demand")
+public class DailyDemandProperties {
+
+    private boolean verifyEnabled = true;
+    private String verifyCron = "0 30 3 * * *";
+    private boolean repairOnDrift = true;
+}
@@ -0,0 +1,19 @@
+package cat.itacademy.s04.t02.n03.fruit.config;
+
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Data
+@Validated
+@ConfigurationProperties(prefix = "orders.fruit-catalog")
+public class FruitCatalogProperties {
+
+    private Duration refreshInterval = Duration.ofMinutes(1);
+
+    @Min(1)
+    private int maxSize = 1_000;
+}
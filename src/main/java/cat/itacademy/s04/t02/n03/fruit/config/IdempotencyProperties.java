@@ -0,0 +1,15 @@
+package cat.itacademy.s04.t02.n03.fruit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "orders.idempotency")
+public class IdempotencyProperties {
+
+    private Duration ttl = Duration.ofHours(24);
+    private long cacheMaxSize = 10_000;
+    private Duration pendingTimeout = Duration.ofSeconds(10);
+}
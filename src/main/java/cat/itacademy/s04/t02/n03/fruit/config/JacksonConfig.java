@@ -0,0 +1,65 @@
+package cat.itacademy.s04.t02.n03.fruit.config;
+
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderItemDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderResponseDTO;
+import cat.itacademy.s04.t02.n03.fruit.pagination.OrderFieldSelection;
+import cat.itacademy.s04.t02.n03.fruit.serialization.OrderSerializersModule;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Binds the response DTOs to the sparse fieldset filters. Without a per-request
+     * filter provider the filters are unknown and every property is written as before.
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer orderFieldFilterCustomizer() {
+        return builder -> builder
+                .mixIn(OrderResponseDTO.class, OrderResponseFilterMixIn.class)
+                .mixIn(OrderItemDTO.class, OrderItemFilterMixIn.class)
+                .filters(new SimpleFilterProvider().setFailOnUnknownId(false));
+    }
+
+    /**
+     * Registered on every mapper the auto-configured builder creates, JSON and binary alike.
+     */
+    @Bean
+    public Module orderSerializersModule() {
+        return new OrderSerializersModule();
+    }
+
+    /**
+     * Binary bodies for clients that send or accept {@code application/cbor} or
+     * {@code application/x-jackson-smile}. Both mappers come from the auto-configured builder, so they share
+     * the modules, date format and field filters of the JSON one; JSON stays the default for any other
+     * {@code Accept}.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @JsonFilter(OrderFieldSelection.ORDER_FILTER)
+    interface OrderResponseFilterMixIn {
+    }
+
+    @JsonFilter(OrderFieldSelection.ORDER_ITEM_FILTER)
+    interface OrderItemFilterMixIn {
+    }
+}
@@ -0,0 +1,24 @@
+package cat.itacademy.s04.t02.n03.fruit.config;
+
+import cat.itacademy.s04.t02.n03.fruit.monitoring.MongoCommandMetricsListener;
+import cat.itacademy.s04.t02.n03.fruit.monitoring.MongoPoolCheckoutListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MongoInstrumentationConfig {
+
+    // Command latency and pool size/in-use/wait-queue gauges come from Boot's MongoMetricsAutoConfiguration.
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoInstrumentationCustomizer(MeterRegistry meterRegistry,
+                                                                              MongoInstrumentationProperties properties) {
+        MongoCommandMetricsListener commandListener = new MongoCommandMetricsListener(meterRegistry, properties);
+        MongoPoolCheckoutListener poolListener = new MongoPoolCheckoutListener(meterRegistry);
+
+        return settings -> settings
+                .addCommandListener(commandListener)
+                .applyToConnectionPoolSettings(pool -> pool.addConnectionPoolListener(poolListener));
+    }
+}
@@ -0,0 +1,15 @@
+package cat.itacademy.s04.t02.n03.fruit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "orders.mongo.instrumentation")
+public class MongoInstrumentationProperties {
+
+    private boolean replySizeEnabled = true;
+    private boolean slowCommandLogEnabled = true;
+    private Duration slowCommandThreshold = Duration.ofMillis(100);
+}
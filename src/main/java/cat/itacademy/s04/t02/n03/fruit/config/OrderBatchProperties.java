@@ -0,0 +1,18 @@
+package cat.itacademy.s04.t02.n03.fruit.config;
+
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@Data
+@Validated
+@ConfigurationProperties(prefix = "orders.batch")
+public class OrderBatchProperties {
+
+    @Min(1)
+    private int chunkSize = 500;
+
+    @Min(1)
+    private int maxItems = 10_000;
+}
@@ -0,0 +1,29 @@
+package cat.itacademy.s04.t02.n03.fruit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "orders.log")
+public class OrderLogProperties {
+
+    private Path directory = Path.of("data", "orders-log");
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+    private FsyncPolicy fsync = FsyncPolicy.GROUPED;
+    private Duration fsyncInterval = Duration.ofSeconds(1);
+    private Duration compactionInterval = Duration.ofMinutes(5);
+    private double compactionGarbageRatio = 0.5;
+
+    public enum FsyncPolicy {
+        /** Every record is forced to disk before its write returns. */
+        ALWAYS,
+        /** Writes wait for a force that covers every record appended so far, shared by concurrent writers. */
+        GROUPED,
+        /** Records are forced every {@code fsync-interval}; a crash loses at most that window. */
+        PERIODIC
+    }
+}
@@ -0,0 +1,13 @@
+package cat.itacademy.s04.t02.n03.fruit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "orders.migration")
+public class OrderMigrationProperties {
+
+    private boolean migrateOnStartup = true;
+    private int batchSize = 500;
+    private boolean dropLegacyIndexes = true;
+}
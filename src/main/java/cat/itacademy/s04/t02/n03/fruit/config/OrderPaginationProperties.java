@@ -0,0 +1,12 @@
+package cat.itacademy.s04.t02.n03.fruit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "orders.pagination")
+public class OrderPaginationProperties {
+
+    private int defaultSize = 50;
+    private int maxSize = 500;
+}
@@ -0,0 +1,14 @@
+package cat.itacademy.s04.t02.n03.fruit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "orders.stats")
+public class OrderStatsProperties {
+
+    private Duration cacheTtl = Duration.ofSeconds(30);
+    private long cacheMaxSize = 1_000;
+}
@@ -0,0 +1,18 @@
+package cat.itacademy.s04.t02.n03.fruit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "orders.write-behind")
+public class OrderWriteBehindProperties {
+
+    private boolean enabled = false;
+    private int queueCapacity = 10_000;
+    private int maxBatchSize = 500;
+    private Duration maxWait = Duration.ofMillis(5);
+    private Duration drainTimeout = Duration.ofSeconds(30);
+    private Duration ackTimeout = Duration.ofSeconds(5);
+}
@@ -0,0 +1,22 @@
+package cat.itacademy.s04.t02.n03.fruit.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadMongoConfig {
+
+    // Tomcat no longer caps concurrency at its worker pool, so requests queue on the driver's connection pool instead.
+    @Bean
+    public MongoClientSettingsBuilderCustomizer virtualThreadConnectionPoolCustomizer(VirtualThreadProperties properties) {
+        return settings -> settings.applyToConnectionPoolSettings(pool -> pool
+                .maxSize(properties.getMongoMaxPoolSize())
+                .maxWaitTime(properties.getMongoMaxWaitTime().toMillis(), TimeUnit.MILLISECONDS));
+    }
+}
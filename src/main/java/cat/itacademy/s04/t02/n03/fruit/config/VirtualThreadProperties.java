@@ -0,0 +1,17 @@
+package cat.itacademy.s04.t02.n03.fruit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// The defaults live here only; application-virtual.properties does not repeat them
+@Data
+@ConfigurationProperties(prefix = "orders.virtual-threads")
+public class VirtualThreadProperties {
+
+    private Duration pinningThreshold = Duration.ofMillis(20);
+    private int pinningStackDepth = 12;
+    private int mongoMaxPoolSize = 200;
+    private Duration mongoMaxWaitTime = Duration.ofSeconds(10);
+}
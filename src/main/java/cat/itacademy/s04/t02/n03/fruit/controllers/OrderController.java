@@ -1,27 +1,71 @@
 package cat.itacademy.s04.t02.n03.fruit.controllers;
 
+import cat.itacademy.s04.t02.n03.fruit.dto.ClientDemandDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.DailyDemandDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.DemandVerificationDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.FruitDemandDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderBatchResultDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderPageDTO;
 import cat.itacademy.s04.t02.n03.fruit.dto.OrderRequestDTO;
 import cat.itacademy.s04.t02.n03.fruit.dto.OrderResponseDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderSummaryPageDTO;
+import cat.itacademy.s04.t02.n03.fruit.exception.InvalidFieldSelectionException;
+import cat.itacademy.s04.t02.n03.fruit.pagination.OrderFieldSelection;
+import cat.itacademy.s04.t02.n03.fruit.pagination.OrderView;
+import cat.itacademy.s04.t02.n03.fruit.repository.OrderFilter;
+import cat.itacademy.s04.t02.n03.fruit.services.DailyDemandService;
+import cat.itacademy.s04.t02.n03.fruit.services.IdempotencyService;
+import cat.itacademy.s04.t02.n03.fruit.services.OrderChangeBus;
 import cat.itacademy.s04.t02.n03.fruit.services.OrderService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/orders")
 @RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class OrderController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+
     private final OrderService orderService;
+    private final IdempotencyService idempotencyService;
+    private final DailyDemandService dailyDemandService;
+    private final OrderChangeBus orderChangeBus;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
-    public ResponseEntity<OrderResponseDTO> createOrder(@Valid @RequestBody OrderRequestDTO orderRequestDTO) {
-                OrderResponseDTO createdOrder = orderService.createOrder(orderRequestDTO);
+    public ResponseEntity<OrderResponseDTO> createOrder(
+            @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody OrderRequestDTO orderRequestDTO) {
+                OrderResponseDTO createdOrder = idempotencyKey == null
+                        ? orderService.createOrder(orderRequestDTO)
+                        : idempotencyService.createOrder(idempotencyKey, orderRequestDTO);
 
                 URI location = ServletUriComponentsBuilder
                 .fromCurrentRequest()
@@ -29,31 +73,159 @@ public class OrderController {
                 .buildAndExpand(createdOrder.getId())
                 .toUri();
 
-                return ResponseEntity.created(location).body(createdOrder);
+                return ResponseEntity.created(location)
+                        .eTag(OrderETags.of(createdOrder.getVersion()))
+                        .body(createdOrder);
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<OrderBatchResultDTO> createOrders(@RequestBody List<OrderRequestDTO> orderRequestDTOs) {
+        OrderBatchResultDTO result = orderService.createOrders(orderRequestDTOs);
+        return ResponseEntity.ok(result);
     }
 
     @GetMapping
-    public ResponseEntity<List<OrderResponseDTO>> getAllOrders() {
-        List<OrderResponseDTO> orders = orderService.getAllOrders();
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<Object> getAllOrders(
+            @RequestParam(required = false) String client,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String fruit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "full") String view,
+            @RequestParam(required = false) String fields) {
+        OrderFilter filter = new OrderFilter(client, from, to, fruit);
+        OrderFieldSelection selection = OrderFieldSelection.parse(fields);
+
+        if (OrderView.fromParam(view) == OrderView.SUMMARY) {
+            if (selection != null) {
+                throw new InvalidFieldSelectionException("fields cannot be combined with the summary view");
+            }
+            OrderSummaryPageDTO page = orderService.getOrderSummariesPage(filter, cursor, size, sort);
+            return pageResponse(page.getContent(), page.getNextCursor());
+        }
+
+        if (selection == null) {
+            OrderPageDTO page = orderService.getOrdersPage(filter, cursor, size, sort);
+            return pageResponse(page.getContent(), page.getNextCursor());
+        }
+
+        OrderPageDTO page = orderService.getOrdersPage(filter, cursor, size, sort, selection);
+        return pageResponse(sparse(page.getContent(), selection), page.getNextCursor());
+    }
+
+    @GetMapping(value = "/export", produces = NDJSON_MEDIA_TYPE)
+    public void exportOrders(HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON_MEDIA_TYPE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        try (Stream<OrderResponseDTO> orders = orderService.streamAllOrders();
+             JsonGenerator generator = objectMapper.createGenerator(response.getOutputStream())) {
+            generator.setRootValueSeparator(null);
+
+            Iterator<OrderResponseDTO> iterator = orders.iterator();
+            while (iterator.hasNext()) {
+                generator.writeObject(iterator.next());
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOrderChanges(
+            @RequestHeader(name = LAST_EVENT_ID_HEADER, required = false) String lastEventId) {
+        return orderChangeBus.subscribe(lastEventId);
+    }
+
+    @GetMapping("/stats/fruits")
+    public ResponseEntity<List<FruitDemandDTO>> getFruitDemand(
+            @RequestParam(required = false) String client,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String fruit) {
+        List<FruitDemandDTO> demand = orderService.getFruitDemand(new OrderFilter(client, from, to, fruit));
+        return ResponseEntity.ok(demand);
+    }
+
+    @GetMapping("/stats/clients")
+    public ResponseEntity<List<ClientDemandDTO>> getClientDemand(
+            @RequestParam(required = false) String client,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String fruit) {
+        List<ClientDemandDTO> demand = orderService.getClientDemand(new OrderFilter(client, from, to, fruit));
+        return ResponseEntity.ok(demand);
+    }
+
+    @GetMapping("/stats/daily/{deliveryDate}")
+    public ResponseEntity<DailyDemandDTO> getDailyDemand(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate deliveryDate) {
+        DailyDemandDTO demand = dailyDemandService.getDailyDemand(deliveryDate);
+        return ResponseEntity.ok(demand);
+    }
+
+    @PostMapping("/stats/daily/verify")
+    public ResponseEntity<DemandVerificationDTO> verifyDailyDemand(
+            @RequestParam(defaultValue = "false") boolean repair) {
+        DemandVerificationDTO report = dailyDemandService.verify(repair);
+        return ResponseEntity.ok(report);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<OrderResponseDTO> getOrderById(@PathVariable String id) {
-        OrderResponseDTO response = orderService.getOrderById(id);
-        return ResponseEntity.ok(response);
+    public ResponseEntity<Object> getOrderById(@PathVariable String id,
+                                               @RequestParam(required = false) String fields,
+                                               WebRequest request) {
+        OrderFieldSelection selection = OrderFieldSelection.parse(fields);
+        OrderResponseDTO response = selection == null
+                ? orderService.getOrderById(id)
+                : orderService.getOrderById(id, selection);
+
+        String eTag = selection == null ? OrderETags.of(response.getVersion()) : OrderETags.weak(response.getVersion());
+        if (eTag != null && request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+
+        return ResponseEntity.ok().eTag(eTag).body(selection == null ? response : sparse(response, selection));
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<OrderResponseDTO> updateOrder(@PathVariable String id,
-    @Valid @RequestBody OrderRequestDTO orderRequestDTO) {
-        OrderResponseDTO updatedOrder = orderService.updateOrder(id, orderRequestDTO);
-        return ResponseEntity.ok(updatedOrder);
+    @Valid @RequestBody OrderRequestDTO orderRequestDTO,
+    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        OrderResponseDTO updatedOrder = orderService.updateOrder(id, orderRequestDTO,
+                OrderETags.parseIfMatch(id, ifMatch));
+        return ResponseEntity.ok()
+                .eTag(OrderETags.of(updatedOrder.getVersion()))
+                .body(updatedOrder);
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteOrder(@PathVariable String id) {
-        orderService.deleteOrder(id);
+    public ResponseEntity<Void> deleteOrder(@PathVariable String id,
+    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        orderService.deleteOrder(id, OrderETags.parseIfMatch(id, ifMatch));
         return ResponseEntity.noContent().build();
     }
+
+    private MappingJacksonValue sparse(Object body, OrderFieldSelection selection) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        value.setFilters(selection.toFilterProvider());
+        return value;
+    }
+
+    private ResponseEntity<Object> pageResponse(Object content, String nextCursor) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (nextCursor != null) {
+            URI next = ServletUriComponentsBuilder
+                    .fromCurrentRequest()
+                    .replaceQueryParam("cursor", nextCursor)
+                    .build()
+                    .toUri();
+
+            response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+            response.header(NEXT_CURSOR_HEADER, nextCursor);
+        }
+
+        return response.body(content);
+    }
 }
\ No newline at end of file
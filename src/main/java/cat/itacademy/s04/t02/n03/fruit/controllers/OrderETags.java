@@ -0,0 +1,52 @@
+package cat.itacademy.s04.t02.n03.fruit.controllers;
+
+import cat.itacademy.s04.t02.n03.fruit.exception.PreconditionFailedException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class OrderETags {
+
+    private static final String ANY = "*";
+
+    private OrderETags() {
+    }
+
+    static String of(Long version) {
+        return version == null ? null : "\"" + version + "\"";
+    }
+
+    /**
+     * Sparse representations share the order version but not its bytes, so they only get a weak tag.
+     */
+    static String weak(Long version) {
+        return version == null ? null : "W/\"" + version + "\"";
+    }
+
+    /**
+     * Returns the versions listed in an If-Match header, or {@code null} when the write is
+     * unconditional (no header or {@code *}). Weak or foreign tags can never match strongly.
+     */
+    static List<Long> parseIfMatch(String id, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals(ANY)) {
+            return null;
+        }
+
+        List<Long> versions = new ArrayList<>();
+        for (String tag : ifMatch.split(",")) {
+            String trimmed = tag.trim();
+            if (trimmed.length() > 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+                try {
+                    versions.add(Long.parseLong(trimmed.substring(1, trimmed.length() - 1)));
+                } catch (NumberFormatException ignored) {
+                    // not one of our tags
+                }
+            }
+        }
+
+        if (versions.isEmpty()) {
+            throw new PreconditionFailedException(id);
+        }
+        return versions;
+    }
+}
@@ -0,0 +1,221 @@
+package cat.itacademy.s04.t02.n03.fruit.controllers;
+
+import cat.itacademy.s04.t02.n03.fruit.dto.ClientDemandDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.DailyDemandDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.DemandVerificationDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.FruitDemandDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderBatchResultDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderRequestDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderResponseDTO;
+import cat.itacademy.s04.t02.n03.fruit.exception.InvalidFieldSelectionException;
+import cat.itacademy.s04.t02.n03.fruit.pagination.OrderFieldSelection;
+import cat.itacademy.s04.t02.n03.fruit.pagination.OrderView;
+import cat.itacademy.s04.t02.n03.fruit.repository.OrderFilter;
+import cat.itacademy.s04.t02.n03.fruit.services.DailyDemandService;
+import cat.itacademy.s04.t02.n03.fruit.services.IdempotencyService;
+import cat.itacademy.s04.t02.n03.fruit.services.OrderChangeBus;
+import cat.itacademy.s04.t02.n03.fruit.services.OrderService;
+import cat.itacademy.s04.t02.n03.fruit.services.ReactiveOrderService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+@RestController
+@RequestMapping("/orders")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveOrderController {
+
+    private final ReactiveOrderService reactiveOrderService;
+    private final OrderService orderService;
+    private final DailyDemandService dailyDemandService;
+    private final IdempotencyService idempotencyService;
+    private final OrderChangeBus orderChangeBus;
+
+    @PostMapping
+    public Mono<ResponseEntity<OrderResponseDTO>> createOrder(
+            @RequestHeader(name = OrderController.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody OrderRequestDTO orderRequestDTO,
+            ServerHttpRequest request) {
+        Mono<OrderResponseDTO> createdOrderMono = idempotencyKey == null
+                ? reactiveOrderService.createOrder(orderRequestDTO)
+                : blocking(() -> idempotencyService.createOrder(idempotencyKey, orderRequestDTO));
+
+        return createdOrderMono
+                .map(createdOrder -> {
+                    URI location = UriComponentsBuilder
+                            .fromUri(request.getURI())
+                            .path("/{id}")
+                            .buildAndExpand(createdOrder.getId())
+                            .toUri();
+
+                    return ResponseEntity.created(location)
+                            .eTag(OrderETags.of(createdOrder.getVersion()))
+                            .body(createdOrder);
+                });
+    }
+
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<OrderBatchResultDTO>> createOrders(@RequestBody List<OrderRequestDTO> orderRequestDTOs) {
+        return blocking(() -> orderService.createOrders(orderRequestDTOs))
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<Object>> getAllOrders(
+            @RequestParam(required = false) String client,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String fruit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "full") String view,
+            @RequestParam(required = false) String fields,
+            ServerHttpRequest request) {
+        OrderFilter filter = new OrderFilter(client, from, to, fruit);
+        OrderFieldSelection selection = OrderFieldSelection.parse(fields);
+
+        if (OrderView.fromParam(view) == OrderView.SUMMARY) {
+            if (selection != null) {
+                throw new InvalidFieldSelectionException("fields cannot be combined with the summary view");
+            }
+            return reactiveOrderService.getOrderSummariesPage(filter, cursor, size, sort)
+                    .map(page -> pageResponse(request, page.getContent(), page.getNextCursor()));
+        }
+
+        if (selection == null) {
+            return reactiveOrderService.getOrdersPage(filter, cursor, size, sort)
+                    .map(page -> pageResponse(request, page.getContent(), page.getNextCursor()));
+        }
+
+        return reactiveOrderService.getOrdersPage(filter, cursor, size, sort, selection)
+                .map(page -> pageResponse(request, sparse(page.getContent(), selection), page.getNextCursor()));
+    }
+
+    @GetMapping(value = "/export", produces = OrderController.NDJSON_MEDIA_TYPE)
+    public Flux<OrderResponseDTO> exportOrders() {
+        return reactiveOrderService.streamAllOrders();
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> streamOrderChanges(
+            @RequestHeader(name = OrderController.LAST_EVENT_ID_HEADER, required = false) String lastEventId) {
+        return orderChangeBus.subscribeFlux(lastEventId);
+    }
+
+    @GetMapping("/stats/fruits")
+    public Mono<ResponseEntity<List<FruitDemandDTO>>> getFruitDemand(
+            @RequestParam(required = false) String client,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String fruit) {
+        return blocking(() -> orderService.getFruitDemand(new OrderFilter(client, from, to, fruit)))
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/stats/clients")
+    public Mono<ResponseEntity<List<ClientDemandDTO>>> getClientDemand(
+            @RequestParam(required = false) String client,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String fruit) {
+        return blocking(() -> orderService.getClientDemand(new OrderFilter(client, from, to, fruit)))
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/stats/daily/{deliveryDate}")
+    public Mono<ResponseEntity<DailyDemandDTO>> getDailyDemand(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate deliveryDate) {
+        return blocking(() -> dailyDemandService.getDailyDemand(deliveryDate))
+                .map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/stats/daily/verify")
+    public Mono<ResponseEntity<DemandVerificationDTO>> verifyDailyDemand(
+            @RequestParam(defaultValue = "false") boolean repair) {
+        return blocking(() -> dailyDemandService.verify(repair))
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Object>> getOrderById(@PathVariable String id,
+                                                     @RequestParam(required = false) String fields,
+                                                     ServerWebExchange exchange) {
+        OrderFieldSelection selection = OrderFieldSelection.parse(fields);
+        Mono<OrderResponseDTO> order = selection == null
+                ? reactiveOrderService.getOrderById(id)
+                : reactiveOrderService.getOrderById(id, selection);
+
+        return order.map(response -> {
+            String eTag = selection == null ? OrderETags.of(response.getVersion()) : OrderETags.weak(response.getVersion());
+            if (eTag != null && exchange.checkNotModified(eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+            }
+
+            return ResponseEntity.ok().eTag(eTag).body(selection == null ? response : sparse(response, selection));
+        });
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<OrderResponseDTO>> updateOrder(@PathVariable String id,
+    @Valid @RequestBody OrderRequestDTO orderRequestDTO,
+    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return reactiveOrderService.updateOrder(id, orderRequestDTO, OrderETags.parseIfMatch(id, ifMatch))
+                .map(updatedOrder -> ResponseEntity.ok()
+                        .eTag(OrderETags.of(updatedOrder.getVersion()))
+                        .body(updatedOrder));
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteOrder(@PathVariable String id,
+    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return reactiveOrderService.deleteOrder(id, OrderETags.parseIfMatch(id, ifMatch))
+                .then(Mono.just(ResponseEntity.noContent().build()));
+    }
+
+    private MappingJacksonValue sparse(Object body, OrderFieldSelection selection) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        value.setFilters(selection.toFilterProvider());
+        return value;
+    }
+
+    private ResponseEntity<Object> pageResponse(ServerHttpRequest request, Object content, String nextCursor) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (nextCursor != null) {
+            URI next = UriComponentsBuilder
+                    .fromUri(request.getURI())
+                    .replaceQueryParam("cursor", nextCursor)
+                    .build(true)
+                    .toUri();
+
+            response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+            response.header(OrderController.NEXT_CURSOR_HEADER, nextCursor);
+        }
+
+        return response.body(content);
+    }
+
+    private <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+}
@@ -0,0 +1,14 @@
+package cat.itacademy.s04.t02.n03.fruit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClientDemandDTO {
+
+    private String clientName;
+    private long totalKilos;
+}
@@ -0,0 +1,20 @@
+package cat.itacademy.s04.t02.n03.fruit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CollectionSizeDTO {
+
+    private long documents;
+    private long dataSize;
+    private long averageDocumentSize;
+    private long storageSize;
+    private long totalIndexSize;
+    private Map<String, Long> indexSizes;
+}
@@ -0,0 +1,17 @@
+package cat.itacademy.s04.t02.n03.fruit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyDemandDTO {
+
+    private LocalDate deliveryDate;
+    private Map<String, Long> kilosByFruit;
+}
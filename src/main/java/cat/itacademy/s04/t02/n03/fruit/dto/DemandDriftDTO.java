@@ -0,0 +1,18 @@
+package cat.itacademy.s04.t02.n03.fruit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DemandDriftDTO {
+
+    private LocalDate deliveryDate;
+    private String fruitName;
+    private long expectedKilos;
+    private long actualKilos;
+}
@@ -0,0 +1,17 @@
+package cat.itacademy.s04.t02.n03.fruit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderBatchResultDTO {
+
+    private int created;
+    private int rejected;
+    private List<OrderBatchItemResultDTO> results;
+}
@@ -0,0 +1,24 @@
+package cat.itacademy.s04.t02.n03.fruit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One event of {@code GET /orders/stream}. {@code order} is the order as stored after the change, and is
+ * absent for deletions.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderChangeDTO {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    private Type type;
+    private String id;
+    private Long version;
+    private OrderResponseDTO order;
+}
@@ -0,0 +1,15 @@
+package cat.itacademy.s04.t02.n03.fruit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderMigrationReportDTO {
+
+    private long migratedOrders;
+    private CollectionSizeDTO before;
+    private CollectionSizeDTO after;
+}
@@ -1,5 +1,6 @@
 package cat.itacademy.s04.t02.n03.fruit.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -16,4 +17,7 @@ public class OrderResponseDTO {
     private String clientName;
     private LocalDate deliveryDate;
     private List<OrderItemDTO> items;
+
+    @JsonIgnore
+    private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package cat.itacademy.s04.t02.n03.fruit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummaryDTO {
+
+    private String id;
+    private String clientName;
+    private LocalDate deliveryDate;
+    private int itemCount;
+    private long totalKilos;
+}
@@ -0,0 +1,8 @@
+package cat.itacademy.s04.t02.n03.fruit.exception;
+
+public class FruitCatalogFullException extends RuntimeException {
+
+    public FruitCatalogFullException(String fruitName, int maxSize) {
+        super("Unknown fruit '" + fruitName + "': the fruit catalog is full (" + maxSize + " fruits)");
+    }
+}
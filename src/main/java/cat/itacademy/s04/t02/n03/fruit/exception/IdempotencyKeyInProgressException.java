@@ -0,0 +1,8 @@
+package cat.itacademy.s04.t02.n03.fruit.exception;
+
+public class IdempotencyKeyInProgressException extends RuntimeException {
+
+    public IdempotencyKeyInProgressException(String key) {
+        super("A request with Idempotency-Key " + key + " is still being processed");
+    }
+}
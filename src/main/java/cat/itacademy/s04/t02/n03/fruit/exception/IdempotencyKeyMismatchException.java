@@ -0,0 +1,8 @@
+package cat.itacademy.s04.t02.n03.fruit.exception;
+
+public class IdempotencyKeyMismatchException extends RuntimeException {
+
+    public IdempotencyKeyMismatchException(String key) {
+        super("Idempotency-Key " + key + " was already used with a different request");
+    }
+}
@@ -0,0 +1,27 @@
+package cat.itacademy.s04.t02.n03.fruit.jobs;
+
+import cat.itacademy.s04.t02.n03.fruit.config.DailyDemandProperties;
+import cat.itacademy.s04.t02.n03.fruit.dto.DemandVerificationDTO;
+import cat.itacademy.s04.t02.n03.fruit.services.DailyDemandService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "orders.daily-demand", name = "verify-enabled", havingValue = "true", matchIfMissing = true)
+public class DailyDemandVerificationJob {
+
+    private final DailyDemandService dailyDemandService;
+    private final DailyDemandProperties properties;
+
+    @Scheduled(cron = "${orders.daily-demand.verify-cron:0 30 3 * * *}")
+    public void verify() {
+        DemandVerificationDTO report = dailyDemandService.verify(properties.isRepairOnDrift());
+        log.info("Daily demand verification checked {} days, found {} drifted entries (repaired: {})",
+                report.getDaysChecked(), report.getDrifts().size(), report.isRepaired());
+    }
+}
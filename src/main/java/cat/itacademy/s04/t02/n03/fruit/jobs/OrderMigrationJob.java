@@ -0,0 +1,69 @@
+package cat.itacademy.s04.t02.n03.fruit.jobs;
+
+import cat.itacademy.s04.t02.n03.fruit.config.OrderMigrationProperties;
+import cat.itacademy.s04.t02.n03.fruit.dto.CollectionSizeDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderMigrationReportDTO;
+import cat.itacademy.s04.t02.n03.fruit.services.OrderMigrationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Counts the legacy orders on startup and, when there are any and {@code migrate-on-startup} is set, rewrites
+ * them on a dedicated thread while the application serves traffic. Shutting down interrupts the rewrite
+ * between two batches; the next start resumes it.
+ */
+@Slf4j
+@Component
+public class OrderMigrationJob implements DisposableBean {
+
+    private final OrderMigrationService orderMigrationService;
+    private final OrderMigrationProperties properties;
+    private final ExecutorService executor;
+
+    public OrderMigrationJob(OrderMigrationService orderMigrationService, OrderMigrationProperties properties) {
+        this.orderMigrationService = orderMigrationService;
+        this.properties = properties;
+        this.executor = Executors.newSingleThreadExecutor(Thread.ofPlatform().name("order-migration").daemon().factory());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        long legacyOrders = orderMigrationService.countLegacyOrders();
+        if (legacyOrders == 0) {
+            log.info("Order layout migration found no legacy orders");
+        } else if (properties.isMigrateOnStartup()) {
+            log.info("Order layout migration of {} legacy orders started in the background", legacyOrders);
+            executor.execute(this::migrate);
+        } else {
+            log.warn("{} orders are stored in a legacy layout and orders.migration.migrate-on-startup is off", legacyOrders);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    void migrate() {
+        OrderMigrationReportDTO report;
+        try {
+            report = orderMigrationService.migrateLegacyOrders();
+        } catch (RuntimeException ex) {
+            log.error("Order layout migration failed, it resumes on the next start", ex);
+            return;
+        }
+
+        CollectionSizeDTO before = report.getBefore();
+        CollectionSizeDTO after = report.getAfter();
+        log.info("Order layout migration rewrote {} orders: data {} -> {} bytes (avg {} -> {}), indexes {} -> {} bytes {}",
+                report.getMigratedOrders(), before.getDataSize(), after.getDataSize(),
+                before.getAverageDocumentSize(), after.getAverageDocumentSize(),
+                before.getTotalIndexSize(), after.getTotalIndexSize(), after.getIndexSizes());
+    }
+}
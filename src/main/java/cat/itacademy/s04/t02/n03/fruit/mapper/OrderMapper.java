@@ -5,14 +5,19 @@ import cat.itacademy.s04.t02.n03.fruit.dto.OrderRequestDTO;
 import cat.itacademy.s04.t02.n03.fruit.dto.OrderResponseDTO;
 import cat.itacademy.s04.t02.n03.fruit.model.Order;
 import cat.itacademy.s04.t02.n03.fruit.model.OrderItem;
+import cat.itacademy.s04.t02.n03.fruit.services.FruitCatalogService;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Component
+@RequiredArgsConstructor
 public class OrderMapper {
 
+    private final FruitCatalogService fruitCatalog;
+
     public Order toEntity(OrderRequestDTO dto) {
         Order order = new Order();
         order.setClientName(dto.getClientName());
@@ -27,18 +32,22 @@ public class OrderMapper {
         dto.setClientName(order.getClientName());
         dto.setDeliveryDate(order.getDeliveryDate());
         dto.setItems(toOrderItemDTOList(order.getItems()));
+        dto.setVersion(order.getVersion());
         return dto;
     }
 
     private List<OrderItem> toOrderItemList(List<OrderItemDTO> dtoList) {
         return dtoList.stream()
-                .map(dto -> new OrderItem(dto.getFruitName(), dto.getQuantityInKilos()))
+                .map(dto -> new OrderItem(fruitCatalog.codeOf(dto.getFruitName()), dto.getQuantityInKilos()))
                 .collect(Collectors.toList());
     }
 
     private List<OrderItemDTO> toOrderItemDTOList(List<OrderItem> itemList) {
+        if (itemList == null) {
+            return null;
+        }
         return itemList.stream()
-                .map(item -> new OrderItemDTO(item.getFruitName(), item.getQuantityInKilos()))
+                .map(item -> new OrderItemDTO(fruitCatalog.nameOf(item), item.getQuantityInKilos()))
                 .collect(Collectors.toList());
     }
 }
@@ -0,0 +1,29 @@
+package cat.itacademy.s04.t02.n03.fruit.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Kilos of each fruit shipping on one delivery date, maintained incrementally from order writes.
+ * Fruit names are stored as escaped map keys, see {@code DailyDemandRepositoryCustomImpl}. Every write
+ * bumps {@code revision}, which guards the verification's repair against concurrent deltas.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "daily_demand")
+public class DailyDemand {
+
+    @Id
+    private LocalDate deliveryDate;
+
+    private Map<String, Long> kilosByFruit;
+
+    private long revision;
+}
@@ -0,0 +1,25 @@
+package cat.itacademy.s04.t02.n03.fruit.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Catalog entry giving each fruit name a compact numeric code. Order items store the code,
+ * so the name is kept once here instead of in every embedded item.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "fruits")
+public class Fruit {
+
+    @Id
+    private Integer code;
+
+    @Indexed(unique = true)
+    private String name;
+}
@@ -0,0 +1,32 @@
+package cat.itacademy.s04.t02.n03.fruit.model;
+
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderResponseDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Outcome of a {@code POST /orders} sent with an {@code Idempotency-Key}. The record is claimed without a
+ * response while the order is created, and removed by the TTL index once {@code expiresAt} has passed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "idempotency_keys")
+public class IdempotencyRecord {
+
+    @Id
+    private String key;
+
+    private String requestHash;
+
+    private OrderResponseDTO response;
+
+    @Indexed(expireAfter = "0s")
+    private Instant expiresAt;
+}
@@ -4,15 +4,27 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDate;
 import java.util.List;
 
+/**
+ * Persisted in the compact layout described by {@code OrderDocuments}, so index definitions
+ * and queries use the stored field names ({@code c}, {@code d}, {@code f}).
+ */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "orders")
+@CompoundIndexes({
+        @CompoundIndex(name = "d_id", def = "{'d': 1, '_id': 1}"),
+        @CompoundIndex(name = "c_d_id", def = "{'c': 1, 'd': 1, '_id': 1}"),
+        @CompoundIndex(name = "f_d_id", def = "{'f': 1, 'd': 1, '_id': 1}")
+})
 public class Order {
 
     @Id
@@ -21,4 +33,7 @@ public class Order {
     private String clientName;
     private LocalDate deliveryDate;
     private List<OrderItem> items;
+
+    @Version
+    private Long version;
 }
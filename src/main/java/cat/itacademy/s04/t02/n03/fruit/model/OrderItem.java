@@ -4,11 +4,24 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+/**
+ * Items reference the fruit catalog by code. {@code fruitName} is only set on items read from
+ * documents written before the catalog existed, until {@code OrderMigrationService} rewrites them.
+ */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class OrderItem {
 
+    private Integer fruitCode;
     private String fruitName;
     private int quantityInKilos;
+
+    public OrderItem(int fruitCode, int quantityInKilos) {
+        this(fruitCode, null, quantityInKilos);
+    }
+
+    public OrderItem(String fruitName, int quantityInKilos) {
+        this(null, fruitName, quantityInKilos);
+    }
 }
@@ -0,0 +1,107 @@
+package cat.itacademy.s04.t02.n03.fruit.monitoring;
+
+import cat.itacademy.s04.t02.n03.fruit.config.MongoInstrumentationProperties;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@RequiredArgsConstructor
+public class MongoCommandMetricsListener implements CommandListener {
+
+    public static final String REPLY_SIZE_METRIC = "mongodb.command.reply.size";
+
+    private static final BsonDocumentCodec DOCUMENT_CODEC = new BsonDocumentCodec();
+
+    private final MeterRegistry meterRegistry;
+    private final MongoInstrumentationProperties properties;
+    private final Map<Integer, StartedCommand> inFlight = new ConcurrentHashMap<>();
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        BsonDocument command = event.getCommand();
+        // The command document is only valid inside this callback, so the shape is taken now
+        BsonDocument shape = properties.isSlowCommandLogEnabled()
+                ? MongoCommandShapes.of(event.getCommandName(), command)
+                : null;
+        inFlight.put(event.getRequestId(), new StartedCommand(collection(event.getCommandName(), command), shape));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        StartedCommand started = inFlight.remove(event.getRequestId());
+        if (started == null) {
+            return;
+        }
+
+        if (properties.isReplySizeEnabled() && event.getResponse() != null) {
+            DistributionSummary.builder(REPLY_SIZE_METRIC)
+                    .description("Size of MongoDB command replies")
+                    .baseUnit("bytes")
+                    .tag("command", event.getCommandName())
+                    .tag("collection", started.collection())
+                    .register(meterRegistry)
+                    .record(sizeInBytes(event.getResponse()));
+        }
+        logIfSlow(event.getCommandName(), started, event.getElapsedTime(TimeUnit.NANOSECONDS), "succeeded");
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        StartedCommand started = inFlight.remove(event.getRequestId());
+        if (started == null) {
+            return;
+        }
+        logIfSlow(event.getCommandName(), started, event.getElapsedTime(TimeUnit.NANOSECONDS),
+                "failed: " + event.getThrowable().getMessage());
+    }
+
+    private void logIfSlow(String commandName, StartedCommand started, long elapsedNanos, String status) {
+        if (started.shape() == null || elapsedNanos < properties.getSlowCommandThreshold().toNanos()) {
+            return;
+        }
+        log.warn("Slow MongoDB command {} on {} took {} ms ({}): {}", commandName, started.collection(),
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), status, started.shape().toJson());
+    }
+
+    private String collection(String commandName, BsonDocument command) {
+        BsonValue value = command.get(commandName);
+        if (value != null && value.isString()) {
+            return value.asString().getValue();
+        }
+        BsonValue getMoreCollection = command.get("collection");
+        return getMoreCollection != null && getMoreCollection.isString()
+                ? getMoreCollection.asString().getValue()
+                : "unknown";
+    }
+
+    private int sizeInBytes(BsonDocument response) {
+        if (response instanceof RawBsonDocument raw) {
+            return raw.getByteBuffer().remaining();
+        }
+        try (BasicOutputBuffer buffer = new BasicOutputBuffer();
+             BsonBinaryWriter writer = new BsonBinaryWriter(buffer)) {
+            DOCUMENT_CODEC.encode(writer, response, EncoderContext.builder().build());
+            return buffer.getPosition();
+        }
+    }
+
+    private record StartedCommand(String collection, BsonDocument shape) {
+    }
+}
@@ -0,0 +1,70 @@
+package cat.itacademy.s04.t02.n03.fruit.monitoring;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+final class MongoCommandShapes {
+
+    private static final BsonString REDACTED = new BsonString("?");
+    private static final List<String> SHAPE_FIELDS = List.of("filter", "query", "q", "sort", "pipeline", "projection", "hint");
+    private static final List<String> STATEMENT_ARRAYS = List.of("updates", "deletes");
+    private static final Set<String> CLAUSE_ARRAYS = Set.of("$and", "$or", "$nor", "pipeline");
+
+    private MongoCommandShapes() {
+    }
+
+    static BsonDocument of(String commandName, BsonDocument command) {
+        BsonDocument shape = new BsonDocument(commandName, command.get(commandName, REDACTED));
+        copyShape(command, shape);
+
+        for (String statements : STATEMENT_ARRAYS) {
+            BsonValue value = command.get(statements);
+            if (value != null && value.isArray() && !value.asArray().isEmpty() && value.asArray().get(0).isDocument()) {
+                BsonDocument statementShape = new BsonDocument();
+                copyShape(value.asArray().get(0).asDocument(), statementShape);
+                shape.append(statements, new BsonArray(List.of(statementShape)));
+            }
+        }
+        return shape;
+    }
+
+    static BsonValue redact(BsonValue value) {
+        if (value.isDocument()) {
+            BsonDocument redacted = new BsonDocument();
+            value.asDocument().forEach((key, nested) -> redacted.append(key, redact(key, nested)));
+            return redacted;
+        }
+        if (value.isArray()) {
+            BsonArray array = value.asArray();
+            return array.isEmpty() ? new BsonArray() : new BsonArray(List.of(redact(array.get(0))));
+        }
+        return REDACTED;
+    }
+
+    // Value arrays such as $in collapse to one placeholder, clause and stage arrays keep every element
+    private static BsonValue redact(String key, BsonValue value) {
+        if (!value.isArray() || !CLAUSE_ARRAYS.contains(key)) {
+            return redact(value);
+        }
+        BsonArray redacted = new BsonArray(new ArrayList<>(value.asArray().size()));
+        value.asArray().forEach(element -> redacted.add(redact(element)));
+        return redacted;
+    }
+
+    private static void copyShape(BsonDocument source, BsonDocument target) {
+        for (String field : SHAPE_FIELDS) {
+            BsonValue value = source.get(field);
+            if (value != null) {
+                target.append(field, field.equals("sort") || field.equals("projection") || field.equals("hint")
+                        ? value
+                        : redact(field, value));
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package cat.itacademy.s04.t02.n03.fruit.monitoring;
+
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+@RequiredArgsConstructor
+public class MongoPoolCheckoutListener implements ConnectionPoolListener {
+
+    public static final String CHECKOUT_METRIC = "mongodb.pool.checkout.wait";
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        record(event.getConnectionId().getServerId().getAddress().toString(), "success",
+                event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        record(event.getServerId().getAddress().toString(), event.getReason().name().toLowerCase(Locale.ROOT),
+                event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    private void record(String serverAddress, String outcome, long elapsedNanos) {
+        Timer.builder(CHECKOUT_METRIC)
+                .description("Time spent waiting to check a connection out of the MongoDB pool")
+                .tag("server.address", serverAddress)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,22 @@
+package cat.itacademy.s04.t02.n03.fruit.monitoring;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.reactive.observation.ServerRequestObservationContext;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class OrderOutcomeReactiveObservationConvention extends DefaultServerRequestObservationConvention {
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+        HttpStatusCode statusCode = context.getResponse() != null ? context.getResponse().getStatusCode() : null;
+        int status = statusCode != null ? statusCode.value() : 500;
+        String outcome = OrderOutcomes.of(context.getCarrier().getMethod().name(), context.getPathPattern(), status);
+        return super.getLowCardinalityKeyValues(context).and(KeyValue.of(OrderOutcomes.TAG, outcome));
+    }
+}
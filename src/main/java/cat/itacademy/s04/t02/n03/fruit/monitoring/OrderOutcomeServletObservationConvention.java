@@ -0,0 +1,20 @@
+package cat.itacademy.s04.t02.n03.fruit.monitoring;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class OrderOutcomeServletObservationConvention extends DefaultServerRequestObservationConvention {
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+        int status = context.getResponse() != null ? context.getResponse().getStatus() : 500;
+        String outcome = OrderOutcomes.of(context.getCarrier().getMethod(), context.getPathPattern(), status);
+        return super.getLowCardinalityKeyValues(context).and(KeyValue.of(OrderOutcomes.TAG, outcome));
+    }
+}
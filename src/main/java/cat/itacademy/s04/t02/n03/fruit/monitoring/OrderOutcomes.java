@@ -0,0 +1,66 @@
+package cat.itacademy.s04.t02.n03.fruit.monitoring;
+
+import cat.itacademy.s04.t02.n03.fruit.exception.FruitCatalogFullException;
+import cat.itacademy.s04.t02.n03.fruit.exception.InvalidBatchRequestException;
+import cat.itacademy.s04.t02.n03.fruit.exception.InvalidPageRequestException;
+import cat.itacademy.s04.t02.n03.fruit.exception.OrderNotFoundException;
+import cat.itacademy.s04.t02.n03.fruit.exception.OrderQueueFullException;
+import cat.itacademy.s04.t02.n03.fruit.exception.PreconditionFailedException;
+import jakarta.validation.ConstraintViolationException;
+
+final class OrderOutcomes {
+
+    static final String TAG = "order.outcome";
+    static final String FOUND = "found";
+    static final String SUCCESS = "success";
+    static final String NOT_FOUND = "not_found";
+    static final String VALIDATION_ERROR = "validation_error";
+    static final String PRECONDITION_FAILED = "precondition_failed";
+    static final String QUEUE_FULL = "queue_full";
+    static final String CATALOG_FULL = "catalog_full";
+    static final String CLIENT_ERROR = "client_error";
+    static final String ERROR = "error";
+
+    private static final String ORDER_BY_ID_PATTERN = "/orders/{id}";
+
+    private OrderOutcomes() {
+    }
+
+    static String success(String operation) {
+        return operation.equals("getOrderById") ? FOUND : SUCCESS;
+    }
+
+    static String of(Throwable ex) {
+        if (ex instanceof OrderNotFoundException) {
+            return NOT_FOUND;
+        }
+        if (ex instanceof InvalidPageRequestException
+                || ex instanceof InvalidBatchRequestException
+                || ex instanceof ConstraintViolationException) {
+            return VALIDATION_ERROR;
+        }
+        if (ex instanceof PreconditionFailedException) {
+            return PRECONDITION_FAILED;
+        }
+        if (ex instanceof OrderQueueFullException) {
+            return QUEUE_FULL;
+        }
+        if (ex instanceof FruitCatalogFullException) {
+            return CATALOG_FULL;
+        }
+        return ERROR;
+    }
+
+    static String of(String method, String pathPattern, int status) {
+        if (status < 400) {
+            return "GET".equals(method) && ORDER_BY_ID_PATTERN.equals(pathPattern) ? FOUND : SUCCESS;
+        }
+        return switch (status) {
+            case 400 -> VALIDATION_ERROR;
+            case 404 -> NOT_FOUND;
+            case 412 -> PRECONDITION_FAILED;
+            case 429 -> QUEUE_FULL;
+            default -> status < 500 ? CLIENT_ERROR : ERROR;
+        };
+    }
+}
@@ -0,0 +1,116 @@
+package cat.itacademy.s04.t02.n03.fruit.monitoring;
+
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderBatchResultDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderRequestDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class OrderServiceMetricsAspect {
+
+    public static final String OPERATION_METRIC = "orders.service";
+    public static final String ITEMS_METRIC = "orders.items.per.order";
+    public static final String BATCH_ITEMS_METRIC = "orders.batch.items";
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("execution(* cat.itacademy.s04.t02.n03.fruit.services.OrderService.*(..))"
+            + " || execution(* cat.itacademy.s04.t02.n03.fruit.services.ReactiveOrderService.*(..))")
+    public Object timeOperation(ProceedingJoinPoint joinPoint) throws Throwable {
+        String operation = joinPoint.getSignature().getName();
+        recordItemsPerOrder(operation, joinPoint.getArgs());
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable ex) {
+            stop(sample, operation, OrderOutcomes.of(ex));
+            throw ex;
+        }
+
+        if (result instanceof Mono<?> mono) {
+            return Mono.defer(() -> {
+                Timer.Sample reactiveSample = Timer.start(meterRegistry);
+                return mono
+                        .doOnSuccess(value -> stop(reactiveSample, operation, OrderOutcomes.success(operation)))
+                        .doOnError(ex -> stop(reactiveSample, operation, OrderOutcomes.of(ex)));
+            });
+        }
+        if (result instanceof Flux<?> flux) {
+            return Flux.defer(() -> {
+                Timer.Sample reactiveSample = Timer.start(meterRegistry);
+                return flux
+                        .doOnComplete(() -> stop(reactiveSample, operation, OrderOutcomes.success(operation)))
+                        .doOnError(ex -> stop(reactiveSample, operation, OrderOutcomes.of(ex)));
+            });
+        }
+        if (result instanceof Stream<?> stream) {
+            // Streams are lazy: the query runs while the caller consumes them, so stop on close.
+            return stream.onClose(() -> stop(sample, operation, OrderOutcomes.success(operation)));
+        }
+
+        if (result instanceof OrderBatchResultDTO batchResult) {
+            recordBatch(batchResult);
+        }
+        stop(sample, operation, OrderOutcomes.success(operation));
+        return result;
+    }
+
+    private void stop(Timer.Sample sample, String operation, String outcome) {
+        sample.stop(Timer.builder(OPERATION_METRIC)
+                .description("OrderService operation latency")
+                .tag("operation", operation)
+                .tag(OrderOutcomes.TAG, outcome)
+                .register(meterRegistry));
+    }
+
+    private void recordItemsPerOrder(String operation, Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof OrderRequestDTO orderRequestDTO) {
+                recordItems(operation, orderRequestDTO);
+            } else if (arg instanceof List<?> list) {
+                list.stream()
+                        .filter(OrderRequestDTO.class::isInstance)
+                        .forEach(element -> recordItems(operation, (OrderRequestDTO) element));
+            }
+        }
+    }
+
+    private void recordItems(String operation, OrderRequestDTO orderRequestDTO) {
+        if (orderRequestDTO.getItems() == null) {
+            return;
+        }
+        DistributionSummary.builder(ITEMS_METRIC)
+                .description("Number of items per submitted order")
+                .baseUnit("items")
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .record(orderRequestDTO.getItems().size());
+    }
+
+    private void recordBatch(OrderBatchResultDTO batchResult) {
+        Counter.builder(BATCH_ITEMS_METRIC)
+                .tag(OrderOutcomes.TAG, "created")
+                .register(meterRegistry)
+                .increment(batchResult.getCreated());
+        Counter.builder(BATCH_ITEMS_METRIC)
+                .tag(OrderOutcomes.TAG, "rejected")
+                .register(meterRegistry)
+                .increment(batchResult.getRejected());
+    }
+}
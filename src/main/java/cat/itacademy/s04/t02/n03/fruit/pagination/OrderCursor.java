@@ -0,0 +1,62 @@
+package cat.itacademy.s04.t02.n03.fruit.pagination;
+
+import cat.itacademy.s04.t02.n03.fruit.exception.InvalidPageRequestException;
+import cat.itacademy.s04.t02.n03.fruit.model.Order;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.bson.types.ObjectId;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position of the last order returned in a page. It is handed to clients
+ * as an opaque URL-safe token so the next page starts right after it, whatever the depth.
+ */
+@Data
+@AllArgsConstructor
+public class OrderCursor {
+
+    private static final String SEPARATOR = ":";
+
+    private OrderSortField sortField;
+    private LocalDate deliveryDate;
+    private String id;
+
+    public static OrderCursor after(Order order, OrderSortField sortField) {
+        return after(order.getId(), order.getDeliveryDate(), sortField);
+    }
+
+    public static OrderCursor after(String id, LocalDate deliveryDate, OrderSortField sortField) {
+        return new OrderCursor(sortField, sortField == OrderSortField.DELIVERY_DATE ? deliveryDate : null, id);
+    }
+
+    public String encode() {
+        String raw = sortField.getParamName() + SEPARATOR
+                + (deliveryDate != null ? deliveryDate.toString() : "") + SEPARATOR
+                + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static OrderCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR, 3);
+            if (parts.length != 3 || !ObjectId.isValid(parts[2])) {
+                throw new InvalidPageRequestException("Invalid cursor: " + token);
+            }
+
+            OrderSortField sortField = OrderSortField.fromParam(parts[0]);
+            LocalDate deliveryDate = parts[1].isEmpty() ? null : LocalDate.parse(parts[1]);
+            if (sortField == OrderSortField.DELIVERY_DATE && deliveryDate == null) {
+                throw new InvalidPageRequestException("Invalid cursor: " + token);
+            }
+
+            return new OrderCursor(sortField, deliveryDate, parts[2]);
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new InvalidPageRequestException("Invalid cursor: " + token);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package cat.itacademy.s04.t02.n03.fruit.pagination;
+
+import cat.itacademy.s04.t02.n03.fruit.exception.InvalidFieldSelectionException;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Sparse fieldset requested through {@code ?fields=}. The same selection drives the Mongo
+ * projection, so unrequested fields are never read, and the Jackson filters that render the response.
+ */
+public final class OrderFieldSelection {
+
+    public static final String ORDER_FILTER = "orderFields";
+    public static final String ORDER_ITEM_FILTER = "orderItemFields";
+
+    private static final String ITEMS = "items";
+    private static final String ITEM_PREFIX = ITEMS + ".";
+    private static final List<String> ORDER_FIELDS = List.of("id", "clientName", "deliveryDate", ITEMS);
+    private static final List<String> ITEM_FIELDS = List.of("fruitName", "quantityInKilos");
+
+    private final Set<String> orderFields;
+    private final Set<String> itemFields;
+
+    private OrderFieldSelection(Set<String> orderFields, Set<String> itemFields) {
+        this.orderFields = orderFields;
+        this.itemFields = itemFields;
+    }
+
+    /**
+     * Parses a comma separated field list, or returns {@code null} when the full representation was requested.
+     */
+    public static OrderFieldSelection parse(String fields) {
+        if (fields == null) {
+            return null;
+        }
+
+        Set<String> orderFields = new LinkedHashSet<>();
+        Set<String> itemFields = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String trimmed = field.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+
+            if (ORDER_FIELDS.contains(trimmed)) {
+                orderFields.add(trimmed);
+            } else if (trimmed.startsWith(ITEM_PREFIX) && ITEM_FIELDS.contains(trimmed.substring(ITEM_PREFIX.length()))) {
+                itemFields.add(trimmed.substring(ITEM_PREFIX.length()));
+            } else {
+                throw new InvalidFieldSelectionException("Unknown field: " + trimmed);
+            }
+        }
+
+        if (orderFields.isEmpty() && itemFields.isEmpty()) {
+            throw new InvalidFieldSelectionException("At least one field must be requested");
+        }
+        if (orderFields.contains(ITEMS)) {
+            itemFields.clear();
+        }
+        return new OrderFieldSelection(orderFields, itemFields);
+    }
+
+    /**
+     * Requested paths of {@code OrderResponseDTO} to project, {@code id} aside as it is always returned.
+     * A whole {@code items} selection replaces its sub-paths, which would otherwise collide.
+     */
+    public Set<String> getFieldPaths() {
+        Set<String> fieldPaths = new LinkedHashSet<>();
+        for (String field : orderFields) {
+            if (!field.equals("id")) {
+                fieldPaths.add(field);
+            }
+        }
+        for (String field : itemFields) {
+            fieldPaths.add(ITEM_PREFIX + field);
+        }
+        return fieldPaths;
+    }
+
+    public FilterProvider toFilterProvider() {
+        Set<String> rendered = new LinkedHashSet<>(orderFields);
+        if (!itemFields.isEmpty()) {
+            rendered.add(ITEMS);
+        }
+
+        return new SimpleFilterProvider()
+                .addFilter(ORDER_FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(rendered))
+                .addFilter(ORDER_ITEM_FILTER, itemFields.isEmpty()
+                        ? SimpleBeanPropertyFilter.serializeAll()
+                        : SimpleBeanPropertyFilter.filterOutAllExcept(itemFields));
+    }
+}
@@ -0,0 +1,28 @@
+package cat.itacademy.s04.t02.n03.fruit.pagination;
+
+import cat.itacademy.s04.t02.n03.fruit.exception.InvalidPageRequestException;
+
+import java.util.Arrays;
+
+public enum OrderSortField {
+
+    ID("id"),
+    DELIVERY_DATE("deliveryDate");
+
+    private final String paramName;
+
+    OrderSortField(String paramName) {
+        this.paramName = paramName;
+    }
+
+    public String getParamName() {
+        return paramName;
+    }
+
+    public static OrderSortField fromParam(String value) {
+        return Arrays.stream(values())
+                .filter(field -> field.paramName.equals(value))
+                .findFirst()
+                .orElseThrow(() -> new InvalidPageRequestException("Unsupported sort field: " + value));
+    }
+}
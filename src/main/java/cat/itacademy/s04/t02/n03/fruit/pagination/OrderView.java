@@ -0,0 +1,28 @@
+package cat.itacademy.s04.t02.n03.fruit.pagination;
+
+import cat.itacademy.s04.t02.n03.fruit.exception.InvalidPageRequestException;
+
+import java.util.Arrays;
+
+public enum OrderView {
+
+    FULL("full"),
+    SUMMARY("summary");
+
+    private final String paramName;
+
+    OrderView(String paramName) {
+        this.paramName = paramName;
+    }
+
+    public String getParamName() {
+        return paramName;
+    }
+
+    public static OrderView fromParam(String value) {
+        return Arrays.stream(values())
+                .filter(view -> view.paramName.equals(value))
+                .findFirst()
+                .orElseThrow(() -> new InvalidPageRequestException("Unsupported view: " + value));
+    }
+}
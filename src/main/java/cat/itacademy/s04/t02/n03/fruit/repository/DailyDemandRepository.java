@@ -0,0 +1,11 @@
+package cat.itacademy.s04.t02.n03.fruit.repository;
+
+import cat.itacademy.s04.t02.n03.fruit.model.DailyDemand;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+
+@Repository
+public interface DailyDemandRepository extends DocumentRepository<DailyDemand, LocalDate>, DailyDemandRepositoryCustom {
+
+}
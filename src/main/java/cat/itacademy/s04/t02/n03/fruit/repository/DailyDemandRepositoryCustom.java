@@ -0,0 +1,14 @@
+package cat.itacademy.s04.t02.n03.fruit.repository;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+
+public interface DailyDemandRepositoryCustom {
+    void applyDeltas(Map<LocalDate, Map<String, Long>> deltas);
+    Optional<Map<String, Long>> findKilosByFruit(LocalDate deliveryDate);
+    Map<LocalDate, Map<String, Long>> findAllKilosByFruit();
+    Map<LocalDate, Long> findAllRevisions();
+    Map<LocalDate, Map<String, Long>> computeFromOrders();
+    boolean replaceDay(LocalDate deliveryDate, Map<String, Long> kilosByFruit, Long expectedRevision);
+}
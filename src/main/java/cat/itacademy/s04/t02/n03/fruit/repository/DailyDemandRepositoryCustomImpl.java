@@ -0,0 +1,153 @@
+package cat.itacademy.s04.t02.n03.fruit.repository;
+
+import cat.itacademy.s04.t02.n03.fruit.model.DailyDemand;
+import cat.itacademy.s04.t02.n03.fruit.model.Order;
+import cat.itacademy.s04.t02.n03.fruit.services.FruitCatalogService;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.Fields;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+public class DailyDemandRepositoryCustomImpl implements DailyDemandRepositoryCustom {
+
+    private static final String KILOS_FIELD = "kilosByFruit";
+    private static final String REVISION_FIELD = "revision";
+
+    private final MongoTemplate mongoTemplate;
+    private final FruitCatalogService fruitCatalog;
+
+    @Override
+    public void applyDeltas(Map<LocalDate, Map<String, Long>> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DailyDemand.class);
+        deltas.forEach((deliveryDate, fruitDeltas) -> {
+            Update update = new Update().inc(REVISION_FIELD, 1);
+            fruitDeltas.forEach((fruitName, kilos) -> update.inc(KILOS_FIELD + "." + escape(fruitName), kilos));
+            bulkOperations.upsert(byDate(deliveryDate), update);
+        });
+        bulkOperations.execute();
+    }
+
+    @Override
+    public Optional<Map<String, Long>> findKilosByFruit(LocalDate deliveryDate) {
+        return Optional.ofNullable(mongoTemplate.findOne(byDate(deliveryDate), DailyDemand.class))
+                .map(demand -> unescape(demand.getKilosByFruit()));
+    }
+
+    @Override
+    public Map<LocalDate, Map<String, Long>> findAllKilosByFruit() {
+        Map<LocalDate, Map<String, Long>> rollup = new TreeMap<>();
+        try (Stream<DailyDemand> days = mongoTemplate.stream(new Query(), DailyDemand.class)) {
+            days.forEach(demand -> rollup.put(demand.getDeliveryDate(), unescape(demand.getKilosByFruit())));
+        }
+        return rollup;
+    }
+
+    @Override
+    public Map<LocalDate, Long> findAllRevisions() {
+        Query query = new Query();
+        query.fields().include("_id", REVISION_FIELD);
+
+        Map<LocalDate, Long> revisions = new TreeMap<>();
+        try (Stream<DailyDemand> days = mongoTemplate.stream(query, DailyDemand.class)) {
+            days.forEach(demand -> revisions.put(demand.getDeliveryDate(), demand.getRevision()));
+        }
+        return revisions;
+    }
+
+    @Override
+    public Map<LocalDate, Map<String, Long>> computeFromOrders() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                OrderQueries.unwindItems(),
+                Aggregation.group(Fields.from(Fields.field("deliveryDay", OrderDocuments.DELIVERY_DATE),
+                        Fields.field("fruitCode", OrderDocuments.FRUITS))).sum(OrderQueries.itemKilos()).as("kilos")
+        ).withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+        Map<LocalDate, Map<String, Long>> expected = new TreeMap<>();
+        try (Stream<DemandRow> rows = mongoTemplate.aggregateStream(aggregation,
+                mongoTemplate.getCollectionName(Order.class), DemandRow.class)) {
+            rows.filter(row -> row.getId().getDeliveryDay() != null && row.getId().getFruitCode() != null)
+                    .forEach(row -> expected
+                            .computeIfAbsent(LocalDate.ofEpochDay(row.getId().getDeliveryDay()), date -> new TreeMap<>())
+                            .merge(fruitCatalog.nameOf(row.getId().getFruitCode()), row.getKilos(), Long::sum));
+        }
+        return expected;
+    }
+
+    /**
+     * Replaces the day only if it is still at {@code expectedRevision}, or still absent when that is
+     * {@code null}. Days written before revisions existed count as revision 0.
+     */
+    @Override
+    public boolean replaceDay(LocalDate deliveryDate, Map<String, Long> kilosByFruit, Long expectedRevision) {
+        Map<String, Long> escaped = new HashMap<>();
+        kilosByFruit.forEach((fruitName, kilos) -> escaped.put(escape(fruitName), kilos));
+
+        if (expectedRevision == null) {
+            try {
+                mongoTemplate.insert(new DailyDemand(deliveryDate, escaped, 1));
+                return true;
+            } catch (DuplicateKeyException ex) {
+                return false;
+            }
+        }
+
+        Criteria revision = expectedRevision == 0
+                ? Criteria.where(REVISION_FIELD).in(0L, null)
+                : Criteria.where(REVISION_FIELD).is(expectedRevision);
+        Query query = Query.query(Criteria.where("_id").is(deliveryDate).andOperator(revision));
+        Update update = new Update().set(KILOS_FIELD, escaped).inc(REVISION_FIELD, 1);
+        return mongoTemplate.updateFirst(query, update, DailyDemand.class).getMatchedCount() > 0;
+    }
+
+    private Query byDate(LocalDate deliveryDate) {
+        return Query.query(Criteria.where("_id").is(deliveryDate));
+    }
+
+    // Fruit names are free text; '.' and '$' would be read as path/operator syntax in field names.
+    private static String escape(String fruitName) {
+        return fruitName.replace('.', '\uFF0E').replace('$', '\uFF04');
+    }
+
+    private static Map<String, Long> unescape(Map<String, Long> kilosByFruit) {
+        Map<String, Long> result = new TreeMap<>();
+        if (kilosByFruit != null) {
+            kilosByFruit.forEach((key, kilos) -> {
+                if (kilos != null && kilos != 0) {
+                    result.put(key.replace('\uFF0E', '.').replace('\uFF04', '$'), kilos);
+                }
+            });
+        }
+        return result;
+    }
+
+    @Data
+    static class DemandRow {
+        private DemandKey id;
+        private long kilos;
+    }
+
+    @Data
+    static class DemandKey {
+        private Integer deliveryDay;
+        private Integer fruitCode;
+    }
+}
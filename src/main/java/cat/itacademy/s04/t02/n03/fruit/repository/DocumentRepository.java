@@ -0,0 +1,17 @@
+package cat.itacademy.s04.t02.n03.fruit.repository;
+
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.NoRepositoryBean;
+
+import java.util.List;
+
+/**
+ * The part of {@code MongoRepository} the services use: list CRUD plus {@code insert}, which fails on an
+ * existing id instead of overwriting it. Sorting, paging and query by example are left out, so every store
+ * behind these repositories, the in-memory ones included, implements all of it.
+ */
+@NoRepositoryBean
+public interface DocumentRepository<T, ID> extends ListCrudRepository<T, ID> {
+    <S extends T> S insert(S entity);
+    <S extends T> List<S> insert(Iterable<S> entities);
+}
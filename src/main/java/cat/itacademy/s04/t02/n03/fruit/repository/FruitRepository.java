@@ -0,0 +1,12 @@
+package cat.itacademy.s04.t02.n03.fruit.repository;
+
+import cat.itacademy.s04.t02.n03.fruit.model.Fruit;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface FruitRepository extends DocumentRepository<Fruit, Integer> {
+    Optional<Fruit> findByName(String name);
+    Optional<Fruit> findTopByOrderByCodeDesc();
+}
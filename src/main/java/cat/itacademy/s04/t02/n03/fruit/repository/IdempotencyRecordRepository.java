@@ -0,0 +1,9 @@
+package cat.itacademy.s04.t02.n03.fruit.repository;
+
+import cat.itacademy.s04.t02.n03.fruit.model.IdempotencyRecord;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface IdempotencyRecordRepository extends DocumentRepository<IdempotencyRecord, String> {
+
+}
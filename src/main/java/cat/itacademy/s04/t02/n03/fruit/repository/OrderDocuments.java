@@ -0,0 +1,177 @@
+package cat.itacademy.s04.t02.n03.fruit.repository;
+
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderSummaryDTO;
+import cat.itacademy.s04.t02.n03.fruit.model.Order;
+import cat.itacademy.s04.t02.n03.fruit.model.OrderItem;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Storage layout of the orders collection. Schema 2 keeps short field names, the delivery date as an
+ * epoch day and the items as parallel arrays of fruit codes ({@code f}) and kilos ({@code q}):
+ * <pre>{ _id, sv: 2, c: "John Doe", d: 20445, f: [1, 4], q: [5, 3], version: 0 }</pre>
+ * Documents written before it (no {@code sv}) are still read, and are rewritten in schema 2 by the next
+ * update or by the background migration.
+ */
+public final class OrderDocuments {
+
+    public static final int SCHEMA_VERSION = 2;
+
+    static final String ID = "_id";
+    static final String SCHEMA = "sv";
+    static final String CLIENT = "c";
+    static final String DELIVERY_DATE = "d";
+    static final String FRUITS = "f";
+    static final String QUANTITIES = "q";
+    static final String VERSION = "version";
+
+    static final String LEGACY_CLIENT = "clientName";
+    static final String LEGACY_DELIVERY_DATE = "deliveryDate";
+    static final String LEGACY_ITEMS = "items";
+    static final String LEGACY_FRUIT_CODE = "items.fruitCode";
+    static final String LEGACY_FRUIT_NAME = "items.fruitName";
+    static final String LEGACY_QUANTITY = "items.quantityInKilos";
+    static final List<String> LEGACY_FIELDS = List.of(LEGACY_CLIENT, LEGACY_DELIVERY_DATE, LEGACY_ITEMS);
+
+    private OrderDocuments() {
+    }
+
+    static Document write(Order order) {
+        Document document = new Document();
+        if (order.getId() != null) {
+            document.put(ID, ObjectId.isValid(order.getId()) ? new ObjectId(order.getId()) : order.getId());
+        }
+        document.put(SCHEMA, SCHEMA_VERSION);
+        if (order.getClientName() != null) {
+            document.put(CLIENT, order.getClientName());
+        }
+        if (order.getDeliveryDate() != null) {
+            document.put(DELIVERY_DATE, epochDay(order.getDeliveryDate()));
+        }
+
+        List<OrderItem> items = order.getItems() != null ? order.getItems() : List.of();
+        List<Integer> fruitCodes = new ArrayList<>(items.size());
+        List<Integer> quantities = new ArrayList<>(items.size());
+        for (OrderItem item : items) {
+            if (item.getFruitCode() == null) {
+                throw new IllegalStateException("Order items must be encoded through the fruit catalog before saving");
+            }
+            fruitCodes.add(item.getFruitCode());
+            quantities.add(item.getQuantityInKilos());
+        }
+        document.put(FRUITS, fruitCodes);
+        document.put(QUANTITIES, quantities);
+
+        if (order.getVersion() != null) {
+            document.put(VERSION, order.getVersion());
+        }
+        return document;
+    }
+
+    /**
+     * Reads either layout, including documents restricted by a projection: every absent field is left null.
+     */
+    static Order read(Document document) {
+        Order order = new Order();
+        order.setId(readId(document));
+        order.setClientName(readClient(document));
+        order.setDeliveryDate(readDeliveryDate(document));
+        order.setItems(readItems(document));
+
+        Object version = document.get(VERSION);
+        order.setVersion(version instanceof Number number ? number.longValue() : null);
+        return order;
+    }
+
+    static OrderSummaryDTO readSummary(Document document) {
+        return new OrderSummaryDTO(readId(document), readClient(document), readDeliveryDate(document),
+                ((Number) document.get("itemCount")).intValue(),
+                ((Number) document.get("totalKilos")).longValue());
+    }
+
+    /**
+     * Stored paths holding the given {@code OrderResponseDTO} paths, in both layouts.
+     */
+    static Set<String> projection(Collection<String> fieldPaths) {
+        Set<String> paths = new LinkedHashSet<>();
+        for (String fieldPath : fieldPaths) {
+            switch (fieldPath) {
+                case "clientName" -> paths.addAll(List.of(CLIENT, LEGACY_CLIENT));
+                case "deliveryDate" -> paths.addAll(List.of(DELIVERY_DATE, LEGACY_DELIVERY_DATE));
+                case "items" -> paths.addAll(List.of(FRUITS, QUANTITIES, LEGACY_ITEMS));
+                case "items.fruitName" -> paths.addAll(List.of(FRUITS, LEGACY_FRUIT_CODE, LEGACY_FRUIT_NAME));
+                case "items.quantityInKilos" -> paths.addAll(List.of(QUANTITIES, LEGACY_QUANTITY));
+                default -> throw new IllegalArgumentException("Unknown order field: " + fieldPath);
+            }
+        }
+        return paths;
+    }
+
+    static int epochDay(LocalDate date) {
+        return (int) date.toEpochDay();
+    }
+
+    // Schema 1 stored LocalDate the Spring Data way: midnight in the JVM default zone
+    static Date legacyDeliveryDate(LocalDate date) {
+        return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    private static String readId(Document document) {
+        Object id = document.get(ID);
+        if (id instanceof ObjectId objectId) {
+            return objectId.toHexString();
+        }
+        return id != null ? id.toString() : null;
+    }
+
+    private static String readClient(Document document) {
+        String client = document.getString(CLIENT);
+        return client != null ? client : document.getString(LEGACY_CLIENT);
+    }
+
+    private static LocalDate readDeliveryDate(Document document) {
+        Object epochDay = document.get(DELIVERY_DATE);
+        if (epochDay instanceof Number number) {
+            return LocalDate.ofEpochDay(number.longValue());
+        }
+        Date legacy = document.getDate(LEGACY_DELIVERY_DATE);
+        return legacy != null ? LocalDate.ofInstant(legacy.toInstant(), ZoneId.systemDefault()) : null;
+    }
+
+    private static List<OrderItem> readItems(Document document) {
+        List<Integer> fruitCodes = document.getList(FRUITS, Integer.class);
+        List<Integer> quantities = document.getList(QUANTITIES, Integer.class);
+        if (fruitCodes != null || quantities != null) {
+            int size = Math.max(fruitCodes != null ? fruitCodes.size() : 0, quantities != null ? quantities.size() : 0);
+            List<OrderItem> items = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                items.add(new OrderItem(
+                        fruitCodes != null ? fruitCodes.get(i) : null,
+                        null,
+                        quantities != null ? quantities.get(i) : 0));
+            }
+            return items;
+        }
+
+        List<Document> legacyItems = document.getList(LEGACY_ITEMS, Document.class);
+        if (legacyItems == null) {
+            return null;
+        }
+        List<OrderItem> items = new ArrayList<>(legacyItems.size());
+        for (Document item : legacyItems) {
+            Object quantity = item.get("quantityInKilos");
+            items.add(new OrderItem(item.getInteger("fruitCode"), item.getString("fruitName"),
+                    quantity instanceof Number number ? number.intValue() : 0));
+        }
+        return items;
+    }
+}
@@ -0,0 +1,22 @@
+package cat.itacademy.s04.t02.n03.fruit.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderFilter {
+
+    private String clientName;
+    private LocalDate from;
+    private LocalDate to;
+    private String fruitName;
+
+    public boolean isEmpty() {
+        return clientName == null && from == null && to == null && fruitName == null;
+    }
+}
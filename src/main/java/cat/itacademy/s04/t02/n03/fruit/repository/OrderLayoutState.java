@@ -0,0 +1,29 @@
+package cat.itacademy.s04.t02.n03.fruit.repository;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Number of orders still stored in a legacy layout, as last counted by the migration. While it is not zero,
+ * filtered and date-ordered queries read both layouts. Nothing writes the legacy layout any more, so once a
+ * count reaches zero it stays there.
+ */
+@Component
+public class OrderLayoutState {
+
+    public static final long UNKNOWN = -1;
+
+    // Unknown until first counted, which must be treated as legacy orders being present
+    private volatile long legacyOrders = UNKNOWN;
+
+    public long getLegacyOrders() {
+        return legacyOrders;
+    }
+
+    public void setLegacyOrders(long legacyOrders) {
+        this.legacyOrders = legacyOrders;
+    }
+
+    public boolean hasLegacyOrders() {
+        return legacyOrders != 0;
+    }
+}
@@ -0,0 +1,333 @@
+package cat.itacademy.s04.t02.n03.fruit.repository;
+
+import cat.itacademy.s04.t02.n03.fruit.model.Order;
+import cat.itacademy.s04.t02.n03.fruit.pagination.OrderCursor;
+import cat.itacademy.s04.t02.n03.fruit.pagination.OrderSortField;
+import cat.itacademy.s04.t02.n03.fruit.services.FruitCatalogService;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.MongoExpression;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.Fields;
+import org.springframework.data.mongodb.core.aggregation.UnwindOperation;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+final class OrderQueries {
+
+    static final String VERSION_FIELD = "version";
+
+    // Declared on Order
+    static final String DELIVERY_DATE_INDEX = "d_id";
+    static final String CLIENT_INDEX = "c_d_id";
+    static final String FRUIT_INDEX = "f_d_id";
+
+    private static final String ITEM_INDEX = "i";
+
+    private OrderQueries() {
+    }
+
+    static Query pageQuery(OrderFilter filter, FruitCatalogService fruitCatalog, OrderSortField sortField,
+                           OrderCursor after, int limit) {
+        Query query = keysetQuery(filterCriteria(filter, fruitCatalog), OrderDocuments.DELIVERY_DATE,
+                OrderDocuments::epochDay, sortField, after, limit);
+        String index = pageIndex(filter, sortField);
+        if (index != null) {
+            query.withHint(index);
+        }
+        return query;
+    }
+
+    /**
+     * Same page as {@link #pageQuery}, over the orders still stored in a legacy layout. Until they are migrated,
+     * a page that {@link #dependsOnLayout} is merged from this query and the {@code pageQuery} restricted to the
+     * {@link #currentLayout}.
+     */
+    static Query legacyPageQuery(OrderFilter filter, FruitCatalogService fruitCatalog, OrderSortField sortField,
+                                 OrderCursor after, int limit) {
+        List<Criteria> criteria = legacyFilterCriteria(filter, fruitCatalog);
+        criteria.add(Criteria.where(OrderDocuments.SCHEMA).ne(OrderDocuments.SCHEMA_VERSION));
+        return keysetQuery(criteria, OrderDocuments.LEGACY_DELIVERY_DATE, OrderDocuments::legacyDeliveryDate,
+                sortField, after, limit);
+    }
+
+    /**
+     * Whether the page reads the compact fields, so that orders still in a legacy layout are only found by
+     * {@link #legacyPageQuery}. An unfiltered page in id order reads both layouts.
+     */
+    static boolean dependsOnLayout(OrderFilter filter, OrderSortField sortField) {
+        return (filter != null && !filter.isEmpty()) || sortField == OrderSortField.DELIVERY_DATE;
+    }
+
+    static Query currentLayout(Query query) {
+        return query.addCriteria(Criteria.where(OrderDocuments.SCHEMA).is(OrderDocuments.SCHEMA_VERSION));
+    }
+
+    static <T> Comparator<T> keysetOrder(OrderSortField sortField, Function<T, String> id,
+                                         Function<T, LocalDate> deliveryDate) {
+        Comparator<T> byId = Comparator.comparing(value -> new ObjectId(id.apply(value)));
+        if (sortField != OrderSortField.DELIVERY_DATE) {
+            return byId;
+        }
+        return Comparator.comparing(deliveryDate, Comparator.nullsFirst(Comparator.<LocalDate>naturalOrder()))
+                .thenComparing(byId);
+    }
+
+    static <T> List<T> mergePages(List<T> current, List<T> legacy, Comparator<T> order, int limit) {
+        return Stream.concat(current.stream(), legacy.stream())
+                .sorted(order)
+                .limit(limit)
+                .toList();
+    }
+
+    private static Query keysetQuery(List<Criteria> criteria, String deliveryDateField,
+                                     Function<LocalDate, Object> storedDeliveryDate, OrderSortField sortField,
+                                     OrderCursor after, int limit) {
+        Query query = new Query().limit(limit);
+
+        if (sortField == OrderSortField.DELIVERY_DATE) {
+            query.with(Sort.by(Sort.Direction.ASC, deliveryDateField, "_id"));
+            if (after != null) {
+                ObjectId lastId = new ObjectId(after.getId());
+                Object lastDate = storedDeliveryDate.apply(after.getDeliveryDate());
+                criteria.add(new Criteria().orOperator(
+                        Criteria.where(deliveryDateField).gt(lastDate),
+                        Criteria.where(deliveryDateField).is(lastDate).and("_id").gt(lastId)
+                ));
+            }
+        } else {
+            query.with(Sort.by(Sort.Direction.ASC, "_id"));
+            if (after != null) {
+                criteria.add(Criteria.where("_id").gt(new ObjectId(after.getId())));
+            }
+        }
+
+        if (!criteria.isEmpty()) {
+            query.addCriteria(new Criteria().andOperator(criteria));
+        }
+        return query;
+    }
+
+    /**
+     * Index serving a page query, most selective filter first. Hinted so the plan does not depend on the
+     * planner's trial run: with a date range and {@code sort=id}, scanning {@code _id} in order can win the
+     * trial on an unselective range and then be cached for a narrow one, where it reads most of the collection.
+     */
+    static String pageIndex(OrderFilter filter, OrderSortField sortField) {
+        if (filter != null && filter.getClientName() != null) {
+            return CLIENT_INDEX;
+        }
+        if (filter != null && filter.getFruitName() != null) {
+            return FRUIT_INDEX;
+        }
+        if ((filter != null && !filter.isEmpty()) || sortField == OrderSortField.DELIVERY_DATE) {
+            return DELIVERY_DATE_INDEX;
+        }
+        return null;
+    }
+
+    static List<Criteria> filterCriteria(OrderFilter filter, FruitCatalogService fruitCatalog) {
+        List<Criteria> criteria = new ArrayList<>();
+        if (filter == null) {
+            return criteria;
+        }
+
+        if (filter.getClientName() != null) {
+            criteria.add(Criteria.where(OrderDocuments.CLIENT).is(filter.getClientName()));
+        }
+        if (filter.getFruitName() != null) {
+            criteria.add(fruitCriteria(filter.getFruitName(), fruitCatalog));
+        }
+        if (filter.getFrom() != null || filter.getTo() != null) {
+            Criteria deliveryDate = Criteria.where(OrderDocuments.DELIVERY_DATE);
+            if (filter.getFrom() != null) {
+                deliveryDate.gte(OrderDocuments.epochDay(filter.getFrom()));
+            }
+            if (filter.getTo() != null) {
+                deliveryDate.lte(OrderDocuments.epochDay(filter.getTo()));
+            }
+            criteria.add(deliveryDate);
+        }
+        return criteria;
+    }
+
+    /**
+     * Items are matched on their catalog code. A name the catalog has never seen cannot match any order.
+     */
+    static Criteria fruitCriteria(String fruitName, FruitCatalogService fruitCatalog) {
+        Integer fruitCode = fruitCatalog.findCode(fruitName);
+        return fruitCode != null
+                ? Criteria.where(OrderDocuments.FRUITS).is(fruitCode)
+                : Criteria.where(OrderDocuments.FRUITS).in(List.of());
+    }
+
+    static List<Criteria> legacyFilterCriteria(OrderFilter filter, FruitCatalogService fruitCatalog) {
+        List<Criteria> criteria = new ArrayList<>();
+        if (filter == null) {
+            return criteria;
+        }
+
+        if (filter.getClientName() != null) {
+            criteria.add(Criteria.where(OrderDocuments.LEGACY_CLIENT).is(filter.getClientName()));
+        }
+        if (filter.getFruitName() != null) {
+            criteria.add(legacyFruitCriteria(filter.getFruitName(), fruitCatalog));
+        }
+        if (filter.getFrom() != null || filter.getTo() != null) {
+            Criteria deliveryDate = Criteria.where(OrderDocuments.LEGACY_DELIVERY_DATE);
+            if (filter.getFrom() != null) {
+                deliveryDate.gte(OrderDocuments.legacyDeliveryDate(filter.getFrom()));
+            }
+            if (filter.getTo() != null) {
+                deliveryDate.lte(OrderDocuments.legacyDeliveryDate(filter.getTo()));
+            }
+            criteria.add(deliveryDate);
+        }
+        return criteria;
+    }
+
+    // Legacy items carry the fruit name, and the code once the catalog existed
+    static Criteria legacyFruitCriteria(String fruitName, FruitCatalogService fruitCatalog) {
+        Integer fruitCode = fruitCatalog.findCode(fruitName);
+        Criteria byName = Criteria.where(OrderDocuments.LEGACY_FRUIT_NAME).is(fruitName);
+        return fruitCode != null
+                ? new Criteria().orOperator(byName, Criteria.where(OrderDocuments.LEGACY_FRUIT_CODE).is(fruitCode))
+                : byName;
+    }
+
+    /**
+     * Demand totals by {@code groupField}, sorted by kilos. Items are unwound from the fruit code array
+     * with their position, which picks the matching entry of the kilos array.
+     */
+    static List<AggregationOperation> demandStages(OrderFilter filter, FruitCatalogService fruitCatalog,
+                                                   String groupField, String outputField) {
+        List<AggregationOperation> stages = new ArrayList<>();
+
+        List<Criteria> criteria = filterCriteria(filter, fruitCatalog);
+        if (!criteria.isEmpty()) {
+            stages.add(Aggregation.match(new Criteria().andOperator(criteria)));
+        }
+        stages.add(unwindItems());
+        if (filter != null && filter.getFruitName() != null) {
+            stages.add(Aggregation.match(fruitCriteria(filter.getFruitName(), fruitCatalog)));
+        }
+        stages.add(Aggregation.group(groupField).sum(itemKilos()).as("totalKilos"));
+        stages.add(Aggregation.project("totalKilos").and(outputField).previousOperation());
+        stages.add(Aggregation.sort(Sort.by(Sort.Direction.DESC, "totalKilos").and(Sort.by(outputField))));
+        return stages;
+    }
+
+    /**
+     * Demand totals of the orders still stored in a legacy layout, grouped by {@code groupFields} over the
+     * unwound item sub-documents and left unsorted, to be added to those of {@link #demandStages}.
+     */
+    static List<AggregationOperation> legacyDemandStages(OrderFilter filter, FruitCatalogService fruitCatalog,
+                                                         Fields groupFields) {
+        List<AggregationOperation> stages = new ArrayList<>();
+
+        List<Criteria> criteria = legacyFilterCriteria(filter, fruitCatalog);
+        criteria.add(Criteria.where(OrderDocuments.SCHEMA).ne(OrderDocuments.SCHEMA_VERSION));
+        stages.add(Aggregation.match(new Criteria().andOperator(criteria)));
+        stages.add(Aggregation.unwind(OrderDocuments.LEGACY_ITEMS));
+        if (filter != null && filter.getFruitName() != null) {
+            stages.add(Aggregation.match(legacyFruitCriteria(filter.getFruitName(), fruitCatalog)));
+        }
+        stages.add(Aggregation.group(groupFields).sum(OrderDocuments.LEGACY_QUANTITY).as("totalKilos"));
+        return stages;
+    }
+
+    static UnwindOperation unwindItems() {
+        return Aggregation.unwind(OrderDocuments.FRUITS, ITEM_INDEX);
+    }
+
+    static AggregationExpression itemKilos() {
+        return ArrayOperators.ArrayElemAt.arrayOf(OrderDocuments.QUANTITIES).elementAt(ITEM_INDEX);
+    }
+
+    /**
+     * Summary rows are computed by the server from the kilos array, falling back to the items of
+     * documents still in the legacy layout. Results are read with {@link OrderDocuments#readSummary}.
+     */
+    static Query summaryPageQuery(OrderFilter filter, FruitCatalogService fruitCatalog, OrderSortField sortField,
+                                  OrderCursor after, int limit) {
+        return summaryFields(pageQuery(filter, fruitCatalog, sortField, after, limit));
+    }
+
+    static Query summaryFields(Query query) {
+        query.fields()
+                .include(OrderDocuments.CLIENT, OrderDocuments.DELIVERY_DATE)
+                .include(OrderDocuments.LEGACY_CLIENT, OrderDocuments.LEGACY_DELIVERY_DATE)
+                .project(MongoExpression.create("{ $size: { $ifNull: [ '$q', { $ifNull: [ '$items', [] ] } ] } }"))
+                .as("itemCount")
+                .project(MongoExpression.create("{ $sum: { $ifNull: [ '$q', '$items.quantityInKilos' ] } }"))
+                .as("totalKilos");
+        return query;
+    }
+
+    /**
+     * Page query restricted to the requested order fields. The keyset fields are always kept
+     * so the next cursor can be built from a projected order.
+     */
+    static Query projectedPageQuery(OrderFilter filter, FruitCatalogService fruitCatalog, OrderSortField sortField,
+                                    OrderCursor after, int limit, Collection<String> fields) {
+        return projectedFields(pageQuery(filter, fruitCatalog, sortField, after, limit), sortField, fields);
+    }
+
+    static Query projectedFields(Query query, OrderSortField sortField, Collection<String> fields) {
+        Set<String> paths = OrderDocuments.projection(fields);
+        if (sortField == OrderSortField.DELIVERY_DATE) {
+            paths.addAll(OrderDocuments.projection(List.of("deliveryDate")));
+        }
+        query.fields().include("_id").include(paths.toArray(String[]::new));
+        return query;
+    }
+
+    static Query projectedById(String id, Collection<String> fields) {
+        Query query = Query.query(Criteria.where("_id").is(id));
+        query.fields().include("_id", VERSION_FIELD).include(OrderDocuments.projection(fields).toArray(String[]::new));
+        return query;
+    }
+
+    /**
+     * Sets every field of the compact layout and drops the legacy ones, so an update also
+     * upgrades a document still stored in the old layout.
+     */
+    static Update replacement(MongoConverter converter, Order order) {
+        Document replacement = new Document();
+        converter.write(order, replacement);
+        replacement.remove("_id");
+        replacement.remove(VERSION_FIELD);
+
+        Update update = new Update().inc(VERSION_FIELD, 1);
+        replacement.forEach(update::set);
+        OrderDocuments.LEGACY_FIELDS.forEach(update::unset);
+        return update;
+    }
+
+    static Query legacyLayout() {
+        return Query.query(Criteria.where(OrderDocuments.SCHEMA).ne(OrderDocuments.SCHEMA_VERSION));
+    }
+
+    static Query byId(String id, List<Long> expectedVersions) {
+        Criteria criteria = Criteria.where("_id").is(id);
+        if (expectedVersions != null) {
+            criteria.and(VERSION_FIELD).in(expectedVersions);
+        }
+        return Query.query(criteria);
+    }
+}
@@ -0,0 +1,15 @@
+package cat.itacademy.s04.t02.n03.fruit.repository;
+
+import cat.itacademy.s04.t02.n03.fruit.model.Order;
+import org.bson.Document;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+
+@ReadingConverter
+public class OrderReadingConverter implements Converter<Document, Order> {
+
+    @Override
+    public Order convert(Document source) {
+        return OrderDocuments.read(source);
+    }
+}
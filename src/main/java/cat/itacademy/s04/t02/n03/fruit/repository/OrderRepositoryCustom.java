@@ -0,0 +1,34 @@
+package cat.itacademy.s04.t02.n03.fruit.repository;
+
+import cat.itacademy.s04.t02.n03.fruit.dto.ClientDemandDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.CollectionSizeDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.FruitDemandDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderSummaryDTO;
+import cat.itacademy.s04.t02.n03.fruit.model.Order;
+import cat.itacademy.s04.t02.n03.fruit.pagination.OrderCursor;
+import cat.itacademy.s04.t02.n03.fruit.pagination.OrderSortField;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface OrderRepositoryCustom {
+    List<Order> findPage(OrderFilter filter, OrderSortField sortField, OrderCursor after, int limit);
+    List<Order> findProjectedPage(OrderFilter filter, OrderSortField sortField, OrderCursor after, int limit,
+                                  Collection<String> fields);
+    Optional<Order> findProjectedById(String id, Collection<String> fields);
+    List<OrderSummaryDTO> findSummaryPage(OrderFilter filter, OrderSortField sortField, OrderCursor after, int limit);
+    Stream<Order> streamAll();
+    Map<Integer, String> insertUnordered(List<Order> orders);
+    Optional<Order> replaceAndGetPrevious(String id, Order order, List<Long> expectedVersions);
+    Optional<Order> removeAndGetPrevious(String id, List<Long> expectedVersions);
+    List<FruitDemandDTO> aggregateFruitDemand(OrderFilter filter);
+    List<ClientDemandDTO> aggregateClientDemand(OrderFilter filter);
+    Stream<Order> streamLegacyLayout(int batchSize);
+    long rewriteInCurrentLayout(List<Order> orders);
+    long countLegacyLayout();
+    CollectionSizeDTO measureSize();
+    boolean dropIndex(String indexName);
+}
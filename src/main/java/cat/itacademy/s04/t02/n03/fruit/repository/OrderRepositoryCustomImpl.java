@@ -0,0 +1,267 @@
+package cat.itacademy.s04.t02.n03.fruit.repository;
+
+import cat.itacademy.s04.t02.n03.fruit.dto.ClientDemandDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.CollectionSizeDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.FruitDemandDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderSummaryDTO;
+import cat.itacademy.s04.t02.n03.fruit.model.Order;
+import cat.itacademy.s04.t02.n03.fruit.model.OrderItem;
+import cat.itacademy.s04.t02.n03.fruit.pagination.OrderCursor;
+import cat.itacademy.s04.t02.n03.fruit.pagination.OrderSortField;
+import cat.itacademy.s04.t02.n03.fruit.services.FruitCatalogService;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.Fields;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+public class OrderRepositoryCustomImpl implements OrderRepositoryCustom {
+
+    private static final int EXPORT_BATCH_SIZE = 1_000;
+
+    private final MongoTemplate mongoTemplate;
+    private final FruitCatalogService fruitCatalog;
+    private final OrderLayoutState layoutState;
+
+    @Override
+    public List<Order> findPage(OrderFilter filter, OrderSortField sortField, OrderCursor after, int limit) {
+        Query query = OrderQueries.pageQuery(filter, fruitCatalog, sortField, after, limit);
+        if (!readsLegacyLayout(filter, sortField)) {
+            return mongoTemplate.find(query, Order.class);
+        }
+        return OrderQueries.mergePages(
+                mongoTemplate.find(OrderQueries.currentLayout(query), Order.class),
+                mongoTemplate.find(OrderQueries.legacyPageQuery(filter, fruitCatalog, sortField, after, limit), Order.class),
+                OrderQueries.keysetOrder(sortField, Order::getId, Order::getDeliveryDate), limit);
+    }
+
+    @Override
+    public List<Order> findProjectedPage(OrderFilter filter, OrderSortField sortField, OrderCursor after, int limit,
+                                         Collection<String> fields) {
+        Query query = OrderQueries.projectedPageQuery(filter, fruitCatalog, sortField, after, limit, fields);
+        if (!readsLegacyLayout(filter, sortField)) {
+            return mongoTemplate.find(query, Order.class);
+        }
+        Query legacyQuery = OrderQueries.projectedFields(
+                OrderQueries.legacyPageQuery(filter, fruitCatalog, sortField, after, limit), sortField, fields);
+        return OrderQueries.mergePages(
+                mongoTemplate.find(OrderQueries.currentLayout(query), Order.class),
+                mongoTemplate.find(legacyQuery, Order.class),
+                OrderQueries.keysetOrder(sortField, Order::getId, Order::getDeliveryDate), limit);
+    }
+
+    @Override
+    public Optional<Order> findProjectedById(String id, Collection<String> fields) {
+        return Optional.ofNullable(mongoTemplate.findOne(OrderQueries.projectedById(id, fields), Order.class));
+    }
+
+    @Override
+    public List<OrderSummaryDTO> findSummaryPage(OrderFilter filter, OrderSortField sortField, OrderCursor after, int limit) {
+        Query query = OrderQueries.summaryPageQuery(filter, fruitCatalog, sortField, after, limit);
+        if (!readsLegacyLayout(filter, sortField)) {
+            return findSummaries(query);
+        }
+        Query legacyQuery = OrderQueries.summaryFields(
+                OrderQueries.legacyPageQuery(filter, fruitCatalog, sortField, after, limit));
+        return OrderQueries.mergePages(
+                findSummaries(OrderQueries.currentLayout(query)),
+                findSummaries(legacyQuery),
+                OrderQueries.keysetOrder(sortField, OrderSummaryDTO::getId, OrderSummaryDTO::getDeliveryDate), limit);
+    }
+
+    private List<OrderSummaryDTO> findSummaries(Query query) {
+        return mongoTemplate.find(query, Document.class, collectionName()).stream()
+                .map(OrderDocuments::readSummary)
+                .toList();
+    }
+
+    @Override
+    public Stream<Order> streamAll() {
+        Query query = new Query().cursorBatchSize(EXPORT_BATCH_SIZE);
+        return mongoTemplate.stream(query, Order.class);
+    }
+
+    @Override
+    public Map<Integer, String> insertUnordered(List<Order> orders) {
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class);
+        bulkOperations.insert(orders);
+
+        Map<Integer, String> failures = new HashMap<>();
+        try {
+            bulkOperations.execute();
+        } catch (BulkOperationException ex) {
+            for (BulkWriteError error : ex.getErrors()) {
+                failures.put(error.getIndex(), error.getMessage());
+            }
+        }
+        return failures;
+    }
+
+    @Override
+    public Optional<Order> replaceAndGetPrevious(String id, Order order, List<Long> expectedVersions) {
+        Update update = OrderQueries.replacement(mongoTemplate.getConverter(), order);
+
+        Order previous = mongoTemplate.findAndModify(OrderQueries.byId(id, expectedVersions), update,
+                FindAndModifyOptions.options().returnNew(false), Order.class);
+        return Optional.ofNullable(previous);
+    }
+
+    @Override
+    public Optional<Order> removeAndGetPrevious(String id, List<Long> expectedVersions) {
+        return Optional.ofNullable(mongoTemplate.findAndRemove(OrderQueries.byId(id, expectedVersions), Order.class));
+    }
+
+    @Override
+    public List<FruitDemandDTO> aggregateFruitDemand(OrderFilter filter) {
+        Map<String, Long> kilosByFruit = new HashMap<>();
+        Aggregation aggregation = demandAggregation(filter, OrderDocuments.FRUITS, "fruitCode");
+        mongoTemplate.aggregate(aggregation, collectionName(), FruitCodeDemand.class).getMappedResults().stream()
+                .filter(demand -> demand.getFruitCode() != null)
+                .forEach(demand -> kilosByFruit.merge(fruitCatalog.nameOf(demand.getFruitCode()),
+                        demand.getTotalKilos(), Long::sum));
+
+        if (layoutState.hasLegacyOrders()) {
+            Fields fruit = Fields.from(Fields.field("fruitCode", OrderDocuments.LEGACY_FRUIT_CODE),
+                    Fields.field("fruitName", OrderDocuments.LEGACY_FRUIT_NAME));
+            for (Document demand : aggregateLegacyDemand(filter, fruit)) {
+                Document item = demand.get("_id", Document.class);
+                String fruitName = fruitCatalog.nameOf(new OrderItem(item.getInteger("fruitCode"), item.getString("fruitName"), 0));
+                if (fruitName != null) {
+                    kilosByFruit.merge(fruitName, asLong(demand.get("totalKilos")), Long::sum);
+                }
+            }
+        }
+
+        return kilosByFruit.entrySet().stream()
+                .map(entry -> new FruitDemandDTO(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparingLong(FruitDemandDTO::getTotalKilos).reversed()
+                        .thenComparing(FruitDemandDTO::getFruitName))
+                .toList();
+    }
+
+    @Override
+    public List<ClientDemandDTO> aggregateClientDemand(OrderFilter filter) {
+        Aggregation aggregation = demandAggregation(filter, OrderDocuments.CLIENT, "clientName");
+        List<ClientDemandDTO> demand = mongoTemplate.aggregate(aggregation, collectionName(), ClientDemandDTO.class)
+                .getMappedResults();
+        if (!layoutState.hasLegacyOrders()) {
+            return demand;
+        }
+
+        Map<String, Long> kilosByClient = new HashMap<>();
+        demand.forEach(client -> kilosByClient.merge(client.getClientName(), client.getTotalKilos(), Long::sum));
+        for (Document legacyDemand : aggregateLegacyDemand(filter, Fields.fields(OrderDocuments.LEGACY_CLIENT))) {
+            kilosByClient.merge(legacyDemand.getString("_id"), asLong(legacyDemand.get("totalKilos")), Long::sum);
+        }
+        return kilosByClient.entrySet().stream()
+                .map(entry -> new ClientDemandDTO(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparingLong(ClientDemandDTO::getTotalKilos).reversed()
+                        .thenComparing(ClientDemandDTO::getClientName, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
+    }
+
+    @Override
+    public Stream<Order> streamLegacyLayout(int batchSize) {
+        return mongoTemplate.stream(OrderQueries.legacyLayout().cursorBatchSize(batchSize), Order.class);
+    }
+
+    /**
+     * Replaces each document with its current layout, guarded by the version it was read at so a
+     * concurrent update wins. The version is not bumped: the order's representation does not change.
+     */
+    @Override
+    public long rewriteInCurrentLayout(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return 0;
+        }
+
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class);
+        for (Order order : orders) {
+            Query query = Query.query(Criteria.where("_id").is(order.getId())
+                    .and(OrderQueries.VERSION_FIELD).is(order.getVersion()));
+            bulkOperations.replaceOne(query, OrderDocuments.write(order));
+        }
+        return bulkOperations.execute().getModifiedCount();
+    }
+
+    @Override
+    public long countLegacyLayout() {
+        return mongoTemplate.count(OrderQueries.legacyLayout(), collectionName());
+    }
+
+    @Override
+    public CollectionSizeDTO measureSize() {
+        Document stats = mongoTemplate.executeCommand(new Document("collStats", collectionName()));
+
+        Map<String, Long> indexSizes = new TreeMap<>();
+        Document rawIndexSizes = stats.get("indexSizes", Document.class);
+        if (rawIndexSizes != null) {
+            rawIndexSizes.forEach((name, size) -> indexSizes.put(name, asLong(size)));
+        }
+
+        return new CollectionSizeDTO(asLong(stats.get("count")), asLong(stats.get("size")),
+                asLong(stats.get("avgObjSize")), asLong(stats.get("storageSize")),
+                asLong(stats.get("totalIndexSize")), indexSizes);
+    }
+
+    @Override
+    public boolean dropIndex(String indexName) {
+        IndexOperations indexOperations = mongoTemplate.indexOps(Order.class);
+        boolean present = indexOperations.getIndexInfo().stream()
+                .anyMatch(index -> index.getName().equals(indexName));
+        if (present) {
+            indexOperations.dropIndex(indexName);
+        }
+        return present;
+    }
+
+    private static long asLong(Object value) {
+        return value instanceof Number number ? number.longValue() : 0L;
+    }
+
+    private String collectionName() {
+        return mongoTemplate.getCollectionName(Order.class);
+    }
+
+    private Aggregation demandAggregation(OrderFilter filter, String groupField, String outputField) {
+        return Aggregation.newAggregation(OrderQueries.demandStages(filter, fruitCatalog, groupField, outputField))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+    }
+
+    private List<Document> aggregateLegacyDemand(OrderFilter filter, Fields groupFields) {
+        Aggregation aggregation = Aggregation.newAggregation(OrderQueries.legacyDemandStages(filter, fruitCatalog, groupFields))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+        return mongoTemplate.aggregate(aggregation, collectionName(), Document.class).getMappedResults();
+    }
+
+    // Filters and the delivery date order read the compact fields, which orders in a legacy layout lack
+    private boolean readsLegacyLayout(OrderFilter filter, OrderSortField sortField) {
+        return layoutState.hasLegacyOrders() && OrderQueries.dependsOnLayout(filter, sortField);
+    }
+
+    @Data
+    static class FruitCodeDemand {
+        private Integer fruitCode;
+        private long totalKilos;
+    }
+}
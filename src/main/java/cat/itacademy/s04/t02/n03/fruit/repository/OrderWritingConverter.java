@@ -0,0 +1,15 @@
+package cat.itacademy.s04.t02.n03.fruit.repository;
+
+import cat.itacademy.s04.t02.n03.fruit.model.Order;
+import org.bson.Document;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.WritingConverter;
+
+@WritingConverter
+public class OrderWritingConverter implements Converter<Order, Document> {
+
+    @Override
+    public Document convert(Order source) {
+        return OrderDocuments.write(source);
+    }
+}
@@ -0,0 +1,22 @@
+package cat.itacademy.s04.t02.n03.fruit.repository;
+
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderSummaryDTO;
+import cat.itacademy.s04.t02.n03.fruit.model.Order;
+import cat.itacademy.s04.t02.n03.fruit.pagination.OrderCursor;
+import cat.itacademy.s04.t02.n03.fruit.pagination.OrderSortField;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ReactiveOrderRepositoryCustom {
+    Flux<Order> findPage(OrderFilter filter, OrderSortField sortField, OrderCursor after, int limit);
+    Flux<Order> findProjectedPage(OrderFilter filter, OrderSortField sortField, OrderCursor after, int limit,
+                                  Collection<String> fields);
+    Mono<Order> findProjectedById(String id, Collection<String> fields);
+    Flux<OrderSummaryDTO> findSummaryPage(OrderFilter filter, OrderSortField sortField, OrderCursor after, int limit);
+    Flux<Order> streamAll();
+    Mono<Order> replaceAndGetPrevious(String id, Order order, List<Long> expectedVersions);
+    Mono<Order> removeAndGetPrevious(String id, List<Long> expectedVersions);
+}
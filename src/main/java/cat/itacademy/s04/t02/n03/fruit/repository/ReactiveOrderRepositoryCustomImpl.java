@@ -0,0 +1,104 @@
+package cat.itacademy.s04.t02.n03.fruit.repository;
+
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderSummaryDTO;
+import cat.itacademy.s04.t02.n03.fruit.model.Order;
+import cat.itacademy.s04.t02.n03.fruit.pagination.OrderCursor;
+import cat.itacademy.s04.t02.n03.fruit.pagination.OrderSortField;
+import cat.itacademy.s04.t02.n03.fruit.services.FruitCatalogService;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class ReactiveOrderRepositoryCustomImpl implements ReactiveOrderRepositoryCustom {
+
+    private static final int EXPORT_BATCH_SIZE = 1_000;
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final FruitCatalogService fruitCatalog;
+    private final OrderLayoutState layoutState;
+
+    @Override
+    public Flux<Order> findPage(OrderFilter filter, OrderSortField sortField, OrderCursor after, int limit) {
+        Query query = OrderQueries.pageQuery(filter, fruitCatalog, sortField, after, limit);
+        if (!readsLegacyLayout(filter, sortField)) {
+            return reactiveMongoTemplate.find(query, Order.class);
+        }
+        return Flux.mergeComparing(OrderQueries.keysetOrder(sortField, Order::getId, Order::getDeliveryDate),
+                        reactiveMongoTemplate.find(OrderQueries.currentLayout(query), Order.class),
+                        reactiveMongoTemplate.find(OrderQueries.legacyPageQuery(filter, fruitCatalog, sortField, after, limit), Order.class))
+                .take(limit);
+    }
+
+    @Override
+    public Flux<Order> findProjectedPage(OrderFilter filter, OrderSortField sortField, OrderCursor after, int limit,
+                                         Collection<String> fields) {
+        Query query = OrderQueries.projectedPageQuery(filter, fruitCatalog, sortField, after, limit, fields);
+        if (!readsLegacyLayout(filter, sortField)) {
+            return reactiveMongoTemplate.find(query, Order.class);
+        }
+        Query legacyQuery = OrderQueries.projectedFields(
+                OrderQueries.legacyPageQuery(filter, fruitCatalog, sortField, after, limit), sortField, fields);
+        return Flux.mergeComparing(OrderQueries.keysetOrder(sortField, Order::getId, Order::getDeliveryDate),
+                        reactiveMongoTemplate.find(OrderQueries.currentLayout(query), Order.class),
+                        reactiveMongoTemplate.find(legacyQuery, Order.class))
+                .take(limit);
+    }
+
+    @Override
+    public Mono<Order> findProjectedById(String id, Collection<String> fields) {
+        return reactiveMongoTemplate.findOne(OrderQueries.projectedById(id, fields), Order.class);
+    }
+
+    @Override
+    public Flux<OrderSummaryDTO> findSummaryPage(OrderFilter filter, OrderSortField sortField, OrderCursor after, int limit) {
+        Query query = OrderQueries.summaryPageQuery(filter, fruitCatalog, sortField, after, limit);
+        if (!readsLegacyLayout(filter, sortField)) {
+            return findSummaries(query);
+        }
+        Query legacyQuery = OrderQueries.summaryFields(
+                OrderQueries.legacyPageQuery(filter, fruitCatalog, sortField, after, limit));
+        return Flux.mergeComparing(
+                        OrderQueries.keysetOrder(sortField, OrderSummaryDTO::getId, OrderSummaryDTO::getDeliveryDate),
+                        findSummaries(OrderQueries.currentLayout(query)),
+                        findSummaries(legacyQuery))
+                .take(limit);
+    }
+
+    @Override
+    public Flux<Order> streamAll() {
+        Query query = new Query().cursorBatchSize(EXPORT_BATCH_SIZE);
+        return reactiveMongoTemplate.find(query, Order.class);
+    }
+
+    @Override
+    public Mono<Order> replaceAndGetPrevious(String id, Order order, List<Long> expectedVersions) {
+        Update update = OrderQueries.replacement(reactiveMongoTemplate.getConverter(), order);
+
+        return reactiveMongoTemplate.findAndModify(OrderQueries.byId(id, expectedVersions), update,
+                FindAndModifyOptions.options().returnNew(false), Order.class);
+    }
+
+    @Override
+    public Mono<Order> removeAndGetPrevious(String id, List<Long> expectedVersions) {
+        return reactiveMongoTemplate.findAndRemove(OrderQueries.byId(id, expectedVersions), Order.class);
+    }
+
+    private Flux<OrderSummaryDTO> findSummaries(Query query) {
+        return reactiveMongoTemplate.find(query, Document.class, reactiveMongoTemplate.getCollectionName(Order.class))
+                .map(OrderDocuments::readSummary);
+    }
+
+    // Filters and the delivery date order read the compact fields, which orders in a legacy layout lack
+    private boolean readsLegacyLayout(OrderFilter filter, OrderSortField sortField) {
+        return layoutState.hasLegacyOrders() && OrderQueries.dependsOnLayout(filter, sortField);
+    }
+}
@@ -0,0 +1,105 @@
+package cat.itacademy.s04.t02.n03.fruit.repository.log;
+
+import cat.itacademy.s04.t02.n03.fruit.config.OrderLogProperties;
+import cat.itacademy.s04.t02.n03.fruit.model.Order;
+import cat.itacademy.s04.t02.n03.fruit.repository.memory.InMemoryOrderRepository;
+import cat.itacademy.s04.t02.n03.fruit.services.FruitCatalogService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Repository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Durable orders for the {@code log} profile. Queries are served by the in-memory indexes of
+ * {@link InMemoryOrderRepository}, and every write is also appended to the {@link OrderLog} while the order's
+ * id is locked, so the log sees the writes of one order in the order they were applied. The log is replayed
+ * into memory on startup. Writes return once the log's fsync policy considers them durable.
+ */
+@Repository
+@Profile("log")
+public class LogOrderRepository extends InMemoryOrderRepository implements AutoCloseable {
+
+    private final OrderLog orderLog;
+    private final boolean recovered;
+
+    public LogOrderRepository(FruitCatalogService fruitCatalog, OrderLogProperties properties) {
+        super(fruitCatalog);
+        this.orderLog = OrderLog.open(properties, fruitCatalog);
+        orderLog.forEachLive(super::insert);
+        this.recovered = true;
+    }
+
+    @Override
+    protected void updateIndexes(Order previous, Order current) {
+        if (recovered) {
+            if (current != null) {
+                orderLog.put(current);
+            } else {
+                orderLog.delete(previous.getId());
+            }
+        }
+        super.updateIndexes(previous, current);
+    }
+
+    @Override
+    public <S extends Order> S save(S order) {
+        S saved = super.save(order);
+        orderLog.sync();
+        return saved;
+    }
+
+    @Override
+    public <S extends Order> S insert(S order) {
+        S inserted = super.insert(order);
+        orderLog.sync();
+        return inserted;
+    }
+
+    // One sync for the whole batch rather than one per order
+    @Override
+    public Map<Integer, String> insertUnordered(List<Order> orders) {
+        Map<Integer, String> failures = new HashMap<>();
+        for (int i = 0; i < orders.size(); i++) {
+            try {
+                super.insert(orders.get(i));
+            } catch (DuplicateKeyException ex) {
+                failures.put(i, ex.getMessage());
+            }
+        }
+        orderLog.sync();
+        return failures;
+    }
+
+    @Override
+    public Optional<Order> replaceAndGetPrevious(String id, Order order, List<Long> expectedVersions) {
+        Optional<Order> previous = super.replaceAndGetPrevious(id, order, expectedVersions);
+        orderLog.sync();
+        return previous;
+    }
+
+    @Override
+    public Optional<Order> removeAndGetPrevious(String id, List<Long> expectedVersions) {
+        Optional<Order> previous = super.removeAndGetPrevious(id, expectedVersions);
+        orderLog.sync();
+        return previous;
+    }
+
+    @Override
+    public void deleteById(String id) {
+        super.deleteById(id);
+        orderLog.sync();
+    }
+
+    @Override
+    public void close() {
+        orderLog.close();
+    }
+
+    OrderLog orderLog() {
+        return orderLog;
+    }
+}
@@ -0,0 +1,194 @@
+package cat.itacademy.s04.t02.n03.fruit.repository.log;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * One fixed-size segment file, mapped whole. Records are laid out back to back as
+ * <pre>[length: int][crc32c of type and payload: int][type: byte][payload: length bytes]</pre>
+ * and the zero-filled tail of the file reads as a zero length, which ends the segment. Appends are
+ * serialised by {@link OrderLog}; reads of records already written need no lock.
+ */
+final class LogSegment {
+
+    static final int HEADER_SIZE = Integer.BYTES + Integer.BYTES + Byte.BYTES;
+
+    private static final String PREFIX = "segment-";
+    private static final String SUFFIX = ".log";
+
+    private final int number;
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final AtomicLong liveBytes = new AtomicLong();
+    private final ReentrantLock forceLock = new ReentrantLock();
+
+    private volatile int position;
+    private int syncedPosition;
+
+    private LogSegment(int number, Path path, FileChannel channel, MappedByteBuffer buffer) {
+        this.number = number;
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    static LogSegment open(Path directory, int number, int size) {
+        Path path = directory.resolve(String.format("%s%08d%s", PREFIX, number, SUFFIX));
+        try {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            int mappedSize = (int) Math.max(size, channel.size());
+            return new LogSegment(number, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, mappedSize));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot open log segment " + path, ex);
+        }
+    }
+
+    /**
+     * Segment number of a file written by {@link #open}, or -1 for any other file.
+     */
+    static int numberOf(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(PREFIX) || !name.endsWith(SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    int number() {
+        return number;
+    }
+
+    int position() {
+        return position;
+    }
+
+    boolean fits(int payloadSize) {
+        return position + HEADER_SIZE + payloadSize <= buffer.capacity();
+    }
+
+    int capacity() {
+        return buffer.capacity();
+    }
+
+    /**
+     * Writes one record at the end of the segment and returns its position. The length goes in last, so
+     * until the record is complete its slot still reads as the end of the segment.
+     */
+    int append(byte type, byte[] payload) {
+        int start = position;
+        buffer.putInt(start + Integer.BYTES, checksum(type, payload));
+        buffer.put(start + 2 * Integer.BYTES, type);
+        buffer.put(start + HEADER_SIZE, payload);
+        buffer.putInt(start, payload.length);
+        position = start + HEADER_SIZE + payload.length;
+        return start;
+    }
+
+    byte type(int recordPosition) {
+        return buffer.get(recordPosition + 2 * Integer.BYTES);
+    }
+
+    byte[] payload(int recordPosition) {
+        byte[] payload = new byte[buffer.getInt(recordPosition)];
+        buffer.get(recordPosition + HEADER_SIZE, payload);
+        return payload;
+    }
+
+    /**
+     * Size of the intact record at the given position, or -1 where the segment ends: the zero-filled
+     * tail, or a record torn by a crash whose length or checksum does not hold.
+     */
+    int recordSizeAt(int recordPosition) {
+        if (recordPosition + HEADER_SIZE > buffer.capacity()) {
+            return -1;
+        }
+        int length = buffer.getInt(recordPosition);
+        if (length <= 0 || length > buffer.capacity() - recordPosition - HEADER_SIZE) {
+            return -1;
+        }
+        byte[] payload = new byte[length];
+        buffer.get(recordPosition + HEADER_SIZE, payload);
+        if (buffer.getInt(recordPosition + Integer.BYTES) != checksum(type(recordPosition), payload)) {
+            return -1;
+        }
+        return HEADER_SIZE + length;
+    }
+
+    /**
+     * Makes {@code end} the append position of a recovered segment. Whatever a torn write left after it is
+     * cleared, so later appends can never line up with stale bytes that would read as an intact record.
+     */
+    void truncate(int end) {
+        position = end;
+        syncedPosition = end;
+
+        int dirtyEnd = end;
+        for (int offset = end; offset < buffer.capacity(); offset++) {
+            if (buffer.get(offset) != 0) {
+                dirtyEnd = offset + 1;
+            }
+        }
+        if (dirtyEnd > end) {
+            buffer.put(end, new byte[dirtyEnd - end]);
+            buffer.force(end, dirtyEnd - end);
+        }
+    }
+
+    /**
+     * Forces the records written since the previous call to disk.
+     */
+    void force() {
+        forceLock.lock();
+        try {
+            int end = position;
+            if (end > syncedPosition) {
+                buffer.force(syncedPosition, end - syncedPosition);
+                syncedPosition = end;
+            }
+        } finally {
+            forceLock.unlock();
+        }
+    }
+
+    AtomicLong liveBytes() {
+        return liveBytes;
+    }
+
+    void delete() {
+        try {
+            channel.close();
+            Files.deleteIfExists(path);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot delete log segment " + path, ex);
+        }
+    }
+
+    void close() {
+        try {
+            channel.close();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot close log segment " + path, ex);
+        }
+    }
+
+    private static int checksum(byte type, byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(type);
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
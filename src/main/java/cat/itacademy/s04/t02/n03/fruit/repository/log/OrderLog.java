@@ -0,0 +1,315 @@
+package cat.itacademy.s04.t02.n03.fruit.repository.log;
+
+import cat.itacademy.s04.t02.n03.fruit.config.OrderLogProperties;
+import cat.itacademy.s04.t02.n03.fruit.config.OrderLogProperties.FsyncPolicy;
+import cat.itacademy.s04.t02.n03.fruit.model.Order;
+import cat.itacademy.s04.t02.n03.fruit.services.FruitCatalogService;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of order records in memory-mapped {@link LogSegment segments}, with an in-memory index
+ * from order id to the location of its latest record. Every write appends a record; a replaced or deleted
+ * order leaves its previous record behind as garbage. Once garbage makes up {@code compaction-garbage-ratio}
+ * of the sealed segments, their live records are copied to the active segment and the sealed files are
+ * deleted. Opening the log replays every segment in order to rebuild the index.
+ * <p>
+ * Writes of one id are serialised through {@link ConcurrentMap#compute} on the index, which compaction
+ * uses as well, so a record it copies can never overtake a newer write of the same order.
+ */
+@Slf4j
+final class OrderLog implements AutoCloseable {
+
+    private final Path directory;
+    private final int segmentSize;
+    private final FsyncPolicy fsync;
+    private final double compactionGarbageRatio;
+    private final FruitCatalogService fruitCatalog;
+
+    private final ConcurrentMap<String, Location> index = new ConcurrentHashMap<>();
+    private final List<LogSegment> segments = new CopyOnWriteArrayList<>();
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final ReentrantLock compactionLock = new ReentrantLock();
+    private final ScheduledExecutorService background;
+
+    private volatile LogSegment active;
+    private volatile long appended;
+    private volatile long durable;
+
+    private OrderLog(OrderLogProperties properties, FruitCatalogService fruitCatalog) {
+        this.directory = properties.getDirectory();
+        this.segmentSize = Math.toIntExact(properties.getSegmentSize().toBytes());
+        this.fsync = properties.getFsync();
+        this.compactionGarbageRatio = properties.getCompactionGarbageRatio();
+        this.fruitCatalog = fruitCatalog;
+        this.background = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("order-log").daemon().factory());
+    }
+
+    static OrderLog open(OrderLogProperties properties, FruitCatalogService fruitCatalog) {
+        OrderLog orderLog = new OrderLog(properties, fruitCatalog);
+        orderLog.recover();
+
+        if (properties.getFsync() == FsyncPolicy.PERIODIC) {
+            long interval = properties.getFsyncInterval().toMillis();
+            orderLog.background.scheduleWithFixedDelay(() -> orderLog.runSafely("fsync", orderLog::flush),
+                    interval, interval, TimeUnit.MILLISECONDS);
+        }
+        long compactionInterval = properties.getCompactionInterval().toMillis();
+        orderLog.background.scheduleWithFixedDelay(() -> orderLog.runSafely("compaction", orderLog::compactIfNeeded),
+                compactionInterval, compactionInterval, TimeUnit.MILLISECONDS);
+        return orderLog;
+    }
+
+    void put(Order order) {
+        byte[] payload = OrderRecords.put(order, fruitCatalog);
+        index.compute(order.getId(), (id, previous) -> {
+            Location location = append(OrderRecords.PUT, payload, true);
+            release(previous);
+            return location;
+        });
+    }
+
+    void delete(String id) {
+        byte[] payload = OrderRecords.delete(id);
+        index.compute(id, (key, previous) -> {
+            append(OrderRecords.DELETE, payload, true);
+            release(previous);
+            return null;
+        });
+    }
+
+    /**
+     * Returns once the records appended so far are on disk, when the fsync policy is {@code GROUPED}.
+     * Writers arriving while a force is running wait for it and are usually covered by the next one, so
+     * concurrent writes share their fsyncs.
+     */
+    void sync() {
+        if (fsync == FsyncPolicy.GROUPED) {
+            flush();
+        }
+    }
+
+    void forEachLive(Consumer<Order> action) {
+        index.values().forEach(location -> action.accept(
+                OrderRecords.readOrder(location.segment().payload(location.position()), fruitCatalog)));
+    }
+
+    int liveRecords() {
+        return index.size();
+    }
+
+    int segmentCount() {
+        return segments.size();
+    }
+
+    void compactIfNeeded() {
+        List<LogSegment> sealed = sealedSegments();
+        long written = sealed.stream().mapToLong(LogSegment::position).sum();
+        long live = sealed.stream().mapToLong(segment -> segment.liveBytes().get()).sum();
+        if (written > 0 && (double) (written - live) / written >= compactionGarbageRatio) {
+            compact();
+        }
+    }
+
+    /**
+     * Copies the live records of every sealed segment to the active one and deletes the sealed files, oldest
+     * first. All of them go at once: a delete record may only be dropped along with every older segment, or
+     * the order it deleted would come back on the next recovery.
+     */
+    void compact() {
+        compactionLock.lock();
+        try {
+            List<LogSegment> sealed = sealedSegments();
+            if (sealed.isEmpty()) {
+                return;
+            }
+
+            Set<LogSegment> compacted = Set.copyOf(sealed);
+            int moved = 0;
+            for (String id : index.keySet()) {
+                Location location = index.get(id);
+                if (location == null || !compacted.contains(location.segment())) {
+                    continue;
+                }
+                index.computeIfPresent(id, (key, current) -> {
+                    if (!compacted.contains(current.segment())) {
+                        return current;
+                    }
+                    Location copy = append(OrderRecords.PUT, current.segment().payload(current.position()), false);
+                    release(current);
+                    return copy;
+                });
+                moved++;
+            }
+            flush();
+
+            segments.removeAll(sealed);
+            sealed.forEach(LogSegment::delete);
+            log.info("Compacted {} order log segments, {} live records moved", sealed.size(), moved);
+        } finally {
+            compactionLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        background.shutdown();
+        try {
+            if (!background.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Order log background tasks did not finish in time");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        segments.forEach(LogSegment::close);
+    }
+
+    private void recover() {
+        long start = System.nanoTime();
+        try {
+            Files.createDirectories(directory);
+            List<Integer> numbers;
+            try (Stream<Path> files = Files.list(directory)) {
+                numbers = files.map(LogSegment::numberOf)
+                        .filter(number -> number >= 0)
+                        .sorted()
+                        .toList();
+            }
+
+            for (int number : numbers) {
+                LogSegment segment = LogSegment.open(directory, number, segmentSize);
+                segments.add(segment);
+
+                int position = 0;
+                int size;
+                while ((size = segment.recordSizeAt(position)) > 0) {
+                    replay(segment, position, size);
+                    position += size;
+                }
+                segment.truncate(position);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot read order log in " + directory, ex);
+        }
+
+        if (segments.isEmpty()) {
+            segments.add(LogSegment.open(directory, 1, segmentSize));
+        }
+        active = segments.get(segments.size() - 1);
+        log.info("Recovered {} orders from {} log segments of {} in {} ms", index.size(), segments.size(),
+                directory, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private void replay(LogSegment segment, int position, int size) {
+        byte[] payload = segment.payload(position);
+        String id = OrderRecords.readId(payload);
+        if (segment.type(position) == OrderRecords.PUT) {
+            segment.liveBytes().addAndGet(size);
+            release(index.put(id, new Location(segment, position, size)));
+        } else {
+            release(index.remove(id));
+        }
+    }
+
+    private Location append(byte type, byte[] payload, boolean forceNow) {
+        int size = LogSegment.HEADER_SIZE + payload.length;
+        if (size > segmentSize) {
+            throw new IllegalArgumentException(
+                    "A record of " + size + " bytes does not fit in a log segment of " + segmentSize + " bytes");
+        }
+
+        appendLock.lock();
+        try {
+            if (!active.fits(payload.length)) {
+                roll();
+            }
+            LogSegment segment = active;
+            int position = segment.append(type, payload);
+            if (type == OrderRecords.PUT) {
+                segment.liveBytes().addAndGet(size);
+            }
+            appended++;
+            if (forceNow && fsync == FsyncPolicy.ALWAYS) {
+                segment.force();
+                durable = appended;
+            }
+            return new Location(segment, position, size);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    // A sealed segment is forced once here, so a sync only ever has the active segment left to force
+    private void roll() {
+        active.force();
+        LogSegment next = LogSegment.open(directory, active.number() + 1, segmentSize);
+        segments.add(next);
+        active = next;
+    }
+
+    private void flush() {
+        long target = appended;
+        if (durable >= target) {
+            return;
+        }
+
+        syncLock.lock();
+        try {
+            if (durable >= target) {
+                return;
+            }
+            long upTo = appended;
+            active.force();
+            durable = upTo;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private List<LogSegment> sealedSegments() {
+        appendLock.lock();
+        try {
+            List<LogSegment> sealed = new ArrayList<>(segments);
+            sealed.remove(active);
+            return sealed;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private static void release(Location location) {
+        if (location != null) {
+            location.segment().liveBytes().addAndGet(-location.size());
+        }
+    }
+
+    private void runSafely(String task, Runnable action) {
+        try {
+            action.run();
+        } catch (RuntimeException ex) {
+            log.error("Order log {} failed", task, ex);
+        }
+    }
+
+    private record Location(LogSegment segment, int position, int size) {
+    }
+}
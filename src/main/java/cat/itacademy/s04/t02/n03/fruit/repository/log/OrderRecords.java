@@ -0,0 +1,111 @@
+package cat.itacademy.s04.t02.n03.fruit.repository.log;
+
+import cat.itacademy.s04.t02.n03.fruit.model.Order;
+import cat.itacademy.s04.t02.n03.fruit.model.OrderItem;
+import cat.itacademy.s04.t02.n03.fruit.services.FruitCatalogService;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Payload of the log records. Both start with the order id, so recovery reads no further:
+ * <pre>PUT:    id, version, client, epoch day, item count, (fruit name, kilos) per item
+ * DELETE: id</pre>
+ * Items are written with their fruit name rather than the catalog code, so the log stays readable
+ * without the catalog that was current when it was written.
+ */
+final class OrderRecords {
+
+    static final byte PUT = 1;
+    static final byte DELETE = 2;
+
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    private OrderRecords() {
+    }
+
+    static byte[] put(Order order, FruitCatalogService fruitCatalog) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(order.getId());
+            out.writeLong(order.getVersion() != null ? order.getVersion() : 0L);
+            writeNullable(out, order.getClientName());
+            out.writeLong(order.getDeliveryDate() != null ? order.getDeliveryDate().toEpochDay() : NO_DATE);
+
+            List<OrderItem> items = order.getItems();
+            out.writeInt(items != null ? items.size() : -1);
+            if (items != null) {
+                for (OrderItem item : items) {
+                    writeNullable(out, fruitCatalog.nameOf(item));
+                    out.writeInt(item.getQuantityInKilos());
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    static byte[] delete(String id) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(id);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    static String readId(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            return in.readUTF();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    static Order readOrder(byte[] payload, FruitCatalogService fruitCatalog) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            Order order = new Order();
+            order.setId(in.readUTF());
+            order.setVersion(in.readLong());
+            order.setClientName(readNullable(in));
+            long epochDay = in.readLong();
+            order.setDeliveryDate(epochDay != NO_DATE ? LocalDate.ofEpochDay(epochDay) : null);
+
+            int itemCount = in.readInt();
+            if (itemCount >= 0) {
+                List<OrderItem> items = new ArrayList<>(itemCount);
+                for (int i = 0; i < itemCount; i++) {
+                    String fruitName = readNullable(in);
+                    int kilos = in.readInt();
+                    items.add(fruitName != null
+                            ? new OrderItem(fruitCatalog.codeOf(fruitName), kilos)
+                            : new OrderItem(null, null, kilos));
+                }
+                order.setItems(items);
+            }
+            return order;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
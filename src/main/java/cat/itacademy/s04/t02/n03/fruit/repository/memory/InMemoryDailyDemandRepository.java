@@ -0,0 +1,124 @@
+package cat.itacademy.s04.t02.n03.fruit.repository.memory;
+
+import cat.itacademy.s04.t02.n03.fruit.model.DailyDemand;
+import cat.itacademy.s04.t02.n03.fruit.model.Order;
+import cat.itacademy.s04.t02.n03.fruit.model.OrderItem;
+import cat.itacademy.s04.t02.n03.fruit.repository.DailyDemandRepository;
+import cat.itacademy.s04.t02.n03.fruit.repository.OrderRepository;
+import cat.itacademy.s04.t02.n03.fruit.services.FruitCatalogService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+@Repository
+@Profile({"memory", "log"})
+@RequiredArgsConstructor
+public class InMemoryDailyDemandRepository extends InMemoryRepository<DailyDemand, LocalDate>
+        implements DailyDemandRepository {
+
+    private final OrderRepository orderRepository;
+    private final FruitCatalogService fruitCatalog;
+
+    @Override
+    protected LocalDate idOf(DailyDemand demand) {
+        return demand.getDeliveryDate();
+    }
+
+    @Override
+    protected DailyDemand copy(DailyDemand demand) {
+        return new DailyDemand(demand.getDeliveryDate(),
+                demand.getKilosByFruit() != null ? new HashMap<>(demand.getKilosByFruit()) : null,
+                demand.getRevision());
+    }
+
+    // The rollup is derived data: rebuilt from orders that may have been recovered from disk
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        computeFromOrders().forEach((deliveryDate, kilosByFruit) -> save(new DailyDemand(deliveryDate, kilosByFruit, 0)));
+    }
+
+    @Override
+    public void applyDeltas(Map<LocalDate, Map<String, Long>> deltas) {
+        deltas.forEach((deliveryDate, fruitDeltas) -> entities.compute(deliveryDate, (date, previous) -> {
+            Map<String, Long> kilosByFruit = previous != null && previous.getKilosByFruit() != null
+                    ? new HashMap<>(previous.getKilosByFruit())
+                    : new HashMap<>();
+            fruitDeltas.forEach((fruitName, kilos) -> kilosByFruit.merge(fruitName, kilos, Long::sum));
+            return new DailyDemand(date, kilosByFruit, previous != null ? previous.getRevision() + 1 : 1);
+        }));
+    }
+
+    @Override
+    public Optional<Map<String, Long>> findKilosByFruit(LocalDate deliveryDate) {
+        return Optional.ofNullable(entities.get(deliveryDate))
+                .map(demand -> nonZero(demand.getKilosByFruit()));
+    }
+
+    @Override
+    public Map<LocalDate, Map<String, Long>> findAllKilosByFruit() {
+        Map<LocalDate, Map<String, Long>> rollup = new TreeMap<>();
+        entities.forEach((deliveryDate, demand) -> rollup.put(deliveryDate, nonZero(demand.getKilosByFruit())));
+        return rollup;
+    }
+
+    @Override
+    public Map<LocalDate, Long> findAllRevisions() {
+        Map<LocalDate, Long> revisions = new TreeMap<>();
+        entities.forEach((deliveryDate, demand) -> revisions.put(deliveryDate, demand.getRevision()));
+        return revisions;
+    }
+
+    @Override
+    public Map<LocalDate, Map<String, Long>> computeFromOrders() {
+        Map<LocalDate, Map<String, Long>> expected = new TreeMap<>();
+        try (Stream<Order> orders = orderRepository.streamAll()) {
+            orders.filter(order -> order.getDeliveryDate() != null && order.getItems() != null)
+                    .forEach(order -> {
+                        for (OrderItem item : order.getItems()) {
+                            if (item.getFruitCode() != null) {
+                                expected.computeIfAbsent(order.getDeliveryDate(), date -> new TreeMap<>())
+                                        .merge(fruitCatalog.nameOf(item.getFruitCode()),
+                                                (long) item.getQuantityInKilos(), Long::sum);
+                            }
+                        }
+                    });
+        }
+        return expected;
+    }
+
+    @Override
+    public boolean replaceDay(LocalDate deliveryDate, Map<String, Long> kilosByFruit, Long expectedRevision) {
+        boolean[] replaced = new boolean[1];
+        entities.compute(deliveryDate, (date, previous) -> {
+            Long revision = previous != null ? previous.getRevision() : null;
+            if (!Objects.equals(revision, expectedRevision)) {
+                return previous;
+            }
+            replaced[0] = true;
+            return new DailyDemand(date, new HashMap<>(kilosByFruit), revision != null ? revision + 1 : 1);
+        });
+        return replaced[0];
+    }
+
+    private static Map<String, Long> nonZero(Map<String, Long> kilosByFruit) {
+        Map<String, Long> result = new TreeMap<>();
+        if (kilosByFruit != null) {
+            kilosByFruit.forEach((fruitName, kilos) -> {
+                if (kilos != null && kilos != 0) {
+                    result.put(fruitName, kilos);
+                }
+            });
+        }
+        return result;
+    }
+}
@@ -0,0 +1,49 @@
+package cat.itacademy.s04.t02.n03.fruit.repository.memory;
+
+import cat.itacademy.s04.t02.n03.fruit.model.Fruit;
+import cat.itacademy.s04.t02.n03.fruit.repository.FruitRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Repository;
+
+import java.util.Comparator;
+import java.util.Optional;
+
+@Repository
+@Profile({"memory", "log"})
+public class InMemoryFruitRepository extends InMemoryRepository<Fruit, Integer> implements FruitRepository {
+
+    @Override
+    protected Integer idOf(Fruit fruit) {
+        return fruit.getCode();
+    }
+
+    @Override
+    protected Fruit copy(Fruit fruit) {
+        return new Fruit(fruit.getCode(), fruit.getName());
+    }
+
+    // The catalog holds a handful of fruits, registering one is rare enough to serialise for the unique name
+    @Override
+    public synchronized <S extends Fruit> S insert(S fruit) {
+        if (findByName(fruit.getName()).isPresent()) {
+            throw new DuplicateKeyException("Duplicate fruit name: " + fruit.getName());
+        }
+        return super.insert(fruit);
+    }
+
+    @Override
+    public Optional<Fruit> findByName(String name) {
+        return entities.values().stream()
+                .filter(fruit -> fruit.getName().equals(name))
+                .findFirst()
+                .map(this::copy);
+    }
+
+    @Override
+    public Optional<Fruit> findTopByOrderByCodeDesc() {
+        return entities.values().stream()
+                .max(Comparator.comparing(Fruit::getCode))
+                .map(this::copy);
+    }
+}
@@ -0,0 +1,33 @@
+package cat.itacademy.s04.t02.n03.fruit.repository.memory;
+
+import cat.itacademy.s04.t02.n03.fruit.model.IdempotencyRecord;
+import cat.itacademy.s04.t02.n03.fruit.repository.IdempotencyRecordRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+@Profile({"memory", "log"})
+public class InMemoryIdempotencyRecordRepository extends InMemoryRepository<IdempotencyRecord, String>
+        implements IdempotencyRecordRepository {
+
+    @Override
+    protected String idOf(IdempotencyRecord record) {
+        return record.getKey();
+    }
+
+    @Override
+    protected IdempotencyRecord copy(IdempotencyRecord record) {
+        return new IdempotencyRecord(record.getKey(), record.getRequestHash(), record.getResponse(),
+                record.getExpiresAt());
+    }
+
+    // Stands in for the TTL index, whose monitor also runs once a minute
+    @Scheduled(fixedDelay = 60_000)
+    public void removeExpired() {
+        Instant now = Instant.now();
+        entities.values().removeIf(record -> record.getExpiresAt() != null && record.getExpiresAt().isBefore(now));
+    }
+}
@@ -0,0 +1,430 @@
+package cat.itacademy.s04.t02.n03.fruit.repository.memory;
+
+import cat.itacademy.s04.t02.n03.fruit.dto.ClientDemandDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.CollectionSizeDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.FruitDemandDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderSummaryDTO;
+import cat.itacademy.s04.t02.n03.fruit.model.Order;
+import cat.itacademy.s04.t02.n03.fruit.model.OrderItem;
+import cat.itacademy.s04.t02.n03.fruit.pagination.OrderCursor;
+import cat.itacademy.s04.t02.n03.fruit.pagination.OrderSortField;
+import cat.itacademy.s04.t02.n03.fruit.repository.OrderFilter;
+import cat.itacademy.s04.t02.n03.fruit.repository.OrderRepository;
+import cat.itacademy.s04.t02.n03.fruit.services.FruitCatalogService;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Orders kept on the heap for the {@code memory} profile. The primary index maps ids to orders; the skip lists
+ * mirror the Mongo indexes ({@code _id}, {@code d_id} and {@code c_d_id}) so a page walks its index range from
+ * the cursor and stops at the limit instead of sorting the whole store. Stored orders are never mutated, and
+ * every write swaps the instance and its index entries under the lock of its id. Readers use no lock: an order
+ * is only returned through an index entry that still matches it.
+ */
+@Repository
+@Profile("memory & !log")
+@RequiredArgsConstructor
+public class InMemoryOrderRepository extends InMemoryRepository<Order, String> implements OrderRepository {
+
+    private static final String MIN_ID = "";
+    private static final String MAX_ID = "\uffff";
+
+    private static final Comparator<IndexKey> BY_DELIVERY_DATE = Comparator
+            .comparing(IndexKey::deliveryDate, Comparator.nullsFirst(Comparator.<LocalDate>naturalOrder()))
+            .thenComparing(IndexKey::id);
+    private static final Comparator<IndexKey> BY_CLIENT = Comparator
+            .comparing(IndexKey::clientName, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+            .thenComparing(BY_DELIVERY_DATE);
+
+    private final NavigableSet<String> ids = new ConcurrentSkipListSet<>();
+    private final NavigableSet<IndexKey> byDeliveryDate = new ConcurrentSkipListSet<>(BY_DELIVERY_DATE);
+    private final NavigableSet<IndexKey> byClient = new ConcurrentSkipListSet<>(BY_CLIENT);
+
+    private final FruitCatalogService fruitCatalog;
+
+    @Override
+    protected String idOf(Order order) {
+        return order.getId();
+    }
+
+    @Override
+    protected Order copy(Order order) {
+        List<OrderItem> items = null;
+        if (order.getItems() != null) {
+            items = new ArrayList<>(order.getItems().size());
+            for (OrderItem item : order.getItems()) {
+                items.add(new OrderItem(item.getFruitCode(), item.getFruitName(), item.getQuantityInKilos()));
+            }
+        }
+        return new Order(order.getId(), order.getClientName(), order.getDeliveryDate(), items, order.getVersion());
+    }
+
+    @Override
+    protected void updateIndexes(Order previous, Order current) {
+        if (previous != null) {
+            IndexKey key = IndexKey.of(previous);
+            byDeliveryDate.remove(key);
+            byClient.remove(key);
+        }
+        if (current != null) {
+            IndexKey key = IndexKey.of(current);
+            ids.add(key.id());
+            byDeliveryDate.add(key);
+            byClient.add(key);
+        } else {
+            ids.remove(previous.getId());
+        }
+    }
+
+    /**
+     * Same rules as {@code @Version} on Mongo: an order without id or version is inserted at version 0,
+     * any other is only replaced if the stored version still matches, and the version is bumped.
+     */
+    @Override
+    public <S extends Order> S save(S order) {
+        if (order.getId() == null || order.getVersion() == null) {
+            return insert(order);
+        }
+
+        long version = order.getVersion();
+        Order stored = copy(order);
+        stored.setVersion(version + 1);
+        entities.compute(order.getId(), (id, previous) -> {
+            if (previous == null || !Objects.equals(previous.getVersion(), version)) {
+                throw new OptimisticLockingFailureException(
+                        "Cannot save order " + id + " with version " + version + ": it was changed or removed");
+            }
+            updateIndexes(previous, stored);
+            return stored;
+        });
+        order.setVersion(version + 1);
+        return order;
+    }
+
+    @Override
+    public <S extends Order> S insert(S order) {
+        if (order.getId() == null) {
+            order.setId(new ObjectId().toHexString());
+        }
+        if (order.getVersion() == null) {
+            order.setVersion(0L);
+        }
+        return super.insert(order);
+    }
+
+    @Override
+    public List<Order> findAll() {
+        return streamAll().toList();
+    }
+
+    @Override
+    public List<Order> findPage(OrderFilter filter, OrderSortField sortField, OrderCursor after, int limit) {
+        return scan(filter, sortField, after)
+                .limit(limit)
+                .map(this::copy)
+                .toList();
+    }
+
+    @Override
+    public List<Order> findProjectedPage(OrderFilter filter, OrderSortField sortField, OrderCursor after, int limit,
+                                         Collection<String> fields) {
+        boolean keepDeliveryDate = sortField == OrderSortField.DELIVERY_DATE;
+        return scan(filter, sortField, after)
+                .limit(limit)
+                .map(order -> project(order, fields, keepDeliveryDate, false))
+                .toList();
+    }
+
+    @Override
+    public Optional<Order> findProjectedById(String id, Collection<String> fields) {
+        return Optional.ofNullable(entities.get(id))
+                .map(order -> project(order, fields, false, true));
+    }
+
+    @Override
+    public List<OrderSummaryDTO> findSummaryPage(OrderFilter filter, OrderSortField sortField, OrderCursor after, int limit) {
+        return scan(filter, sortField, after)
+                .limit(limit)
+                .map(order -> {
+                    List<OrderItem> items = order.getItems() != null ? order.getItems() : List.of();
+                    long totalKilos = items.stream().mapToLong(OrderItem::getQuantityInKilos).sum();
+                    return new OrderSummaryDTO(order.getId(), order.getClientName(), order.getDeliveryDate(),
+                            items.size(), totalKilos);
+                })
+                .toList();
+    }
+
+    @Override
+    public Stream<Order> streamAll() {
+        return ids.stream()
+                .map(entities::get)
+                .filter(Objects::nonNull)
+                .map(this::copy);
+    }
+
+    @Override
+    public Map<Integer, String> insertUnordered(List<Order> orders) {
+        Map<Integer, String> failures = new HashMap<>();
+        for (int i = 0; i < orders.size(); i++) {
+            try {
+                insert(orders.get(i));
+            } catch (DuplicateKeyException ex) {
+                failures.put(i, ex.getMessage());
+            }
+        }
+        return failures;
+    }
+
+    @Override
+    public Optional<Order> replaceAndGetPrevious(String id, Order order, List<Long> expectedVersions) {
+        Order[] replaced = new Order[1];
+        entities.computeIfPresent(id, (key, previous) -> {
+            if (!matchesVersion(previous, expectedVersions)) {
+                return previous;
+            }
+            Order stored = copy(order);
+            stored.setId(key);
+            stored.setVersion(previous.getVersion() == null ? 1L : previous.getVersion() + 1);
+            updateIndexes(previous, stored);
+            replaced[0] = previous;
+            return stored;
+        });
+        return Optional.ofNullable(replaced[0]).map(this::copy);
+    }
+
+    @Override
+    public Optional<Order> removeAndGetPrevious(String id, List<Long> expectedVersions) {
+        Order[] removed = new Order[1];
+        entities.computeIfPresent(id, (key, previous) -> {
+            if (!matchesVersion(previous, expectedVersions)) {
+                return previous;
+            }
+            updateIndexes(previous, null);
+            removed[0] = previous;
+            return null;
+        });
+        return Optional.ofNullable(removed[0]).map(this::copy);
+    }
+
+    @Override
+    public List<FruitDemandDTO> aggregateFruitDemand(OrderFilter filter) {
+        Map<Integer, Long> kilosByFruit = new HashMap<>();
+        forEachItem(filter, (order, item) -> {
+            if (item.getFruitCode() != null) {
+                kilosByFruit.merge(item.getFruitCode(), (long) item.getQuantityInKilos(), Long::sum);
+            }
+        });
+        return kilosByFruit.entrySet().stream()
+                .map(entry -> new FruitDemandDTO(fruitCatalog.nameOf(entry.getKey()), entry.getValue()))
+                .sorted(Comparator.comparingLong(FruitDemandDTO::getTotalKilos).reversed()
+                        .thenComparing(FruitDemandDTO::getFruitName))
+                .toList();
+    }
+
+    @Override
+    public List<ClientDemandDTO> aggregateClientDemand(OrderFilter filter) {
+        Map<String, Long> kilosByClient = new HashMap<>();
+        forEachItem(filter, (order, item) ->
+                kilosByClient.merge(order.getClientName(), (long) item.getQuantityInKilos(), Long::sum));
+        return kilosByClient.entrySet().stream()
+                .map(entry -> new ClientDemandDTO(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparingLong(ClientDemandDTO::getTotalKilos).reversed()
+                        .thenComparing(ClientDemandDTO::getClientName, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .toList();
+    }
+
+    // Orders are only ever held in the current model, there is no older layout to migrate
+
+    @Override
+    public Stream<Order> streamLegacyLayout(int batchSize) {
+        return Stream.empty();
+    }
+
+    @Override
+    public long rewriteInCurrentLayout(List<Order> orders) {
+        return 0;
+    }
+
+    @Override
+    public long countLegacyLayout() {
+        return 0;
+    }
+
+    /**
+     * Only the order count is known: heap footprint is not measured.
+     */
+    @Override
+    public CollectionSizeDTO measureSize() {
+        return new CollectionSizeDTO(count(), 0, 0, 0, 0, Map.of());
+    }
+
+    @Override
+    public boolean dropIndex(String indexName) {
+        return false;
+    }
+
+    /**
+     * Matching stored orders in page order. A client filter walks {@code c_d_id}, a delivery date sort or range
+     * walks {@code d_id} and anything else walks the ids; results of an index not ordered by the requested sort
+     * are sorted afterwards.
+     */
+    private Stream<Order> scan(OrderFilter filter, OrderSortField sortField, OrderCursor after) {
+        String clientName = filter != null ? filter.getClientName() : null;
+        LocalDate from = filter != null ? filter.getFrom() : null;
+        LocalDate to = filter != null ? filter.getTo() : null;
+        boolean byDate = sortField == OrderSortField.DELIVERY_DATE;
+        OrderCursor dateCursor = byDate ? after : null;
+
+        Stream<Order> candidates;
+        if (clientName != null) {
+            candidates = resolve(clientRange(clientName, from, to, dateCursor));
+        } else if (byDate || from != null || to != null) {
+            candidates = resolve(deliveryDateRange(from, to, dateCursor));
+        } else {
+            NavigableSet<String> range = after != null ? ids.tailSet(after.getId(), false) : ids;
+            return range.stream()
+                    .map(entities::get)
+                    .filter(Objects::nonNull)
+                    .filter(matcher(filter));
+        }
+
+        candidates = candidates.filter(matcher(filter));
+        if (!byDate) {
+            if (after != null) {
+                candidates = candidates.filter(order -> order.getId().compareTo(after.getId()) > 0);
+            }
+            candidates = candidates.sorted(Comparator.comparing(Order::getId));
+        }
+        return candidates;
+    }
+
+    private NavigableSet<IndexKey> clientRange(String clientName, LocalDate from, LocalDate to, OrderCursor after) {
+        IndexKey lower = after != null
+                ? new IndexKey(clientName, after.getDeliveryDate(), after.getId())
+                : new IndexKey(clientName, from, MIN_ID);
+        IndexKey upper = new IndexKey(clientName, to != null ? to : LocalDate.MAX, MAX_ID);
+        return byClient.subSet(lower, after == null, upper, true);
+    }
+
+    private NavigableSet<IndexKey> deliveryDateRange(LocalDate from, LocalDate to, OrderCursor after) {
+        NavigableSet<IndexKey> range = byDeliveryDate;
+        if (after != null) {
+            range = range.tailSet(new IndexKey(null, after.getDeliveryDate(), after.getId()), false);
+        } else if (from != null) {
+            range = range.tailSet(new IndexKey(null, from, MIN_ID), true);
+        }
+        if (to != null) {
+            range = range.headSet(new IndexKey(null, to, MAX_ID), true);
+        }
+        return range;
+    }
+
+    // An entry whose order has since moved or gone is skipped, the order is found through its new entry
+    private Stream<Order> resolve(NavigableSet<IndexKey> range) {
+        return range.stream()
+                .map(key -> {
+                    Order order = entities.get(key.id());
+                    return order != null && IndexKey.of(order).equals(key) ? order : null;
+                })
+                .filter(Objects::nonNull);
+    }
+
+    private Predicate<Order> matcher(OrderFilter filter) {
+        if (filter == null) {
+            return order -> true;
+        }
+
+        Integer fruitCode = filter.getFruitName() != null ? fruitCatalog.findCode(filter.getFruitName()) : null;
+        return order -> (filter.getClientName() == null || filter.getClientName().equals(order.getClientName()))
+                && (filter.getFruitName() == null || (fruitCode != null && containsFruit(order, fruitCode)))
+                && (filter.getFrom() == null
+                        || (order.getDeliveryDate() != null && !order.getDeliveryDate().isBefore(filter.getFrom())))
+                && (filter.getTo() == null
+                        || (order.getDeliveryDate() != null && !order.getDeliveryDate().isAfter(filter.getTo())));
+    }
+
+    /**
+     * Items of the matching orders, restricted to the filtered fruit like the unwind stage of the aggregations.
+     */
+    private void forEachItem(OrderFilter filter, BiConsumer<Order, OrderItem> action) {
+        Integer fruitCode = filter != null && filter.getFruitName() != null
+                ? fruitCatalog.findCode(filter.getFruitName())
+                : null;
+        scan(filter, OrderSortField.ID, null).forEach(order -> {
+            if (order.getItems() == null) {
+                return;
+            }
+            for (OrderItem item : order.getItems()) {
+                if (fruitCode == null || fruitCode.equals(item.getFruitCode())) {
+                    action.accept(order, item);
+                }
+            }
+        });
+    }
+
+    private static boolean containsFruit(Order order, int fruitCode) {
+        return order.getItems() != null && order.getItems().stream()
+                .anyMatch(item -> item.getFruitCode() != null && item.getFruitCode() == fruitCode);
+    }
+
+    private static boolean matchesVersion(Order order, List<Long> expectedVersions) {
+        return expectedVersions == null || expectedVersions.contains(order.getVersion());
+    }
+
+    /**
+     * Copy holding only the requested {@code OrderResponseDTO} paths, as a Mongo projection would return it.
+     */
+    private Order project(Order order, Collection<String> fields, boolean keepDeliveryDate, boolean keepVersion) {
+        Order projected = new Order();
+        projected.setId(order.getId());
+        if (fields.contains("clientName")) {
+            projected.setClientName(order.getClientName());
+        }
+        if (keepDeliveryDate || fields.contains("deliveryDate")) {
+            projected.setDeliveryDate(order.getDeliveryDate());
+        }
+        if (keepVersion) {
+            projected.setVersion(order.getVersion());
+        }
+
+        boolean fruits = fields.contains("items") || fields.contains("items.fruitName");
+        boolean quantities = fields.contains("items") || fields.contains("items.quantityInKilos");
+        if ((fruits || quantities) && order.getItems() != null) {
+            List<OrderItem> items = new ArrayList<>(order.getItems().size());
+            for (OrderItem item : order.getItems()) {
+                items.add(new OrderItem(
+                        fruits ? item.getFruitCode() : null,
+                        fruits ? item.getFruitName() : null,
+                        quantities ? item.getQuantityInKilos() : 0));
+            }
+            projected.setItems(items);
+        }
+        return projected;
+    }
+
+    private record IndexKey(String clientName, LocalDate deliveryDate, String id) {
+
+        static IndexKey of(Order order) {
+            return new IndexKey(order.getClientName(), order.getDeliveryDate(), order.getId());
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package cat.itacademy.s04.t02.n03.fruit.repository.memory;
+
+import cat.itacademy.s04.t02.n03.fruit.repository.DocumentRepository;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * {@link DocumentRepository} held in a {@link ConcurrentHashMap}, used by the {@code memory} profile. Entities are
+ * copied on the way in and on the way out, so no caller ever shares an instance with the store. Every write to
+ * one id runs inside {@link ConcurrentMap#compute}, which serialises it with the index maintenance of
+ * {@link #updateIndexes}.
+ */
+abstract class InMemoryRepository<T, ID> implements DocumentRepository<T, ID> {
+
+    protected final ConcurrentMap<ID, T> entities = new ConcurrentHashMap<>();
+
+    protected abstract ID idOf(T entity);
+
+    protected abstract T copy(T entity);
+
+    /**
+     * Called while the id is locked, with a {@code null} previous on insert and a {@code null} current on removal.
+     */
+    protected void updateIndexes(T previous, T current) {
+    }
+
+    @Override
+    public <S extends T> S save(S entity) {
+        ID id = requireId(entity);
+        T stored = copy(entity);
+        entities.compute(id, (key, previous) -> {
+            updateIndexes(previous, stored);
+            return stored;
+        });
+        return entity;
+    }
+
+    @Override
+    public <S extends T> List<S> saveAll(Iterable<S> toSave) {
+        List<S> saved = new ArrayList<>();
+        toSave.forEach(entity -> saved.add(save(entity)));
+        return saved;
+    }
+
+    @Override
+    public <S extends T> S insert(S entity) {
+        ID id = requireId(entity);
+        T stored = copy(entity);
+        entities.compute(id, (key, previous) -> {
+            if (previous != null) {
+                throw new DuplicateKeyException("Duplicate key: " + key);
+            }
+            updateIndexes(null, stored);
+            return stored;
+        });
+        return entity;
+    }
+
+    @Override
+    public <S extends T> List<S> insert(Iterable<S> toInsert) {
+        List<S> inserted = new ArrayList<>();
+        toInsert.forEach(entity -> inserted.add(insert(entity)));
+        return inserted;
+    }
+
+    @Override
+    public Optional<T> findById(ID id) {
+        Assert.notNull(id, "The given id must not be null");
+        return Optional.ofNullable(entities.get(id)).map(this::copy);
+    }
+
+    @Override
+    public boolean existsById(ID id) {
+        Assert.notNull(id, "The given id must not be null");
+        return entities.containsKey(id);
+    }
+
+    @Override
+    public List<T> findAll() {
+        return entities.values().stream().map(this::copy).toList();
+    }
+
+    @Override
+    public List<T> findAllById(Iterable<ID> ids) {
+        List<T> found = new ArrayList<>();
+        ids.forEach(id -> findById(id).ifPresent(found::add));
+        return found;
+    }
+
+    @Override
+    public long count() {
+        return entities.size();
+    }
+
+    @Override
+    public void deleteById(ID id) {
+        Assert.notNull(id, "The given id must not be null");
+        entities.computeIfPresent(id, (key, previous) -> {
+            updateIndexes(previous, null);
+            return null;
+        });
+    }
+
+    @Override
+    public void delete(T entity) {
+        deleteById(requireId(entity));
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends ID> ids) {
+        ids.forEach(this::deleteById);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends T> toDelete) {
+        toDelete.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        entities.keySet().forEach(this::deleteById);
+    }
+
+    private ID requireId(T entity) {
+        Assert.notNull(entity, "Entity must not be null");
+        ID id = idOf(entity);
+        Assert.notNull(id, "Entity id must not be null");
+        return id;
+    }
+}
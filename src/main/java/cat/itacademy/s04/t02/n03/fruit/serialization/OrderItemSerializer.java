@@ -0,0 +1,34 @@
+package cat.itacademy.s04.t02.n03.fruit.serialization;
+
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderItemDTO;
+import cat.itacademy.s04.t02.n03.fruit.pagination.OrderFieldSelection;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+
+final class OrderItemSerializer extends PrebuiltSerializer<OrderItemDTO> {
+
+    private static final SerializedString FRUIT_NAME = new SerializedString("fruitName");
+    private static final SerializedString QUANTITY_IN_KILOS = new SerializedString("quantityInKilos");
+
+    OrderItemSerializer(JsonSerializer<Object> beanSerializer) {
+        super(OrderItemDTO.class, beanSerializer, OrderFieldSelection.ORDER_ITEM_FILTER);
+    }
+
+    @Override
+    protected PrebuiltSerializer<OrderItemDTO> withBeanSerializer(JsonSerializer<Object> beanSerializer) {
+        return new OrderItemSerializer(beanSerializer);
+    }
+
+    @Override
+    protected void serializeFields(OrderItemDTO item, JsonGenerator gen, SerializerProvider provider)
+            throws IOException {
+        gen.writeFieldName(FRUIT_NAME);
+        gen.writeString(item.getFruitName());
+        gen.writeFieldName(QUANTITY_IN_KILOS);
+        gen.writeNumber(item.getQuantityInKilos());
+    }
+}
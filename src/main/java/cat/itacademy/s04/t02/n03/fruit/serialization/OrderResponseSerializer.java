@@ -0,0 +1,85 @@
+package cat.itacademy.s04.t02.n03.fruit.serialization;
+
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderItemDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderResponseDTO;
+import cat.itacademy.s04.t02.n03.fruit.pagination.OrderFieldSelection;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+
+final class OrderResponseSerializer extends PrebuiltSerializer<OrderResponseDTO> {
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString CLIENT_NAME = new SerializedString("clientName");
+    private static final SerializedString DELIVERY_DATE = new SerializedString("deliveryDate");
+    private static final SerializedString ITEMS = new SerializedString("items");
+
+    private JsonSerializer<Object> itemSerializer;
+
+    OrderResponseSerializer(JsonSerializer<Object> beanSerializer) {
+        super(OrderResponseDTO.class, beanSerializer, OrderFieldSelection.ORDER_FILTER);
+    }
+
+    @Override
+    protected PrebuiltSerializer<OrderResponseDTO> withBeanSerializer(JsonSerializer<Object> beanSerializer) {
+        OrderResponseSerializer copy = new OrderResponseSerializer(beanSerializer);
+        copy.itemSerializer = itemSerializer;
+        return copy;
+    }
+
+    @Override
+    public void resolve(SerializerProvider provider) throws JsonMappingException {
+        super.resolve(provider);
+        itemSerializer = provider.findContentValueSerializer(OrderItemDTO.class, null);
+    }
+
+    // version is @JsonIgnore'd on the DTO and is left out here as well
+    @Override
+    protected void serializeFields(OrderResponseDTO order, JsonGenerator gen, SerializerProvider provider)
+            throws IOException {
+        gen.writeFieldName(ID);
+        gen.writeString(order.getId());
+        gen.writeFieldName(CLIENT_NAME);
+        gen.writeString(order.getClientName());
+        gen.writeFieldName(DELIVERY_DATE);
+        writeDate(order.getDeliveryDate(), gen, provider);
+        gen.writeFieldName(ITEMS);
+        writeItems(order.getItems(), gen, provider);
+    }
+
+    private void writeItems(List<OrderItemDTO> items, JsonGenerator gen, SerializerProvider provider)
+            throws IOException {
+        if (items == null) {
+            gen.writeNull();
+            return;
+        }
+
+        gen.writeStartArray(items, items.size());
+        for (OrderItemDTO item : items) {
+            if (item == null) {
+                gen.writeNull();
+            } else {
+                itemSerializer.serialize(item, gen, provider);
+            }
+        }
+        gen.writeEndArray();
+    }
+
+    // ISO-8601, as JavaTimeModule writes a LocalDate unless dates are written as timestamps
+    private static void writeDate(LocalDate date, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        if (date == null) {
+            gen.writeNull();
+        } else if (provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)) {
+            provider.defaultSerializeValue(date, gen);
+        } else {
+            gen.writeString(date.toString());
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package cat.itacademy.s04.t02.n03.fruit.serialization;
+
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderItemDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderResponseDTO;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+
+/**
+ * Replaces the reflective bean serializers of the order DTOs written on every read endpoint with
+ * hand-written ones: pre-encoded field names and direct getter calls, straight to the generator of whichever
+ * format is negotiated. The output is byte for byte the bean serializer's.
+ */
+public class OrderSerializersModule extends SimpleModule {
+
+    public OrderSerializersModule() {
+        super(OrderSerializersModule.class.getSimpleName());
+        setSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public JsonSerializer<?> modifySerializer(SerializationConfig config, BeanDescription beanDesc,
+                                                      JsonSerializer<?> serializer) {
+                Class<?> type = beanDesc.getBeanClass();
+                if (type == OrderResponseDTO.class) {
+                    return new OrderResponseSerializer((JsonSerializer<Object>) serializer);
+                }
+                if (type == OrderItemDTO.class) {
+                    return new OrderItemSerializer((JsonSerializer<Object>) serializer);
+                }
+                return serializer;
+            }
+        });
+    }
+}
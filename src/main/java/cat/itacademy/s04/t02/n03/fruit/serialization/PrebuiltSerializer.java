@@ -0,0 +1,78 @@
+package cat.itacademy.s04.t02.n03.fruit.serialization;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Base of the hand-written DTO serializers. They write the DTO field by field, but keep the bean serializer
+ * Jackson built for the type and hand it every value they cannot render the same way: those filtered by a
+ * {@code fields=} selection, and all of them on a mapper whose naming strategy or inclusion rules differ from
+ * the defaults the hand-written path assumes.
+ */
+abstract class PrebuiltSerializer<T> extends StdSerializer<T> implements ContextualSerializer, ResolvableSerializer {
+
+    protected final JsonSerializer<Object> beanSerializer;
+    private final String filterId;
+    private boolean defaultConfig;
+
+    protected PrebuiltSerializer(Class<T> type, JsonSerializer<Object> beanSerializer, String filterId) {
+        super(type);
+        this.beanSerializer = beanSerializer;
+        this.filterId = filterId;
+    }
+
+    protected abstract PrebuiltSerializer<T> withBeanSerializer(JsonSerializer<Object> beanSerializer);
+
+    protected abstract void serializeFields(T value, JsonGenerator gen, SerializerProvider provider) throws IOException;
+
+    @Override
+    public void serialize(T value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        if (!defaultConfig || filtered(value, provider)) {
+            beanSerializer.serialize(value, gen, provider);
+            return;
+        }
+        gen.writeStartObject(value);
+        serializeFields(value, gen, provider);
+        gen.writeEndObject();
+    }
+
+    @Override
+    public void resolve(SerializerProvider provider) throws JsonMappingException {
+        if (beanSerializer instanceof ResolvableSerializer resolvable) {
+            resolvable.resolve(provider);
+        }
+        SerializationConfig config = provider.getConfig();
+        JsonInclude.Include inclusion = config.getDefaultPropertyInclusion(handledType()).getValueInclusion();
+        defaultConfig = config.getPropertyNamingStrategy() == null
+                && (inclusion == JsonInclude.Include.ALWAYS || inclusion == JsonInclude.Include.USE_DEFAULTS);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public JsonSerializer<?> createContextual(SerializerProvider provider, BeanProperty property)
+            throws JsonMappingException {
+        JsonSerializer<?> contextual = provider.handleSecondaryContextualization(beanSerializer, property);
+        if (contextual == beanSerializer) {
+            return this;
+        }
+        PrebuiltSerializer<T> copy = withBeanSerializer((JsonSerializer<Object>) contextual);
+        copy.defaultConfig = defaultConfig;
+        return copy;
+    }
+
+    private boolean filtered(T value, SerializerProvider provider) {
+        FilterProvider filters = provider.getFilterProvider();
+        return filters != null && filters.findPropertyFilter(filterId, value) != null;
+    }
+}
@@ -0,0 +1,14 @@
+package cat.itacademy.s04.t02.n03.fruit.services;
+
+import cat.itacademy.s04.t02.n03.fruit.dto.DailyDemandDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.DemandVerificationDTO;
+import cat.itacademy.s04.t02.n03.fruit.model.Order;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+public interface DailyDemandService {
+    void recordChanges(Collection<Order> removed, Collection<Order> added);
+    DailyDemandDTO getDailyDemand(LocalDate deliveryDate);
+    DemandVerificationDTO verify(boolean repair);
+}
@@ -0,0 +1,10 @@
+package cat.itacademy.s04.t02.n03.fruit.services;
+
+import cat.itacademy.s04.t02.n03.fruit.model.OrderItem;
+
+public interface FruitCatalogService {
+    int codeOf(String fruitName);
+    Integer findCode(String fruitName);
+    String nameOf(int fruitCode);
+    String nameOf(OrderItem item);
+}
@@ -0,0 +1,115 @@
+package cat.itacademy.s04.t02.n03.fruit.services;
+
+import cat.itacademy.s04.t02.n03.fruit.config.FruitCatalogProperties;
+import cat.itacademy.s04.t02.n03.fruit.exception.FruitCatalogFullException;
+import cat.itacademy.s04.t02.n03.fruit.model.Fruit;
+import cat.itacademy.s04.t02.n03.fruit.model.OrderItem;
+import cat.itacademy.s04.t02.n03.fruit.repository.FruitRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Code/name dictionary for the fruit catalog. The whole catalog is loaded on startup and codes are never
+ * reassigned, so lookups of known fruits are answered from memory. The database is read for a name or code
+ * this instance has not seen, when a fruit is registered, and by the periodic refresh that picks up fruits
+ * registered by other instances. Fruits are registered on first use, up to {@code max-size}; beyond it an unknown fruit is
+ * rejected, so client-supplied names cannot grow the catalog without bound.
+ */
+@Slf4j
+@Service
+public class FruitCatalogServiceImpl implements FruitCatalogService {
+
+    private final FruitRepository fruitRepository;
+    private final FruitCatalogProperties properties;
+
+    private final Map<String, Integer> codesByName = new ConcurrentHashMap<>();
+    private final Map<Integer, String> namesByCode = new ConcurrentHashMap<>();
+
+    public FruitCatalogServiceImpl(FruitRepository fruitRepository, FruitCatalogProperties properties) {
+        this.fruitRepository = fruitRepository;
+        this.properties = properties;
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${orders.fruit-catalog.refresh-interval:1m}",
+            initialDelayString = "${orders.fruit-catalog.refresh-interval:1m}")
+    public void refresh() {
+        fruitRepository.findAll().forEach(this::remember);
+    }
+
+    @Override
+    public int codeOf(String fruitName) {
+        Integer code = codesByName.get(fruitName);
+        return code != null ? code : register(fruitName);
+    }
+
+    /**
+     * Returns {@code null} for a fruit that is not in the catalog. A name this instance has not seen is looked
+     * up by the indexed name once, since another instance may have registered it since the last refresh.
+     */
+    @Override
+    public Integer findCode(String fruitName) {
+        Integer code = codesByName.get(fruitName);
+        if (code != null) {
+            return code;
+        }
+        return fruitRepository.findByName(fruitName)
+                .map(this::remember)
+                .orElse(null);
+    }
+
+    // A code comes from a stored order, so a miss is a fruit registered elsewhere since the last refresh
+    @Override
+    public String nameOf(int fruitCode) {
+        String name = namesByCode.get(fruitCode);
+        if (name != null) {
+            return name;
+        }
+        return fruitRepository.findById(fruitCode)
+                .map(fruit -> {
+                    remember(fruit);
+                    return fruit.getName();
+                })
+                .orElseThrow(() -> new IllegalStateException("Unknown fruit code: " + fruitCode));
+    }
+
+    @Override
+    public String nameOf(OrderItem item) {
+        return item.getFruitCode() != null ? nameOf(item.getFruitCode()) : item.getFruitName();
+    }
+
+    private int register(String fruitName) {
+        while (true) {
+            Optional<Fruit> existing = fruitRepository.findByName(fruitName);
+            if (existing.isPresent()) {
+                return remember(existing.get());
+            }
+            if (namesByCode.size() >= properties.getMaxSize()) {
+                throw new FruitCatalogFullException(fruitName, properties.getMaxSize());
+            }
+
+            int nextCode = fruitRepository.findTopByOrderByCodeDesc()
+                    .map(fruit -> fruit.getCode() + 1)
+                    .orElse(1);
+            try {
+                Fruit fruit = fruitRepository.insert(new Fruit(nextCode, fruitName));
+                log.info("Registered fruit '{}' with code {}", fruitName, nextCode);
+                return remember(fruit);
+            } catch (DuplicateKeyException ex) {
+                // another writer took this code or registered the same name first
+            }
+        }
+    }
+
+    private int remember(Fruit fruit) {
+        codesByName.put(fruit.getName(), fruit.getCode());
+        namesByCode.put(fruit.getCode(), fruit.getName());
+        return fruit.getCode();
+    }
+}
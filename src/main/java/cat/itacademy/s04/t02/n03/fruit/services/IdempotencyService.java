@@ -0,0 +1,8 @@
+package cat.itacademy.s04.t02.n03.fruit.services;
+
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderRequestDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderResponseDTO;
+
+public interface IdempotencyService {
+    OrderResponseDTO createOrder(String idempotencyKey, OrderRequestDTO orderRequestDTO);
+}
@@ -0,0 +1,174 @@
+package cat.itacademy.s04.t02.n03.fruit.services;
+
+import cat.itacademy.s04.t02.n03.fruit.config.CacheConfig;
+import cat.itacademy.s04.t02.n03.fruit.config.IdempotencyProperties;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderRequestDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderResponseDTO;
+import cat.itacademy.s04.t02.n03.fruit.exception.IdempotencyKeyInProgressException;
+import cat.itacademy.s04.t02.n03.fruit.exception.IdempotencyKeyMismatchException;
+import cat.itacademy.s04.t02.n03.fruit.model.IdempotencyRecord;
+import cat.itacademy.s04.t02.n03.fruit.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs {@code createOrder} at most once per key. Completed outcomes are read from a near cache, then from
+ * the {@code idempotency_keys} collection. Requests racing on the same key in this instance wait for the
+ * first one; across instances the unique key in MongoDB decides which request creates the order, and the
+ * others poll for its outcome for at most {@code pendingTimeout}.
+ */
+@Service
+@RequiredArgsConstructor
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(50);
+
+    private final OrderService orderService;
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final CacheManager cacheManager;
+    private final ObjectMapper objectMapper;
+    private final IdempotencyProperties properties;
+
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    @Override
+    public OrderResponseDTO createOrder(String idempotencyKey, OrderRequestDTO orderRequestDTO) {
+        String requestHash = fingerprint(orderRequestDTO);
+
+        IdempotencyRecord cached = nearCache().get(idempotencyKey, IdempotencyRecord.class);
+        if (cached != null) {
+            return replay(cached, requestHash);
+        }
+
+        InFlight execution = new InFlight(requestHash, new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(idempotencyKey, execution);
+        if (running != null) {
+            if (!running.requestHash().equals(requestHash)) {
+                throw new IdempotencyKeyMismatchException(idempotencyKey);
+            }
+            return await(running.result());
+        }
+
+        try {
+            OrderResponseDTO response = claimOrReplay(idempotencyKey, requestHash, orderRequestDTO);
+            execution.result().complete(response);
+            return response;
+        } catch (RuntimeException ex) {
+            execution.result().completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(idempotencyKey, execution);
+        }
+    }
+
+    private OrderResponseDTO claimOrReplay(String key, String requestHash, OrderRequestDTO orderRequestDTO) {
+        long deadline = System.nanoTime() + properties.getPendingTimeout().toNanos();
+        while (true) {
+            if (claim(key, requestHash)) {
+                return create(key, requestHash, orderRequestDTO);
+            }
+
+            Optional<IdempotencyRecord> existing = idempotencyRecordRepository.findById(key);
+            if (existing.isPresent()) {
+                IdempotencyRecord record = existing.get();
+                if (record.getResponse() != null) {
+                    nearCache().put(key, record);
+                    return replay(record, requestHash);
+                }
+                if (!record.getRequestHash().equals(requestHash)) {
+                    throw new IdempotencyKeyMismatchException(key);
+                }
+                if (System.nanoTime() - deadline > 0) {
+                    throw new IdempotencyKeyInProgressException(key);
+                }
+                pause(key);
+            }
+            // Otherwise the request holding the key failed and released it: try to claim it again
+        }
+    }
+
+    private boolean claim(String key, String requestHash) {
+        try {
+            idempotencyRecordRepository.insert(new IdempotencyRecord(key, requestHash, null,
+                    Instant.now().plus(properties.getPendingTimeout())));
+            return true;
+        } catch (DuplicateKeyException ex) {
+            return false;
+        }
+    }
+
+    private OrderResponseDTO create(String key, String requestHash, OrderRequestDTO orderRequestDTO) {
+        OrderResponseDTO response;
+        try {
+            response = orderService.createOrder(orderRequestDTO);
+        } catch (RuntimeException ex) {
+            idempotencyRecordRepository.deleteById(key);
+            throw ex;
+        }
+
+        IdempotencyRecord completed = new IdempotencyRecord(key, requestHash, response,
+                Instant.now().plus(properties.getTtl()));
+        idempotencyRecordRepository.save(completed);
+        nearCache().put(key, completed);
+        return response;
+    }
+
+    private OrderResponseDTO replay(IdempotencyRecord record, String requestHash) {
+        if (!record.getRequestHash().equals(requestHash)) {
+            throw new IdempotencyKeyMismatchException(record.getKey());
+        }
+        return record.getResponse();
+    }
+
+    private Cache nearCache() {
+        return cacheManager.getCache(CacheConfig.IDEMPOTENCY_CACHE);
+    }
+
+    private String fingerprint(OrderRequestDTO orderRequestDTO) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(orderRequestDTO)));
+        } catch (JsonProcessingException | NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("Order request could not be fingerprinted", ex);
+        }
+    }
+
+    private static void pause(String key) {
+        try {
+            Thread.sleep(POLL_INTERVAL);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInProgressException(key);
+        }
+    }
+
+    private static OrderResponseDTO await(CompletableFuture<OrderResponseDTO> result) {
+        try {
+            return result.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private record InFlight(String requestHash, CompletableFuture<OrderResponseDTO> result) {
+    }
+}
@@ -0,0 +1,337 @@
+package cat.itacademy.s04.t02.n03.fruit.services;
+
+import cat.itacademy.s04.t02.n03.fruit.config.OrderStreamProperties;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderChangeDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderResponseDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process fan-out of order changes to the subscribers of {@code GET /orders/stream}. A change is
+ * serialised once, into an SSE frame shared by every subscriber, so a write costs one serialisation and one
+ * queue offer per subscriber and never a read per client.
+ * <p>
+ * On the servlet stack each subscriber has a bounded queue drained by its own virtual thread, which sends a
+ * heartbeat comment whenever the queue stays empty for {@code heartbeat-interval}. On the reactive stack the
+ * queue is a bounded unicast sink drained by the response, with a heartbeat every {@code heartbeat-interval}.
+ * A subscriber whose queue is full is evicted:
+ * its stream is completed and the client reconnects with {@code Last-Event-ID}, served from a ring buffer of
+ * the last {@code replay-buffer-size} changes. Event ids are {@code <epoch>-<sequence>}, the epoch changing
+ * with every start; an id from another epoch or older than the ring buffer gets a {@code resync} event, telling
+ * the client to reload the orders it shows.
+ */
+@Slf4j
+@Component
+public class OrderChangeBus implements SmartLifecycle {
+
+    public static final String SUBSCRIBERS_METRIC = "orders.stream.subscribers";
+    public static final String EVICTIONS_METRIC = "orders.stream.evictions";
+    static final String RESYNC_EVENT = "resync";
+
+    private static final Set<DataWithMediaType> HEARTBEAT = SseEmitter.event().comment("heartbeat").build();
+    private static final ServerSentEvent<String> HEARTBEAT_EVENT = ServerSentEvent.<String>builder()
+            .comment("heartbeat")
+            .build();
+
+    private final ObjectMapper objectMapper;
+    private final OrderStreamProperties properties;
+    private final Counter evictions;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock publishLock = new ReentrantLock();
+    private final ChangeEvent[] recent;
+    private long sequence;
+
+    private volatile boolean running;
+
+    public OrderChangeBus(ObjectMapper objectMapper, OrderStreamProperties properties, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.recent = new ChangeEvent[properties.getReplayBufferSize()];
+        this.evictions = meterRegistry.counter(EVICTIONS_METRIC);
+        meterRegistry.gaugeCollectionSize(SUBSCRIBERS_METRIC, Tags.empty(), subscribers);
+    }
+
+    public void publish(OrderChangeDTO.Type type, OrderResponseDTO order) {
+        publish(new OrderChangeDTO(type, order.getId(), order.getVersion(), order));
+    }
+
+    public void publishDeleted(String id, Long version) {
+        publish(new OrderChangeDTO(OrderChangeDTO.Type.DELETED, id, version, null));
+    }
+
+    /**
+     * Opens a stream of the changes published from now on, preceded by those after {@code lastEventId} when
+     * the ring buffer still holds them.
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        return subscribe(lastEventId, new SseEmitter(properties.getTimeout().toMillis()));
+    }
+
+    SseEmitter subscribe(String lastEventId, SseEmitter emitter) {
+        EmitterSubscriber subscriber = new EmitterSubscriber(emitter,
+                new ArrayBlockingQueue<>(properties.getSubscriberBufferSize()));
+        List<ChangeEvent> backlog = register(lastEventId, subscriber);
+
+        emitter.onTimeout(emitter::complete);
+        emitter.onCompletion(subscriber::close);
+        emitter.onError(ex -> subscriber.close());
+        subscriber.thread = Thread.ofVirtual().name("order-stream").start(() -> deliver(subscriber, backlog));
+        return emitter;
+    }
+
+    /**
+     * Reactive counterpart of {@link #subscribe(String)}: the stream completes when the subscriber is evicted,
+     * after {@code timeout} or on shutdown, and the client reconnects with {@code Last-Event-ID}.
+     */
+    public Flux<ServerSentEvent<String>> subscribeFlux(String lastEventId) {
+        return Flux.defer(() -> {
+            SinkSubscriber subscriber = new SinkSubscriber(Sinks.many().unicast()
+                    .onBackpressureBuffer(new ArrayBlockingQueue<>(properties.getSubscriberBufferSize())));
+            List<ChangeEvent> backlog = register(lastEventId, subscriber);
+
+            Flux<ServerSentEvent<String>> changes = Flux.fromIterable(backlog)
+                    .concatWith(subscriber.events.asFlux())
+                    .map(ChangeEvent::event);
+            Flux<ServerSentEvent<String>> heartbeats = Flux.interval(properties.getHeartbeatInterval())
+                    .map(tick -> HEARTBEAT_EVENT);
+
+            return Flux.merge(changes, heartbeats)
+                    .takeUntilOther(subscriber.done.asMono())
+                    .take(properties.getTimeout())
+                    .doFinally(signal -> subscribers.remove(subscriber));
+        });
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    /**
+     * Completes every open stream, so they do not hold up the graceful shutdown of the web server.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        publishLock.lock();
+        try {
+            subscribers.forEach(Subscriber::complete);
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void publish(OrderChangeDTO change) {
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(change);
+        } catch (JsonProcessingException ex) {
+            log.warn("Order change {} {} could not be serialised for the stream", change.getType(), change.getId(), ex);
+            return;
+        }
+
+        publishLock.lock();
+        try {
+            long next = ++sequence;
+            ChangeEvent event = ChangeEvent.of(eventId(next), change.getType().name().toLowerCase(Locale.ROOT), data);
+            recent[(int) (next % recent.length)] = event;
+
+            for (Subscriber subscriber : subscribers) {
+                if (!subscriber.offer(event)) {
+                    evict(subscriber);
+                }
+            }
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    private List<ChangeEvent> register(String lastEventId, Subscriber subscriber) {
+        publishLock.lock();
+        try {
+            List<ChangeEvent> backlog = backlog(lastEventId);
+            subscribers.add(subscriber);
+            return backlog;
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    // Called with the publish lock held, so no event can slip between the backlog and the queue
+    private List<ChangeEvent> backlog(String lastEventId) {
+        if (lastEventId == null) {
+            return List.of();
+        }
+
+        long last = parseSequence(lastEventId);
+        if (last < 0 || last > sequence || sequence - last > recent.length) {
+            return List.of(ChangeEvent.of(eventId(sequence), RESYNC_EVENT, ""));
+        }
+
+        List<ChangeEvent> backlog = new ArrayList<>((int) (sequence - last));
+        for (long next = last + 1; next <= sequence; next++) {
+            backlog.add(recent[(int) (next % recent.length)]);
+        }
+        return backlog;
+    }
+
+    private void evict(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+        subscriber.evict();
+        evictions.increment();
+    }
+
+    private void deliver(EmitterSubscriber subscriber, List<ChangeEvent> backlog) {
+        long heartbeatNanos = properties.getHeartbeatInterval().toNanos();
+        try {
+            for (ChangeEvent event : backlog) {
+                subscriber.emitter.send(event.frame());
+            }
+            while (!subscriber.closed) {
+                if (subscriber.evicted) {
+                    subscriber.emitter.complete();
+                    return;
+                }
+                ChangeEvent event = subscriber.queue.poll(heartbeatNanos, TimeUnit.NANOSECONDS);
+                subscriber.emitter.send(event != null ? event.frame() : HEARTBEAT);
+            }
+        } catch (IOException | IllegalStateException ex) {
+            // The client went away or the stream was completed meanwhile, the emitter callbacks clean up
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            subscribers.remove(subscriber);
+        }
+    }
+
+    private String eventId(long eventSequence) {
+        return epoch + "-" + eventSequence;
+    }
+
+    private long parseSequence(String eventId) {
+        int separator = eventId.lastIndexOf('-');
+        if (separator < 0 || !eventId.substring(0, separator).equals(epoch)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(separator + 1));
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    // Built once per change for both stacks, whichever of them is serving subscribers
+    private record ChangeEvent(Set<DataWithMediaType> frame, ServerSentEvent<String> event) {
+
+        private static ChangeEvent of(String id, String name, String data) {
+            return new ChangeEvent(
+                    SseEmitter.event().id(id).name(name).data(data).build(),
+                    ServerSentEvent.builder(data).id(id).event(name).build());
+        }
+    }
+
+    // offer, evict and complete are called with the publish lock held
+    private interface Subscriber {
+
+        boolean offer(ChangeEvent event);
+
+        void evict();
+
+        void complete();
+    }
+
+    private static final class EmitterSubscriber implements Subscriber {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<ChangeEvent> queue;
+        private volatile boolean evicted;
+        private volatile boolean closed;
+        private volatile Thread thread;
+
+        private EmitterSubscriber(SseEmitter emitter, BlockingQueue<ChangeEvent> queue) {
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+
+        @Override
+        public boolean offer(ChangeEvent event) {
+            return queue.offer(event);
+        }
+
+        @Override
+        public void evict() {
+            evicted = true;
+        }
+
+        @Override
+        public void complete() {
+            emitter.complete();
+        }
+
+        private void close() {
+            closed = true;
+            Thread delivering = thread;
+            if (delivering != null) {
+                delivering.interrupt();
+            }
+        }
+    }
+
+    private static final class SinkSubscriber implements Subscriber {
+
+        private final Sinks.Many<ChangeEvent> events;
+        private final Sinks.Empty<Void> done = Sinks.empty();
+
+        private SinkSubscriber(Sinks.Many<ChangeEvent> events) {
+            this.events = events;
+        }
+
+        @Override
+        public boolean offer(ChangeEvent event) {
+            return events.tryEmitNext(event).isSuccess();
+        }
+
+        @Override
+        public void evict() {
+            complete();
+        }
+
+        @Override
+        public void complete() {
+            done.tryEmitEmpty();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package cat.itacademy.s04.t02.n03.fruit.services;
+
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderMigrationReportDTO;
+
+public interface OrderMigrationService {
+    OrderMigrationReportDTO migrateLegacyOrders();
+    long countLegacyOrders();
+    boolean hasLegacyOrders();
+}
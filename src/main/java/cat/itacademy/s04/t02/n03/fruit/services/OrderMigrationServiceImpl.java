@@ -0,0 +1,136 @@
+package cat.itacademy.s04.t02.n03.fruit.services;
+
+import cat.itacademy.s04.t02.n03.fruit.config.OrderMigrationProperties;
+import cat.itacademy.s04.t02.n03.fruit.dto.CollectionSizeDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderMigrationReportDTO;
+import cat.itacademy.s04.t02.n03.fruit.model.Order;
+import cat.itacademy.s04.t02.n03.fruit.model.OrderItem;
+import cat.itacademy.s04.t02.n03.fruit.repository.OrderLayoutState;
+import cat.itacademy.s04.t02.n03.fruit.repository.OrderRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service
+public class OrderMigrationServiceImpl implements OrderMigrationService {
+
+    public static final String LEGACY_ORDERS_METRIC = "orders.migration.legacy.orders";
+
+    static final List<String> LEGACY_INDEXES = List.of("deliveryDate_id", "clientName_deliveryDate_id",
+            "fruitCode_deliveryDate_id", "fruitName_deliveryDate_id");
+
+    private final OrderRepository orderRepository;
+    private final FruitCatalogService fruitCatalog;
+    private final OrderMigrationProperties properties;
+    private final OrderLayoutState layoutState;
+
+    private final ReentrantLock migrationLock = new ReentrantLock();
+
+    public OrderMigrationServiceImpl(OrderRepository orderRepository, FruitCatalogService fruitCatalog,
+                                     OrderMigrationProperties properties, OrderLayoutState layoutState,
+                                     MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.fruitCatalog = fruitCatalog;
+        this.properties = properties;
+        this.layoutState = layoutState;
+        Gauge.builder(LEGACY_ORDERS_METRIC, layoutState,
+                        state -> state.getLegacyOrders() == OrderLayoutState.UNKNOWN ? Double.NaN : state.getLegacyOrders())
+                .description("Orders still stored in a legacy layout")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Rewrites every order still stored in a legacy layout. Orders updated concurrently are skipped by
+     * the version guard and were already rewritten by that update. The legacy indexes are only dropped
+     * once no legacy document is left. Progress is published as {@value #LEGACY_ORDERS_METRIC}, and a
+     * migration interrupted between batches stops there, to be resumed by the next run.
+     */
+    @Override
+    public OrderMigrationReportDTO migrateLegacyOrders() {
+        migrationLock.lock();
+        try {
+            CollectionSizeDTO before = orderRepository.measureSize();
+            long migrated = countLegacyOrders() > 0 ? rewriteLegacyOrders() : 0;
+
+            if (countLegacyOrders() == 0 && properties.isDropLegacyIndexes()) {
+                for (String index : LEGACY_INDEXES) {
+                    if (orderRepository.dropIndex(index)) {
+                        log.info("Dropped legacy index {}", index);
+                    }
+                }
+            }
+
+            CollectionSizeDTO after = orderRepository.measureSize();
+            return new OrderMigrationReportDTO(migrated, before, after);
+        } finally {
+            migrationLock.unlock();
+        }
+    }
+
+    /**
+     * Counts the orders still stored in a legacy layout. Queries stop reading that layout once a count
+     * has reached zero.
+     */
+    @Override
+    public long countLegacyOrders() {
+        long count = orderRepository.countLegacyLayout();
+        layoutState.setLegacyOrders(count);
+        return count;
+    }
+
+    @Override
+    public boolean hasLegacyOrders() {
+        return layoutState.hasLegacyOrders();
+    }
+
+    private long rewriteLegacyOrders() {
+        long migrated = 0;
+        int batchSize = properties.getBatchSize();
+        try (Stream<Order> legacyOrderStream = orderRepository.streamLegacyLayout(batchSize)) {
+            List<Order> batch = new ArrayList<>(batchSize);
+            Iterator<Order> iterator = legacyOrderStream.iterator();
+            while (iterator.hasNext() && !Thread.currentThread().isInterrupted()) {
+                batch.add(encode(iterator.next()));
+                if (batch.size() == batchSize) {
+                    migrated += rewrite(batch);
+                }
+            }
+            migrated += rewrite(batch);
+        }
+
+        if (Thread.currentThread().isInterrupted()) {
+            log.info("Order layout migration stopped after rewriting {} orders", migrated);
+        }
+        return migrated;
+    }
+
+    // Orders the version guard skipped were rewritten by a concurrent update, so none of the batch is left.
+    // The estimate never reaches zero: only a count may switch queries to the compact layout alone
+    private long rewrite(List<Order> batch) {
+        long rewritten = orderRepository.rewriteInCurrentLayout(batch);
+        long left = Math.max(1, layoutState.getLegacyOrders() - batch.size());
+        layoutState.setLegacyOrders(left);
+        log.debug("Order layout migration rewrote {} orders, about {} left", rewritten, left);
+        batch.clear();
+        return rewritten;
+    }
+
+    private Order encode(Order order) {
+        List<OrderItem> legacyItems = order.getItems() != null ? order.getItems() : List.of();
+        List<OrderItem> items = new ArrayList<>(legacyItems.size());
+        for (OrderItem item : legacyItems) {
+            int fruitCode = item.getFruitCode() != null ? item.getFruitCode() : fruitCatalog.codeOf(item.getFruitName());
+            items.add(new OrderItem(fruitCode, item.getQuantityInKilos()));
+        }
+        order.setItems(items);
+        return order;
+    }
+}
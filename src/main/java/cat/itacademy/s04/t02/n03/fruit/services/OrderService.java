@@ -1,14 +1,29 @@
 package cat.itacademy.s04.t02.n03.fruit.services;
 
+import cat.itacademy.s04.t02.n03.fruit.dto.ClientDemandDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.FruitDemandDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderBatchResultDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderPageDTO;
 import cat.itacademy.s04.t02.n03.fruit.dto.OrderRequestDTO;
 import cat.itacademy.s04.t02.n03.fruit.dto.OrderResponseDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderSummaryPageDTO;
+import cat.itacademy.s04.t02.n03.fruit.pagination.OrderFieldSelection;
+import cat.itacademy.s04.t02.n03.fruit.repository.OrderFilter;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface OrderService {
     OrderResponseDTO createOrder(OrderRequestDTO orderRequestDTO);
-    List<OrderResponseDTO> getAllOrders();
+    OrderBatchResultDTO createOrders(List<OrderRequestDTO> orderRequestDTOs);
+    OrderPageDTO getOrdersPage(OrderFilter filter, String cursor, Integer size, String sort);
+    OrderPageDTO getOrdersPage(OrderFilter filter, String cursor, Integer size, String sort, OrderFieldSelection fields);
+    OrderSummaryPageDTO getOrderSummariesPage(OrderFilter filter, String cursor, Integer size, String sort);
+    Stream<OrderResponseDTO> streamAllOrders();
     OrderResponseDTO getOrderById(String id);
-    OrderResponseDTO updateOrder(String id, OrderRequestDTO orderRequestDTO);
-    void deleteOrder(String id);
+    OrderResponseDTO getOrderById(String id, OrderFieldSelection fields);
+    OrderResponseDTO updateOrder(String id, OrderRequestDTO orderRequestDTO, List<Long> expectedVersions);
+    void deleteOrder(String id, List<Long> expectedVersions);
+    List<FruitDemandDTO> getFruitDemand(OrderFilter filter);
+    List<ClientDemandDTO> getClientDemand(OrderFilter filter);
 }
\ No newline at end of file
@@ -1,43 +1,205 @@
 package cat.itacademy.s04.t02.n03.fruit.services;
 
+import cat.itacademy.s04.t02.n03.fruit.config.CacheConfig;
+import cat.itacademy.s04.t02.n03.fruit.config.OrderBatchProperties;
+import cat.itacademy.s04.t02.n03.fruit.config.OrderPaginationProperties;
+import cat.itacademy.s04.t02.n03.fruit.config.OrderWriteBehindProperties;
+import cat.itacademy.s04.t02.n03.fruit.dto.ClientDemandDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderChangeDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.FruitDemandDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderBatchItemResultDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderBatchResultDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderPageDTO;
 import cat.itacademy.s04.t02.n03.fruit.dto.OrderRequestDTO;
 import cat.itacademy.s04.t02.n03.fruit.dto.OrderResponseDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderSummaryDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderSummaryPageDTO;
+import cat.itacademy.s04.t02.n03.fruit.exception.FruitCatalogFullException;
+import cat.itacademy.s04.t02.n03.fruit.exception.InvalidBatchRequestException;
+import cat.itacademy.s04.t02.n03.fruit.exception.InvalidPageRequestException;
 import cat.itacademy.s04.t02.n03.fruit.exception.OrderNotFoundException;
+import cat.itacademy.s04.t02.n03.fruit.exception.OrderQueueFullException;
+import cat.itacademy.s04.t02.n03.fruit.exception.PreconditionFailedException;
 import cat.itacademy.s04.t02.n03.fruit.mapper.OrderMapper;
 import cat.itacademy.s04.t02.n03.fruit.model.Order;
+import cat.itacademy.s04.t02.n03.fruit.pagination.OrderCursor;
+import cat.itacademy.s04.t02.n03.fruit.pagination.OrderFieldSelection;
+import cat.itacademy.s04.t02.n03.fruit.pagination.OrderSortField;
+import cat.itacademy.s04.t02.n03.fruit.repository.OrderFilter;
 import cat.itacademy.s04.t02.n03.fruit.repository.OrderRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class OrderServiceImpl implements OrderService {
 
+    public static final String ORDERS_CACHE = "orders";
+
     private final OrderRepository orderRepository;
     private final OrderMapper orderMapper;
+    private final OrderPaginationProperties paginationProperties;
+    private final OrderBatchProperties batchProperties;
+    private final Validator validator;
+    private final DailyDemandService dailyDemandService;
+    private final OrderWriteBehindQueue writeBehindQueue;
+    private final OrderWriteBehindProperties writeBehindProperties;
+    private final OrderChangeBus orderChangeBus;
 
     @Override
     public OrderResponseDTO createOrder(OrderRequestDTO orderRequestDTO) {
         Order order = orderMapper.toEntity(orderRequestDTO);
 
+        if (writeBehindQueue.isRunning()) {
+            order.setId(new ObjectId().toHexString());
+            order.setVersion(0L);
+            return created(await(writeBehindQueue.submit(order)));
+        }
+
         Order savedOrder = orderRepository.save(order);
+        dailyDemandService.recordChanges(List.of(), List.of(savedOrder));
+
+        return created(savedOrder);
+    }
+
+    @Override
+    public OrderBatchResultDTO createOrders(List<OrderRequestDTO> orderRequestDTOs) {
+        if (orderRequestDTOs == null || orderRequestDTOs.isEmpty()) {
+            throw new InvalidBatchRequestException("At least one order is required");
+        }
+        if (orderRequestDTOs.size() > batchProperties.getMaxItems()) {
+            throw new InvalidBatchRequestException(
+                    "A batch cannot contain more than " + batchProperties.getMaxItems() + " orders");
+        }
+
+        OrderBatchItemResultDTO[] results = new OrderBatchItemResultDTO[orderRequestDTOs.size()];
+        List<Integer> pendingIndexes = new ArrayList<>();
+        List<Order> pendingOrders = new ArrayList<>();
+
+        for (int i = 0; i < orderRequestDTOs.size(); i++) {
+            String error = validate(orderRequestDTOs.get(i));
+            if (error != null) {
+                results[i] = new OrderBatchItemResultDTO(i, null, error);
+                continue;
+            }
 
-        return orderMapper.toResponseDTO(savedOrder);
+            Order order;
+            try {
+                order = orderMapper.toEntity(orderRequestDTOs.get(i));
+            } catch (FruitCatalogFullException ex) {
+                results[i] = new OrderBatchItemResultDTO(i, null, ex.getMessage());
+                continue;
+            }
+            order.setId(new ObjectId().toHexString());
+            order.setVersion(0L);
+            pendingIndexes.add(i);
+            pendingOrders.add(order);
+        }
+
+        int chunkSize = batchProperties.getChunkSize();
+        for (int start = 0; start < pendingOrders.size(); start += chunkSize) {
+            List<Order> chunk = pendingOrders.subList(start, Math.min(start + chunkSize, pendingOrders.size()));
+
+            Map<Integer, String> failures = insertChunk(chunk);
+            List<Order> inserted = new ArrayList<>();
+
+            for (int j = 0; j < chunk.size(); j++) {
+                int index = pendingIndexes.get(start + j);
+                String failure = failures.get(j);
+                if (failure == null) {
+                    inserted.add(chunk.get(j));
+                    results[index] = new OrderBatchItemResultDTO(index, chunk.get(j).getId(), null);
+                } else {
+                    results[index] = new OrderBatchItemResultDTO(index, null, failure);
+                }
+            }
+            dailyDemandService.recordChanges(List.of(), inserted);
+            inserted.forEach(this::created);
+        }
+
+        int created = (int) Arrays.stream(results).filter(result -> result.getId() != null).count();
+        return new OrderBatchResultDTO(created, results.length - created, Arrays.asList(results));
+    }
+
+    @Override
+    public OrderPageDTO getOrdersPage(OrderFilter filter, String cursor, Integer size, String sort) {
+        return getOrdersPage(filter, cursor, size, sort, null);
     }
 
     @Override
-    public List<OrderResponseDTO> getAllOrders() {
-        List<Order> orders = orderRepository.findAll();
+    public OrderPageDTO getOrdersPage(OrderFilter filter, String cursor, Integer size, String sort,
+                                      OrderFieldSelection fields) {
+        validateDateRange(filter);
 
-        return orders.stream()
+        OrderCursor after = cursor != null ? OrderCursor.decode(cursor) : null;
+        OrderSortField sortField = after != null ? after.getSortField() : OrderSortField.fromParam(sort);
+        int pageSize = resolvePageSize(size);
+
+        List<Order> orders = fields == null
+                ? orderRepository.findPage(filter, sortField, after, pageSize + 1)
+                : orderRepository.findProjectedPage(filter, sortField, after, pageSize + 1, fields.getFieldPaths());
+
+        boolean hasNext = orders.size() > pageSize;
+        List<Order> pageOrders = hasNext ? orders.subList(0, pageSize) : orders;
+        String nextCursor = hasNext
+                ? OrderCursor.after(pageOrders.get(pageSize - 1), sortField).encode()
+                : null;
+
+        List<OrderResponseDTO> content = pageOrders.stream()
                 .map(orderMapper::toResponseDTO)
                 .collect(Collectors.toList());
+
+        return new OrderPageDTO(content, nextCursor);
+    }
+
+    @Override
+    public OrderSummaryPageDTO getOrderSummariesPage(OrderFilter filter, String cursor, Integer size, String sort) {
+        validateDateRange(filter);
+
+        OrderCursor after = cursor != null ? OrderCursor.decode(cursor) : null;
+        OrderSortField sortField = after != null ? after.getSortField() : OrderSortField.fromParam(sort);
+        int pageSize = resolvePageSize(size);
+
+        List<OrderSummaryDTO> summaries = orderRepository.findSummaryPage(filter, sortField, after, pageSize + 1);
+
+        boolean hasNext = summaries.size() > pageSize;
+        List<OrderSummaryDTO> content = hasNext ? summaries.subList(0, pageSize) : summaries;
+        String nextCursor = null;
+        if (hasNext) {
+            OrderSummaryDTO last = content.get(pageSize - 1);
+            nextCursor = OrderCursor.after(last.getId(), last.getDeliveryDate(), sortField).encode();
+        }
+
+        return new OrderSummaryPageDTO(content, nextCursor);
+    }
+
+    @Override
+    public Stream<OrderResponseDTO> streamAllOrders() {
+        return orderRepository.streamAll()
+                .map(orderMapper::toResponseDTO);
     }
 
     @Override
+    @Cacheable(cacheNames = ORDERS_CACHE, key = "#id")
     public OrderResponseDTO getOrderById(String id) {
         Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new OrderNotFoundException(id));
@@ -46,24 +208,121 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
-    public OrderResponseDTO updateOrder(String id, OrderRequestDTO orderRequestDTO) {
-        orderRepository.findById(id)
+    public OrderResponseDTO getOrderById(String id, OrderFieldSelection fields) {
+        Order order = orderRepository.findProjectedById(id, fields.getFieldPaths())
                 .orElseThrow(() -> new OrderNotFoundException(id));
 
+        return orderMapper.toResponseDTO(order);
+    }
+
+    @Override
+    @CacheEvict(cacheNames = ORDERS_CACHE, key = "#id")
+    public OrderResponseDTO updateOrder(String id, OrderRequestDTO orderRequestDTO, List<Long> expectedVersions) {
         Order updatedOrder = orderMapper.toEntity(orderRequestDTO);
 
+        Order previousOrder = orderRepository.replaceAndGetPrevious(id, updatedOrder, expectedVersions)
+                .orElseThrow(() -> writeConflict(id, expectedVersions));
+
         updatedOrder.setId(id);
+        updatedOrder.setVersion(previousOrder.getVersion() == null ? 1L : previousOrder.getVersion() + 1);
+        dailyDemandService.recordChanges(List.of(previousOrder), List.of(updatedOrder));
+
+        OrderResponseDTO response = orderMapper.toResponseDTO(updatedOrder);
+        orderChangeBus.publish(OrderChangeDTO.Type.UPDATED, response);
+        return response;
+    }
 
-        Order savedOrder = orderRepository.save(updatedOrder);
+    @Override
+    @CacheEvict(cacheNames = ORDERS_CACHE, key = "#id")
+    public void deleteOrder(String id, List<Long> expectedVersions) {
+        Order removedOrder = orderRepository.removeAndGetPrevious(id, expectedVersions)
+                .orElseThrow(() -> writeConflict(id, expectedVersions));
 
-        return orderMapper.toResponseDTO(savedOrder);
+        dailyDemandService.recordChanges(List.of(removedOrder), List.of());
+        orderChangeBus.publishDeleted(id, removedOrder.getVersion());
     }
 
     @Override
-    public void deleteOrder(String id) {
-        Order order = orderRepository.findById(id)
-                .orElseThrow(() -> new OrderNotFoundException(id));
+    @Cacheable(cacheNames = CacheConfig.ORDER_STATS_CACHE, key = "{#root.methodName, #filter}")
+    public List<FruitDemandDTO> getFruitDemand(OrderFilter filter) {
+        validateDateRange(filter);
+        return orderRepository.aggregateFruitDemand(filter);
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.ORDER_STATS_CACHE, key = "{#root.methodName, #filter}")
+    public List<ClientDemandDTO> getClientDemand(OrderFilter filter) {
+        validateDateRange(filter);
+        return orderRepository.aggregateClientDemand(filter);
+    }
+
+    private void validateDateRange(OrderFilter filter) {
+        if (filter.getFrom() != null && filter.getTo() != null && filter.getFrom().isAfter(filter.getTo())) {
+            throw new InvalidPageRequestException("'from' must not be after 'to'");
+        }
+    }
+
+    private RuntimeException writeConflict(String id, List<Long> expectedVersions) {
+        if (expectedVersions != null && orderRepository.existsById(id)) {
+            return new PreconditionFailedException(id);
+        }
+        return new OrderNotFoundException(id);
+    }
+
+    private OrderResponseDTO created(Order order) {
+        OrderResponseDTO response = orderMapper.toResponseDTO(order);
+        orderChangeBus.publish(OrderChangeDTO.Type.CREATED, response);
+        return response;
+    }
+
+    // The order may still be stored after a timeout, since it cannot be taken back from its batch
+    private Order await(CompletableFuture<Order> pending) {
+        try {
+            return pending.get(writeBehindProperties.getAckTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            throw new OrderQueueFullException("Order was not acknowledged within "
+                    + writeBehindProperties.getAckTimeout() + ", retry later");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new OrderQueueFullException("Interrupted while waiting for the order to be stored");
+        }
+    }
+
+    private Map<Integer, String> insertChunk(List<Order> chunk) {
+        try {
+            return orderRepository.insertUnordered(chunk);
+        } catch (DataAccessException ex) {
+            return IntStream.range(0, chunk.size())
+                    .boxed()
+                    .collect(Collectors.toMap(i -> i, i -> "Order could not be stored: " + ex.getMessage()));
+        }
+    }
+
+    private String validate(OrderRequestDTO orderRequestDTO) {
+        if (orderRequestDTO == null) {
+            return "Order is required";
+        }
+
+        Set<ConstraintViolation<OrderRequestDTO>> violations = validator.validate(orderRequestDTO);
+        if (violations.isEmpty()) {
+            return null;
+        }
+
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
 
-        orderRepository.delete(order);
+    private int resolvePageSize(Integer size) {
+        if (size == null) {
+            return paginationProperties.getDefaultSize();
+        }
+        return Math.max(1, Math.min(size, paginationProperties.getMaxSize()));
     }
 }
\ No newline at end of file
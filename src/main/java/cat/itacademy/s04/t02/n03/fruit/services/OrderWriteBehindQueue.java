@@ -0,0 +1,195 @@
+package cat.itacademy.s04.t02.n03.fruit.services;
+
+import cat.itacademy.s04.t02.n03.fruit.config.OrderWriteBehindProperties;
+import cat.itacademy.s04.t02.n03.fruit.exception.OrderQueueFullException;
+import cat.itacademy.s04.t02.n03.fruit.model.Order;
+import cat.itacademy.s04.t02.n03.fruit.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Group commit for single order creation. Callers enqueue an order and wait on its future, a single
+ * flusher thread inserts the queued orders with one unordered bulk insert per batch, once
+ * {@code maxBatchSize} orders are waiting or the oldest one has waited {@code maxWait}.
+ * <p>
+ * The queue is a lock-free linked queue bounded by a reservation counter: a full queue rejects the
+ * order instead of blocking the caller. Started only when {@code orders.write-behind.enabled} is set.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderWriteBehindQueue implements SmartLifecycle {
+
+    // Stopped after the web server has finished its in-flight requests, which may be waiting on a batch
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    private final OrderRepository orderRepository;
+    private final DailyDemandService dailyDemandService;
+    private final OrderWriteBehindProperties properties;
+
+    private final ConcurrentLinkedQueue<PendingOrder> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicInteger submitting = new AtomicInteger();
+
+    private volatile boolean running;
+    private volatile Thread flusher;
+
+    /**
+     * Enqueues an order whose id and version are already assigned. The future completes once the
+     * batch holding it is acknowledged by MongoDB.
+     */
+    public CompletableFuture<Order> submit(Order order) {
+        submitting.incrementAndGet();
+        try {
+            if (!running) {
+                throw new OrderQueueFullException("Order ingestion is shutting down");
+            }
+
+            int queued = size.incrementAndGet();
+            if (queued > properties.getQueueCapacity()) {
+                size.decrementAndGet();
+                throw new OrderQueueFullException("Too many orders waiting to be stored, retry later");
+            }
+
+            PendingOrder pending = new PendingOrder(order, new CompletableFuture<>(), System.nanoTime());
+            queue.offer(pending);
+            if (queued == 1 || queued == properties.getMaxBatchSize()) {
+                LockSupport.unpark(flusher);
+            }
+            return pending.result();
+        } finally {
+            submitting.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!properties.isEnabled() || running) {
+            return;
+        }
+
+        running = true;
+        flusher = Thread.ofPlatform().name("order-write-behind").daemon().start(this::flushLoop);
+        log.info("Order write-behind queue started: capacity {}, batches of up to {} orders every {}",
+                properties.getQueueCapacity(), properties.getMaxBatchSize(), properties.getMaxWait());
+    }
+
+    /**
+     * Stops accepting orders, then lets the flusher drain what is already queued.
+     */
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+
+        running = false;
+        while (submitting.get() > 0) {
+            Thread.onSpinWait();
+        }
+
+        Thread drainingFlusher = flusher;
+        LockSupport.unpark(drainingFlusher);
+        try {
+            if (!drainingFlusher.join(properties.getDrainTimeout())) {
+                log.warn("Order write-behind queue did not drain within {}", properties.getDrainTimeout());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        PendingOrder abandoned;
+        while ((abandoned = queue.poll()) != null) {
+            size.decrementAndGet();
+            abandoned.result().completeExceptionally(new OrderQueueFullException("Order ingestion is shutting down"));
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private void flushLoop() {
+        int maxBatchSize = properties.getMaxBatchSize();
+        long maxWaitNanos = properties.getMaxWait().toNanos();
+        List<PendingOrder> batch = new ArrayList<>(maxBatchSize);
+
+        while (running || !queue.isEmpty()) {
+            PendingOrder oldest = queue.peek();
+            if (oldest == null) {
+                LockSupport.parkNanos(this, TimeUnit.SECONDS.toNanos(1));
+                continue;
+            }
+
+            long deadline = oldest.enqueuedAt() + maxWaitNanos;
+            long remaining;
+            while (running && size.get() < maxBatchSize && (remaining = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, remaining);
+            }
+
+            PendingOrder next;
+            while (batch.size() < maxBatchSize && (next = queue.poll()) != null) {
+                batch.add(next);
+            }
+            size.addAndGet(-batch.size());
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    private void flush(List<PendingOrder> batch) {
+        List<Order> orders = batch.stream().map(PendingOrder::order).toList();
+
+        Map<Integer, String> failures;
+        try {
+            failures = orderRepository.insertUnordered(orders);
+        } catch (RuntimeException ex) {
+            batch.forEach(pending -> pending.result().completeExceptionally(ex));
+            return;
+        }
+
+        List<Order> inserted = new ArrayList<>(orders.size());
+        for (int i = 0; i < batch.size(); i++) {
+            String failure = failures.get(i);
+            if (failure == null) {
+                inserted.add(orders.get(i));
+            } else {
+                batch.get(i).result().completeExceptionally(
+                        new DataIntegrityViolationException("Order could not be stored: " + failure));
+            }
+        }
+
+        // The orders are stored: nothing thrown by the rollup update may fail them or stop the flusher
+        try {
+            dailyDemandService.recordChanges(List.of(), inserted);
+        } catch (RuntimeException ex) {
+            log.warn("Daily demand rollup update failed for a batch of {} orders", inserted.size(), ex);
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            if (!failures.containsKey(i)) {
+                batch.get(i).result().complete(orders.get(i));
+            }
+        }
+    }
+
+    private record PendingOrder(Order order, CompletableFuture<Order> result, long enqueuedAt) {
+    }
+}
@@ -0,0 +1,24 @@
+package cat.itacademy.s04.t02.n03.fruit.services;
+
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderPageDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderRequestDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderResponseDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderSummaryPageDTO;
+import cat.itacademy.s04.t02.n03.fruit.pagination.OrderFieldSelection;
+import cat.itacademy.s04.t02.n03.fruit.repository.OrderFilter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+public interface ReactiveOrderService {
+    Mono<OrderResponseDTO> createOrder(OrderRequestDTO orderRequestDTO);
+    Mono<OrderPageDTO> getOrdersPage(OrderFilter filter, String cursor, Integer size, String sort);
+    Mono<OrderPageDTO> getOrdersPage(OrderFilter filter, String cursor, Integer size, String sort, OrderFieldSelection fields);
+    Mono<OrderSummaryPageDTO> getOrderSummariesPage(OrderFilter filter, String cursor, Integer size, String sort);
+    Flux<OrderResponseDTO> streamAllOrders();
+    Mono<OrderResponseDTO> getOrderById(String id);
+    Mono<OrderResponseDTO> getOrderById(String id, OrderFieldSelection fields);
+    Mono<OrderResponseDTO> updateOrder(String id, OrderRequestDTO orderRequestDTO, List<Long> expectedVersions);
+    Mono<Void> deleteOrder(String id, List<Long> expectedVersions);
+}
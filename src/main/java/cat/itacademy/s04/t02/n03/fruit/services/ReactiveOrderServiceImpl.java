@@ -0,0 +1,194 @@
+package cat.itacademy.s04.t02.n03.fruit.services;
+
+import cat.itacademy.s04.t02.n03.fruit.config.OrderPaginationProperties;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderChangeDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderPageDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderRequestDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderResponseDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderSummaryDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderSummaryPageDTO;
+import cat.itacademy.s04.t02.n03.fruit.exception.InvalidPageRequestException;
+import cat.itacademy.s04.t02.n03.fruit.exception.OrderNotFoundException;
+import cat.itacademy.s04.t02.n03.fruit.exception.PreconditionFailedException;
+import cat.itacademy.s04.t02.n03.fruit.mapper.OrderMapper;
+import cat.itacademy.s04.t02.n03.fruit.model.Order;
+import cat.itacademy.s04.t02.n03.fruit.pagination.OrderCursor;
+import cat.itacademy.s04.t02.n03.fruit.pagination.OrderFieldSelection;
+import cat.itacademy.s04.t02.n03.fruit.pagination.OrderSortField;
+import cat.itacademy.s04.t02.n03.fruit.repository.OrderFilter;
+import cat.itacademy.s04.t02.n03.fruit.repository.ReactiveOrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveOrderServiceImpl implements ReactiveOrderService {
+
+    private final ReactiveOrderRepository orderRepository;
+    private final OrderMapper orderMapper;
+    private final OrderPaginationProperties paginationProperties;
+    private final DailyDemandService dailyDemandService;
+    private final OrderChangeBus orderChangeBus;
+
+    @Override
+    public Mono<OrderResponseDTO> createOrder(OrderRequestDTO orderRequestDTO) {
+        return toEntity(orderRequestDTO)
+                .flatMap(orderRepository::save)
+                .flatMap(savedOrder -> recordChanges(List.of(), List.of(savedOrder)).thenReturn(savedOrder))
+                .map(orderMapper::toResponseDTO)
+                .doOnNext(response -> orderChangeBus.publish(OrderChangeDTO.Type.CREATED, response));
+    }
+
+    @Override
+    public Mono<OrderPageDTO> getOrdersPage(OrderFilter filter, String cursor, Integer size, String sort) {
+        return getOrdersPage(filter, cursor, size, sort, null);
+    }
+
+    @Override
+    public Mono<OrderPageDTO> getOrdersPage(OrderFilter filter, String cursor, Integer size, String sort,
+                                            OrderFieldSelection fields) {
+        return withFruitLookup(filter, Mono.defer(() -> {
+            validateDateRange(filter);
+
+            OrderCursor after = cursor != null ? OrderCursor.decode(cursor) : null;
+            OrderSortField sortField = after != null ? after.getSortField() : OrderSortField.fromParam(sort);
+            int pageSize = resolvePageSize(size);
+
+            Flux<Order> orders = fields == null
+                    ? orderRepository.findPage(filter, sortField, after, pageSize + 1)
+                    : orderRepository.findProjectedPage(filter, sortField, after, pageSize + 1, fields.getFieldPaths());
+
+            return orders
+                    .collectList()
+                    .map(page -> {
+                        boolean hasNext = page.size() > pageSize;
+                        List<Order> pageOrders = hasNext ? page.subList(0, pageSize) : page;
+                        String nextCursor = hasNext
+                                ? OrderCursor.after(pageOrders.get(pageSize - 1), sortField).encode()
+                                : null;
+
+                        List<OrderResponseDTO> content = pageOrders.stream()
+                                .map(orderMapper::toResponseDTO)
+                                .collect(Collectors.toList());
+
+                        return new OrderPageDTO(content, nextCursor);
+                    });
+        }));
+    }
+
+    @Override
+    public Mono<OrderSummaryPageDTO> getOrderSummariesPage(OrderFilter filter, String cursor, Integer size, String sort) {
+        return withFruitLookup(filter, Mono.defer(() -> {
+            validateDateRange(filter);
+
+            OrderCursor after = cursor != null ? OrderCursor.decode(cursor) : null;
+            OrderSortField sortField = after != null ? after.getSortField() : OrderSortField.fromParam(sort);
+            int pageSize = resolvePageSize(size);
+
+            return orderRepository.findSummaryPage(filter, sortField, after, pageSize + 1)
+                    .collectList()
+                    .map(summaries -> {
+                        boolean hasNext = summaries.size() > pageSize;
+                        List<OrderSummaryDTO> content = hasNext ? summaries.subList(0, pageSize) : summaries;
+                        String nextCursor = null;
+                        if (hasNext) {
+                            OrderSummaryDTO last = content.get(pageSize - 1);
+                            nextCursor = OrderCursor.after(last.getId(), last.getDeliveryDate(), sortField).encode();
+                        }
+
+                        return new OrderSummaryPageDTO(content, nextCursor);
+                    });
+        }));
+    }
+
+    @Override
+    public Flux<OrderResponseDTO> streamAllOrders() {
+        return orderRepository.streamAll()
+                .map(orderMapper::toResponseDTO);
+    }
+
+    @Override
+    public Mono<OrderResponseDTO> getOrderById(String id) {
+        return orderRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new OrderNotFoundException(id)))
+                .map(orderMapper::toResponseDTO);
+    }
+
+    @Override
+    public Mono<OrderResponseDTO> getOrderById(String id, OrderFieldSelection fields) {
+        return Mono.defer(() -> orderRepository.findProjectedById(id, fields.getFieldPaths()))
+                .switchIfEmpty(Mono.error(() -> new OrderNotFoundException(id)))
+                .map(orderMapper::toResponseDTO);
+    }
+
+    @Override
+    public Mono<OrderResponseDTO> updateOrder(String id, OrderRequestDTO orderRequestDTO, List<Long> expectedVersions) {
+        return toEntity(orderRequestDTO).flatMap(updatedOrder ->
+                orderRepository.replaceAndGetPrevious(id, updatedOrder, expectedVersions)
+                        .switchIfEmpty(Mono.defer(() -> writeConflict(id, expectedVersions)))
+                        .flatMap(previousOrder -> {
+                            updatedOrder.setId(id);
+                            updatedOrder.setVersion(previousOrder.getVersion() == null ? 1L : previousOrder.getVersion() + 1);
+                            return recordChanges(List.of(previousOrder), List.of(updatedOrder)).thenReturn(updatedOrder);
+                        })
+                        .map(orderMapper::toResponseDTO)
+                        .doOnNext(response -> orderChangeBus.publish(OrderChangeDTO.Type.UPDATED, response)));
+    }
+
+    @Override
+    public Mono<Void> deleteOrder(String id, List<Long> expectedVersions) {
+        return orderRepository.removeAndGetPrevious(id, expectedVersions)
+                .switchIfEmpty(Mono.defer(() -> writeConflict(id, expectedVersions)))
+                .flatMap(removedOrder -> recordChanges(List.of(removedOrder), List.of())
+                        .doOnSuccess(done -> orderChangeBus.publishDeleted(id, removedOrder.getVersion())));
+    }
+
+    // A fruit seen for the first time is registered in the catalog, a blocking write
+    private Mono<Order> toEntity(OrderRequestDTO orderRequestDTO) {
+        return Mono.fromSupplier(() -> orderMapper.toEntity(orderRequestDTO))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    // A fruit filter this instance has not seen is looked up in the catalog, a blocking read
+    private <T> Mono<T> withFruitLookup(OrderFilter filter, Mono<T> page) {
+        return filter.getFruitName() != null ? page.subscribeOn(Schedulers.boundedElastic()) : page;
+    }
+
+    private Mono<Void> recordChanges(Collection<Order> removed, Collection<Order> added) {
+        return Mono.fromRunnable(() -> dailyDemandService.recordChanges(removed, added))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
+
+    private Mono<Order> writeConflict(String id, List<Long> expectedVersions) {
+        if (expectedVersions == null) {
+            return Mono.error(new OrderNotFoundException(id));
+        }
+        return orderRepository.existsById(id)
+                .flatMap(exists -> Mono.error(exists
+                        ? new PreconditionFailedException(id)
+                        : new OrderNotFoundException(id)));
+    }
+
+    private void validateDateRange(OrderFilter filter) {
+        if (filter.getFrom() != null && filter.getTo() != null && filter.getFrom().isAfter(filter.getTo())) {
+            throw new InvalidPageRequestException("'from' must not be after 'to'");
+        }
+    }
+
+    private int resolvePageSize(Integer size) {
+        if (size == null) {
+            return paginationProperties.getDefaultSize();
+        }
+        return Math.max(1, Math.min(size, paginationProperties.getMaxSize()));
+    }
+}
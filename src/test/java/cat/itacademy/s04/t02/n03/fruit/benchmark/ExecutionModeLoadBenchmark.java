@@ -0,0 +1,179 @@
+package cat.itacademy.s04.t02.n03.fruit.benchmark;
+
+import cat.itacademy.s04.t02.n03.fruit.FruitOrderApiApplication;
+import cat.itacademy.s04.t02.n03.fruit.model.Order;
+import cat.itacademy.s04.t02.n03.fruit.model.OrderItem;
+import cat.itacademy.s04.t02.n03.fruit.monitoring.VirtualThreadPinningMonitor;
+import cat.itacademy.s04.t02.n03.fruit.repository.OrderRepository;
+import cat.itacademy.s04.t02.n03.fruit.services.FruitCatalogService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.utility.DockerImageName;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the same read load against the servlet (Tomcat platform thread-per-request), virtual
+ * (Tomcat on virtual threads) and reactive (WebFlux + reactive driver) execution modes. Each mode
+ * boots its own application on a random port against a shared MongoDB container. Run with
+ * {@code ./mvnw test -Dbenchmark=true -Dtest=ExecutionModeLoadBenchmark}; override the client
+ * counts with {@code -Dbenchmark.concurrency=256,1024}. Large client counts need a matching
+ * {@code ulimit -n}.
+ */
+@DisplayName("Execution mode load benchmark - platform threads vs virtual threads vs reactive")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ExecutionModeLoadBenchmark {
+
+    private static final int SEEDED_ORDERS = 1_000;
+    private static final int REQUESTS_PER_CLIENT = 20;
+    private static final int WARMUP_CLIENTS = 64;
+    private static final String DEFAULT_CONCURRENCY = "1000,5000,10000";
+
+    private static MongoDBContainer mongoDBContainer;
+
+    @BeforeAll
+    static void startMongo() {
+        mongoDBContainer = new MongoDBContainer(DockerImageName.parse("mongo:7.0"));
+        mongoDBContainer.start();
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        mongoDBContainer.stop();
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @ValueSource(strings = {"servlet", "virtual", "reactive"})
+    @DisplayName("GET /orders?size=20 under concurrent clients")
+    void benchmarkListOrders(String mode) {
+        try (ConfigurableApplicationContext context = start(mode)) {
+            OrderRepository orderRepository = context.getBean(OrderRepository.class);
+            FruitCatalogService fruitCatalog = context.getBean(FruitCatalogService.class);
+            orderRepository.deleteAll();
+            orderRepository.saveAll(Stream.generate(() -> newOrder(fruitCatalog)).limit(SEEDED_ORDERS).toList());
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            run(port, WARMUP_CLIENTS);
+
+            for (int clients : concurrencyLevels()) {
+                Result result = run(port, clients);
+                System.out.printf("%-8s | clients=%,6d | throughput=%,9.0f req/s | p50=%,7d us | p99=%,8d us | errors=%d%n",
+                        mode, clients, result.throughput(),
+                        percentile(result.samples(), 50), percentile(result.samples(), 99), result.errors());
+                assertThat(result.samples()).isNotEmpty();
+            }
+
+            if (mode.equals("virtual")) {
+                long pinned = context.getBean(MeterRegistry.class)
+                        .find(VirtualThreadPinningMonitor.PINNED_METRIC)
+                        .timers()
+                        .stream()
+                        .mapToLong(Timer::count)
+                        .sum();
+                System.out.printf("%-8s | pinned events above threshold=%d (see WARN log for call sites)%n", mode, pinned);
+            }
+        }
+    }
+
+    private ConfigurableApplicationContext start(String mode) {
+        String[] profiles = mode.equals("servlet") ? new String[]{"test"} : new String[]{"test", mode};
+        return new SpringApplicationBuilder(FruitOrderApiApplication.class)
+                .profiles(profiles)
+                .properties(
+                        "server.port=0",
+                        "server.tomcat.max-connections=20000",
+                        "server.tomcat.accept-count=20000",
+                        "spring.data.mongodb.uri=" + mongoDBContainer.getReplicaSetUrl("fruit_orders_benchmark"),
+                        "spring.data.mongodb.database=fruit_orders_benchmark",
+                        "orders.daily-demand.verify-enabled=false")
+                .run();
+    }
+
+    private Result run(int port, int clients) {
+        ConnectionProvider provider = ConnectionProvider.builder("benchmark-" + clients)
+                .maxConnections(clients)
+                .pendingAcquireMaxCount(-1)
+                .pendingAcquireTimeout(Duration.ofMinutes(2))
+                .build();
+        WebClient client = WebClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(provider)))
+                .build();
+
+        int total = clients * REQUESTS_PER_CLIENT;
+        long[] samples = new long[total];
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+
+        long start = System.nanoTime();
+        Flux.range(0, total)
+                .flatMap(i -> Mono.defer(() -> {
+                    long requestStart = System.nanoTime();
+                    return client.get().uri("/orders?size=20")
+                            .retrieve()
+                            .toBodilessEntity()
+                            .doOnSuccess(response -> samples[completed.getAndIncrement()] = System.nanoTime() - requestStart)
+                            .onErrorResume(ex -> {
+                                errors.incrementAndGet();
+                                return Mono.empty();
+                            });
+                }), clients)
+                .blockLast(Duration.ofMinutes(10));
+        long elapsed = System.nanoTime() - start;
+        provider.dispose();
+
+        long[] measured = Arrays.copyOf(samples, completed.get());
+        Arrays.sort(measured);
+        return new Result(measured, errors.get(), measured.length / (elapsed / 1_000_000_000.0));
+    }
+
+    private List<Integer> concurrencyLevels() {
+        return Arrays.stream(System.getProperty("benchmark.concurrency", DEFAULT_CONCURRENCY).split(","))
+                .map(String::trim)
+                .map(Integer::parseInt)
+                .toList();
+    }
+
+    private long percentile(long[] sortedSamples, int percentile) {
+        if (sortedSamples.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sortedSamples.length) - 1;
+        return sortedSamples[Math.max(0, index)] / 1_000;
+    }
+
+    private Order newOrder(FruitCatalogService fruitCatalog) {
+        Order order = new Order();
+        order.setClientName("Benchmark Client");
+        order.setDeliveryDate(LocalDate.now().plusDays(1));
+        order.setItems(List.of(new OrderItem(fruitCatalog.codeOf("Apple"), 5),
+                new OrderItem(fruitCatalog.codeOf("Banana"), 3)));
+        return order;
+    }
+
+    private record Result(long[] samples, int errors, double throughput) {
+    }
+}
@@ -0,0 +1,140 @@
+package cat.itacademy.s04.t02.n03.fruit.benchmark;
+
+import cat.itacademy.s04.t02.n03.fruit.config.BaseIntegrationTest;
+import cat.itacademy.s04.t02.n03.fruit.model.Order;
+import cat.itacademy.s04.t02.n03.fruit.model.OrderItem;
+import cat.itacademy.s04.t02.n03.fruit.pagination.OrderSortField;
+import cat.itacademy.s04.t02.n03.fruit.repository.OrderFilter;
+import cat.itacademy.s04.t02.n03.fruit.repository.OrderRepository;
+import cat.itacademy.s04.t02.n03.fruit.services.FruitCatalogService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput ceiling of the in-memory order store: each operation is run back to back by a growing number
+ * of threads against a preloaded store, with no HTTP or service layer in front. Run with
+ * {@code ./mvnw test -Dbenchmark=true -Dtest=InMemoryOrderRepositoryBenchmark}; override the store size
+ * with {@code -Dbenchmark.orders=} and the thread counts with {@code -Dbenchmark.threads=1,4,16}.
+ */
+@DisplayName("In-memory order store benchmark - operations per second by thread count")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@ActiveProfiles("memory")
+@TestPropertySource(properties = "orders.daily-demand.verify-enabled=false")
+class InMemoryOrderRepositoryBenchmark extends BaseIntegrationTest {
+
+    private static final int OPERATIONS_PER_THREAD = 20_000;
+    private static final int CLIENTS = 1_000;
+    private static final int DAYS = 365;
+    private static final int PAGE_SIZE = 50;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private FruitCatalogService fruitCatalog;
+
+    private final List<String> ids = new ArrayList<>();
+    private int[] fruitCodes;
+    private LocalDate firstDay;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        ids.clear();
+        fruitCodes = new int[]{fruitCatalog.codeOf("Apple"), fruitCatalog.codeOf("Banana"), fruitCatalog.codeOf("Kiwi")};
+        firstDay = LocalDate.now().plusDays(1);
+
+        int orders = Integer.getInteger("benchmark.orders", 100_000);
+        List<Order> batch = new ArrayList<>(orders);
+        for (int i = 0; i < orders; i++) {
+            batch.add(newOrder(i));
+        }
+        assertThat(orderRepository.insertUnordered(batch)).isEmpty();
+        batch.forEach(order -> ids.add(order.getId()));
+    }
+
+    @Test
+    @DisplayName("Point reads, inserts, updates and index-backed pages")
+    void benchmarkOperations() throws Exception {
+        int[] threadCounts = Arrays.stream(System.getProperty("benchmark.threads", "1,4,16,64").split(","))
+                .map(String::trim)
+                .mapToInt(Integer::parseInt)
+                .toArray();
+
+        for (int threads : threadCounts) {
+            report("findById", threads, run(threads, i -> orderRepository.findById(randomId())));
+            report("page by client", threads, run(threads, i -> orderRepository.findPage(
+                    new OrderFilter(randomClient(), null, null, null), OrderSortField.DELIVERY_DATE, null, PAGE_SIZE)));
+            report("page by date range", threads, run(threads, i -> {
+                LocalDate from = firstDay.plusDays(ThreadLocalRandom.current().nextInt(DAYS));
+                orderRepository.findPage(new OrderFilter(null, from, from.plusDays(7), null),
+                        OrderSortField.DELIVERY_DATE, null, PAGE_SIZE);
+            }));
+            report("insert", threads, run(threads, i -> orderRepository.insert(newOrder(i))));
+            report("replace", threads, run(threads, i -> orderRepository.replaceAndGetPrevious(
+                    randomId(), newOrder(i), null)));
+        }
+    }
+
+    private double run(int threads, IntConsumer operation) throws Exception {
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            timed(executor, threads, OPERATIONS_PER_THREAD / 10, operation);
+            long elapsed = timed(executor, threads, OPERATIONS_PER_THREAD, operation);
+            return (double) threads * OPERATIONS_PER_THREAD / (elapsed / 1_000_000_000.0);
+        }
+    }
+
+    private long timed(ExecutorService executor, int threads, int operations, IntConsumer operation) throws Exception {
+        long start = System.nanoTime();
+        List<Future<?>> running = new ArrayList<>(threads);
+        for (int thread = 0; thread < threads; thread++) {
+            running.add(executor.submit(() -> {
+                for (int i = 0; i < operations; i++) {
+                    operation.accept(i);
+                }
+            }));
+        }
+        for (Future<?> thread : running) {
+            thread.get();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private void report(String operation, int threads, double throughput) {
+        System.out.printf("%-18s | threads=%3d | throughput=%,.0f ops/s%n", operation, threads, throughput);
+    }
+
+    private String randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    private String randomClient() {
+        return "Client " + ThreadLocalRandom.current().nextInt(CLIENTS);
+    }
+
+    private Order newOrder(int i) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<OrderItem> items = List.of(
+                new OrderItem(fruitCodes[i % fruitCodes.length], 1 + random.nextInt(20)),
+                new OrderItem(fruitCodes[(i + 1) % fruitCodes.length], 1 + random.nextInt(20)));
+        return new Order(null, "Client " + random.nextInt(CLIENTS), firstDay.plusDays(random.nextInt(DAYS)),
+                items, null);
+    }
+}
@@ -0,0 +1,60 @@
+package cat.itacademy.s04.t02.n03.fruit.benchmark;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the JMH micro-benchmarks under {@code benchmark.jmh} (mapping, validation and JSON
+ * serialization of a single order) with the GC profiler, so every score comes with its
+ * allocation rate ({@code gc.alloc.rate.norm}, bytes per operation). Run with
+ * {@code ./mvnw test -Dbenchmark=true -Dtest=JmhBenchmarkRunner}; narrow the run with
+ * {@code -Djmh.include=OrderMapperBenchmark} and {@code -Djmh.params=itemCount=1,100}.
+ * Results are also written to {@code target/jmh-result.json}.
+ */
+@DisplayName("JMH micro-benchmarks - mapping, validation and serialization hot paths")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class JmhBenchmarkRunner {
+
+    private static final String DEFAULT_INCLUDE = "cat\\.itacademy\\.s04\\.t02\\.n03\\.fruit\\.benchmark\\.jmh\\..*";
+
+    @Test
+    @DisplayName("Run JMH benchmarks with the GC profiler")
+    void runBenchmarks() throws RunnerException {
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(System.getProperty("jmh.include", DEFAULT_INCLUDE))
+                .mode(Mode.Throughput)
+                .timeUnit(TimeUnit.SECONDS)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(1))
+                .forks(1)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/jmh-result.json");
+
+        String params = System.getProperty("jmh.params");
+        if (params != null) {
+            String[] param = params.split("=", 2);
+            options.param(param[0], param[1].split(","));
+        }
+
+        Collection<RunResult> results = new Runner(options.build()).run();
+        assertThat(results).isNotEmpty();
+    }
+}
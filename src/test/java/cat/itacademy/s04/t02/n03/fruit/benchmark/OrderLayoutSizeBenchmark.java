@@ -0,0 +1,104 @@
+package cat.itacademy.s04.t02.n03.fruit.benchmark;
+
+import cat.itacademy.s04.t02.n03.fruit.config.BaseIntegrationTest;
+import cat.itacademy.s04.t02.n03.fruit.dto.CollectionSizeDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderMigrationReportDTO;
+import cat.itacademy.s04.t02.n03.fruit.model.Order;
+import cat.itacademy.s04.t02.n03.fruit.repository.OrderRepository;
+import cat.itacademy.s04.t02.n03.fruit.services.OrderMigrationService;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.CompoundIndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures the orders collection and its indexes in the original layout (long field names, item
+ * sub-documents with free-text fruit names, date values) and again after the migration to the compact layout. Run with {@code ./mvnw test -Dbenchmark=true -Dtest=OrderLayoutSizeBenchmark},
+ * optionally with {@code -Dbenchmark.orders=} and {@code -Dbenchmark.items=}.
+ */
+@DisplayName("Order layout benchmark - collection and index size")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class OrderLayoutSizeBenchmark extends BaseIntegrationTest {
+
+    private static final List<String> FRUITS = List.of("Granny Smith Apple", "Cavendish Banana", "Bing Cherry",
+            "Hayward Kiwi", "Alphonso Mango", "Valencia Orange", "Conference Pear", "Red Globe Grape");
+    private static final int INSERT_CHUNK = 5_000;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private OrderMigrationService orderMigrationService;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        IndexOperations indexOperations = mongoTemplate.indexOps(Order.class);
+        indexOperations.createIndex(new CompoundIndexDefinition(
+                new Document("deliveryDate", 1).append("_id", 1)).named("deliveryDate_id"));
+        indexOperations.createIndex(new CompoundIndexDefinition(
+                new Document("clientName", 1).append("deliveryDate", 1).append("_id", 1)).named("clientName_deliveryDate_id"));
+        indexOperations.createIndex(new CompoundIndexDefinition(
+                new Document("items.fruitName", 1).append("deliveryDate", 1).append("_id", 1)).named("fruitName_deliveryDate_id"));
+    }
+
+    @Test
+    @DisplayName("original layout vs compact layout")
+    void benchmarkCollectionSize() {
+        int orders = Integer.getInteger("benchmark.orders", 100_000);
+        int itemsPerOrder = Integer.getInteger("benchmark.items", 5);
+
+        for (int start = 0; start < orders; start += INSERT_CHUNK) {
+            List<Document> chunk = new ArrayList<>(INSERT_CHUNK);
+            for (int i = start; i < Math.min(start + INSERT_CHUNK, orders); i++) {
+                chunk.add(legacyOrder(i, itemsPerOrder));
+            }
+            mongoTemplate.getCollection(mongoTemplate.getCollectionName(Order.class)).insertMany(chunk);
+        }
+
+        OrderMigrationReportDTO report = orderMigrationService.migrateLegacyOrders();
+
+        System.out.printf("%,d orders x %d items, %,d migrated%n", orders, itemsPerOrder, report.getMigratedOrders());
+        print("original", report.getBefore());
+        print("compact", report.getAfter());
+        assertThat(report.getMigratedOrders()).isEqualTo(orders);
+    }
+
+    private void print(String label, CollectionSizeDTO size) {
+        System.out.printf("%-16s | data=%,d B avgDoc=%,d B storage=%,d B | indexes=%,d B %s%n",
+                label, size.getDataSize(), size.getAverageDocumentSize(), size.getStorageSize(),
+                size.getTotalIndexSize(), size.getIndexSizes());
+    }
+
+    private Document legacyOrder(int index, int itemsPerOrder) {
+        List<Document> items = IntStream.range(0, itemsPerOrder)
+                .mapToObj(i -> new Document("fruitName", FRUITS.get((index + i) % FRUITS.size()))
+                        .append("quantityInKilos", 1 + (index + i) % 20))
+                .toList();
+        LocalDate deliveryDate = LocalDate.now().plusDays(1 + index % 30);
+        return new Document("_id", new ObjectId())
+                .append("clientName", "Client " + index % 500)
+                .append("deliveryDate", Date.from(deliveryDate.atStartOfDay(ZoneId.systemDefault()).toInstant()))
+                .append("items", items)
+                .append("version", 0L)
+                .append("_class", Order.class.getName());
+    }
+}
@@ -0,0 +1,133 @@
+package cat.itacademy.s04.t02.n03.fruit.benchmark;
+
+import cat.itacademy.s04.t02.n03.fruit.config.BaseIntegrationTest;
+import cat.itacademy.s04.t02.n03.fruit.config.OrderLogProperties;
+import cat.itacademy.s04.t02.n03.fruit.config.OrderLogProperties.FsyncPolicy;
+import cat.itacademy.s04.t02.n03.fruit.model.Order;
+import cat.itacademy.s04.t02.n03.fruit.model.OrderItem;
+import cat.itacademy.s04.t02.n03.fruit.repository.OrderRepository;
+import cat.itacademy.s04.t02.n03.fruit.repository.log.LogOrderRepository;
+import cat.itacademy.s04.t02.n03.fruit.services.FruitCatalogService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Single-order create, get and update against MongoDB and against the append-only log store under each
+ * fsync policy. Latency is measured on one thread; creates are also run from {@code benchmark.threads}
+ * threads, where grouped fsync shares forces between writers. The log stores write to a temporary
+ * directory, so the numbers depend on the disk behind it. Run with
+ * {@code ./mvnw test -Dbenchmark=true -Dtest=OrderLogStorageBenchmark}.
+ */
+@DisplayName("Order log storage benchmark - MongoDB vs append-only log per fsync policy")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class OrderLogStorageBenchmark extends BaseIntegrationTest {
+
+    private static final int WARMUP_ITERATIONS = 500;
+    private static final int MEASURED_ITERATIONS = 5_000;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private FruitCatalogService fruitCatalog;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    @DisplayName("create, get and update per store")
+    void benchmarkStores() throws Exception {
+        int threads = Integer.getInteger("benchmark.threads", 16);
+
+        orderRepository.deleteAll();
+        run("mongodb", orderRepository, threads);
+
+        for (FsyncPolicy fsync : FsyncPolicy.values()) {
+            OrderLogProperties properties = new OrderLogProperties();
+            properties.setDirectory(directory.resolve(fsync.name().toLowerCase()));
+            properties.setFsync(fsync);
+            try (LogOrderRepository logRepository = new LogOrderRepository(fruitCatalog, properties)) {
+                run("log/" + fsync.name().toLowerCase(), logRepository, threads);
+            }
+        }
+    }
+
+    private void run(String store, OrderRepository repository, int threads) throws Exception {
+        List<String> ids = new ArrayList<>();
+        long[] create = measure(i -> ids.add(repository.insert(newOrder()).getId()));
+        long[] get = measure(i -> repository.findById(ids.get(i)).orElseThrow());
+        long[] update = measure(i -> repository.replaceAndGetPrevious(ids.get(i), newOrder(), null).orElseThrow());
+        double concurrentCreate = throughput(threads, i -> repository.insert(newOrder()));
+
+        System.out.printf("%-13s | create p50=%,d us p99=%,d us | get p50=%,d us p99=%,d us"
+                        + " | update p50=%,d us p99=%,d us | create x%d threads=%,.0f ops/s%n",
+                store,
+                percentile(create, 50), percentile(create, 99),
+                percentile(get, 50), percentile(get, 99),
+                percentile(update, 50), percentile(update, 99),
+                threads, concurrentCreate);
+        assertThat(repository.count()).isEqualTo(ids.size() + (long) threads * MEASURED_ITERATIONS);
+    }
+
+    private long[] measure(IntConsumer operation) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            operation.accept(i);
+        }
+
+        long[] samples = new long[MEASURED_ITERATIONS];
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            long start = System.nanoTime();
+            operation.accept(WARMUP_ITERATIONS + i);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples;
+    }
+
+    private double throughput(int threads, IntConsumer operation) throws Exception {
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            long start = System.nanoTime();
+            List<Future<?>> running = new ArrayList<>(threads);
+            for (int thread = 0; thread < threads; thread++) {
+                running.add(executor.submit(() -> {
+                    for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+                        operation.accept(i);
+                    }
+                }));
+            }
+            for (Future<?> thread : running) {
+                thread.get();
+            }
+            return (double) threads * MEASURED_ITERATIONS / ((System.nanoTime() - start) / 1_000_000_000.0);
+        }
+    }
+
+    private long percentile(long[] sortedSamples, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sortedSamples.length) - 1;
+        return sortedSamples[Math.max(0, index)] / 1_000;
+    }
+
+    private Order newOrder() {
+        Order order = new Order();
+        order.setClientName("Benchmark Client");
+        order.setDeliveryDate(LocalDate.now().plusDays(1));
+        order.setItems(List.of(new OrderItem(fruitCatalog.codeOf("Apple"), 5),
+                new OrderItem(fruitCatalog.codeOf("Banana"), 3)));
+        return order;
+    }
+}
@@ -0,0 +1,78 @@
+package cat.itacademy.s04.t02.n03.fruit.benchmark;
+
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderItemDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderResponseDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Payload size of a single order and of a full page of orders in JSON, CBOR and Smile, raw and gzipped as
+ * the server sends them to a client accepting gzip. The CPU side is measured by the {@code OrderFormatBenchmark}
+ * JMH benchmark. Run with {@code ./mvnw test -Dbenchmark=true -Dtest=OrderPayloadSizeBenchmark}.
+ */
+@DisplayName("Order payload size benchmark - JSON vs CBOR vs Smile, raw and gzipped")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class OrderPayloadSizeBenchmark {
+
+    private static final List<String> FRUITS = List.of("Apple", "Banana", "Cherry", "Kiwi", "Mango", "Orange", "Pear");
+    private static final int PAGE_SIZE = 50;
+
+    @Test
+    @DisplayName("Bytes per format for orders of 1 to 500 items")
+    void benchmarkPayloadSize() throws IOException {
+        Map<String, ObjectMapper> formats = new LinkedHashMap<>();
+        formats.put("json", mapper(Jackson2ObjectMapperBuilder.json()));
+        formats.put("cbor", mapper(Jackson2ObjectMapperBuilder.cbor()));
+        formats.put("smile", mapper(Jackson2ObjectMapperBuilder.smile()));
+
+        for (int itemCount : new int[]{1, 10, 100, 500}) {
+            OrderResponseDTO order = order(itemCount);
+            List<OrderResponseDTO> page = IntStream.range(0, PAGE_SIZE).mapToObj(i -> order(itemCount)).toList();
+
+            for (Map.Entry<String, ObjectMapper> format : formats.entrySet()) {
+                byte[] single = format.getValue().writeValueAsBytes(order);
+                byte[] listing = format.getValue().writeValueAsBytes(page);
+                System.out.printf("%-5s | items=%3d | order=%,7d B gzip=%,6d B | page of %d=%,9d B gzip=%,8d B%n",
+                        format.getKey(), itemCount, single.length, gzip(single).length,
+                        PAGE_SIZE, listing.length, gzip(listing).length);
+                assertThat(single).isNotEmpty();
+            }
+        }
+    }
+
+    private static ObjectMapper mapper(Jackson2ObjectMapperBuilder builder) {
+        return builder.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+    }
+
+    private static byte[] gzip(byte[] payload) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(payload);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static OrderResponseDTO order(int itemCount) {
+        List<OrderItemDTO> items = IntStream.range(0, itemCount)
+                .mapToObj(i -> new OrderItemDTO(FRUITS.get(i % FRUITS.size()), 1 + i % 50))
+                .toList();
+        return new OrderResponseDTO(new ObjectId().toHexString(), "Benchmark Client", LocalDate.now().plusDays(7),
+                items, 3L);
+    }
+}
@@ -0,0 +1,126 @@
+package cat.itacademy.s04.t02.n03.fruit.benchmark;
+
+import cat.itacademy.s04.t02.n03.fruit.config.BaseIntegrationTest;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderItemDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderRequestDTO;
+import cat.itacademy.s04.t02.n03.fruit.repository.OrderRepository;
+import cat.itacademy.s04.t02.n03.fruit.services.OrderService;
+import cat.itacademy.s04.t02.n03.fruit.services.OrderWriteBehindQueue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares createOrder throughput with one acknowledged insert per request against write-behind
+ * batches, with the same number of concurrent clients each creating orders back to back. Run with
+ * {@code ./mvnw test -Dbenchmark=true -Dtest=OrderWriteBehindBenchmark}; override the client count
+ * with {@code -Dbenchmark.clients=}.
+ */
+@DisplayName("Write-behind benchmark - one insert per order vs batched inserts")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@TestPropertySource(properties = {
+        "orders.write-behind.enabled=true",
+        "orders.write-behind.queue-capacity=100000",
+        "orders.daily-demand.verify-enabled=false"
+})
+class OrderWriteBehindBenchmark extends BaseIntegrationTest {
+
+    private static final int ORDERS_PER_CLIENT = 200;
+    private static final int WARMUP_ORDERS_PER_CLIENT = 20;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderWriteBehindQueue writeBehindQueue;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        writeBehindQueue.start();
+    }
+
+    @Test
+    @DisplayName("createOrder under concurrent clients")
+    void benchmarkCreateOrder() throws Exception {
+        int clients = Integer.getInteger("benchmark.clients", 256);
+
+        writeBehindQueue.stop();
+        run(clients, WARMUP_ORDERS_PER_CLIENT);
+        Result direct = run(clients, ORDERS_PER_CLIENT);
+
+        writeBehindQueue.start();
+        run(clients, WARMUP_ORDERS_PER_CLIENT);
+        Result batched = run(clients, ORDERS_PER_CLIENT);
+
+        report("single", direct);
+        report("batched", batched);
+        assertThat(orderRepository.count())
+                .isEqualTo(2L * clients * (WARMUP_ORDERS_PER_CLIENT + ORDERS_PER_CLIENT));
+    }
+
+    private Result run(int clients, int ordersPerClient) throws Exception {
+        long[][] samples = new long[clients][ordersPerClient];
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> running = new ArrayList<>(clients);
+            for (int client = 0; client < clients; client++) {
+                long[] clientSamples = samples[client];
+                running.add(executor.submit(() -> {
+                    for (int i = 0; i < ordersPerClient; i++) {
+                        long requestStart = System.nanoTime();
+                        orderService.createOrder(newOrderRequest());
+                        clientSamples[i] = System.nanoTime() - requestStart;
+                    }
+                }));
+            }
+            for (Future<?> client : running) {
+                client.get();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        long[] measured = Arrays.stream(samples).flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(measured, measured.length / (elapsed / 1_000_000_000.0));
+    }
+
+    private void report(String mode, Result result) {
+        System.out.printf("%-8s | throughput=%,.0f orders/s | p50=%,d us p99=%,d us%n",
+                mode, result.throughput(), percentile(result.samples(), 50), percentile(result.samples(), 99));
+    }
+
+    private long percentile(long[] sortedSamples, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sortedSamples.length) - 1;
+        return sortedSamples[Math.max(0, index)] / 1_000;
+    }
+
+    private OrderRequestDTO newOrderRequest() {
+        return new OrderRequestDTO("Benchmark Client", LocalDate.now().plusDays(1),
+                List.of(new OrderItemDTO("Apple", 5), new OrderItemDTO("Banana", 3)));
+    }
+
+    private record Result(long[] samples, double throughput) {
+    }
+}
@@ -0,0 +1,120 @@
+package cat.itacademy.s04.t02.n03.fruit.benchmark;
+
+import cat.itacademy.s04.t02.n03.fruit.config.BaseIntegrationTest;
+import cat.itacademy.s04.t02.n03.fruit.model.Order;
+import cat.itacademy.s04.t02.n03.fruit.model.OrderItem;
+import cat.itacademy.s04.t02.n03.fruit.repository.OrderRepository;
+import cat.itacademy.s04.t02.n03.fruit.services.FruitCatalogService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares write latency of the former read-then-write paths against the
+ * single-round-trip repository operations. Run with {@code ./mvnw test -Dbenchmark=true
+ * -Dtest=OrderWriteLatencyBenchmark}.
+ */
+@DisplayName("Order write latency benchmark - two round trips vs one")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class OrderWriteLatencyBenchmark extends BaseIntegrationTest {
+
+    private static final int WARMUP_ITERATIONS = 500;
+    private static final int MEASURED_ITERATIONS = 5_000;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private FruitCatalogService fruitCatalog;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("update: findById + save vs findAndReplace")
+    void benchmarkUpdate() {
+        String id = orderRepository.save(newOrder()).getId();
+
+        long[] legacy = measure(i -> {
+            Order existing = orderRepository.findById(id).orElseThrow();
+            Order order = newOrder();
+            order.setId(id);
+            order.setVersion(existing.getVersion());
+            orderRepository.save(order);
+        });
+        long[] atomic = measure(i -> orderRepository.replaceAndGetPrevious(id, newOrder(), null).orElseThrow());
+
+        report("update", legacy, atomic);
+        assertThat(orderRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("delete: findById + delete vs findAndRemove")
+    void benchmarkDelete() {
+        List<Order> legacyTargets = orderRepository.saveAll(newOrders());
+        long[] legacy = measure(i -> {
+            Order order = orderRepository.findById(legacyTargets.get(i).getId()).orElseThrow();
+            orderRepository.delete(order);
+        });
+
+        List<Order> atomicTargets = orderRepository.saveAll(newOrders());
+        long[] atomic = measure(i -> orderRepository.removeAndGetPrevious(atomicTargets.get(i).getId(), null).orElseThrow());
+
+        report("delete", legacy, atomic);
+        assertThat(orderRepository.count()).isZero();
+    }
+
+    private long[] measure(Consumer<Integer> operation) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            operation.accept(i);
+        }
+
+        long[] samples = new long[MEASURED_ITERATIONS];
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            long start = System.nanoTime();
+            operation.accept(WARMUP_ITERATIONS + i);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples;
+    }
+
+    private void report(String operation, long[] legacy, long[] atomic) {
+        System.out.printf("%-6s | two round trips: p50=%,d us p99=%,d us | single round trip: p50=%,d us p99=%,d us%n",
+                operation,
+                percentile(legacy, 50), percentile(legacy, 99),
+                percentile(atomic, 50), percentile(atomic, 99));
+    }
+
+    private long percentile(long[] sortedSamples, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sortedSamples.length) - 1;
+        return sortedSamples[Math.max(0, index)] / 1_000;
+    }
+
+    private List<Order> newOrders() {
+        return Stream.generate(this::newOrder)
+                .limit(WARMUP_ITERATIONS + MEASURED_ITERATIONS)
+                .toList();
+    }
+
+    private Order newOrder() {
+        Order order = new Order();
+        order.setClientName("Benchmark Client");
+        order.setDeliveryDate(LocalDate.now().plusDays(1));
+        order.setItems(List.of(new OrderItem(fruitCatalog.codeOf("Apple"), 5),
+                new OrderItem(fruitCatalog.codeOf("Banana"), 3)));
+        return order;
+    }
+}
@@ -0,0 +1,84 @@
+package cat.itacademy.s04.t02.n03.fruit.benchmark.jmh;
+
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderItemDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderRequestDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderResponseDTO;
+import cat.itacademy.s04.t02.n03.fruit.model.Order;
+import cat.itacademy.s04.t02.n03.fruit.model.OrderItem;
+import cat.itacademy.s04.t02.n03.fruit.services.FruitCatalogService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.bson.types.ObjectId;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+
+final class BenchmarkOrders {
+
+    private static final List<String> FRUITS = List.of("Apple", "Banana", "Cherry", "Kiwi", "Mango", "Orange", "Pear");
+
+    private BenchmarkOrders() {
+    }
+
+    static OrderRequestDTO request(int itemCount) {
+        List<OrderItemDTO> items = IntStream.range(0, itemCount)
+                .mapToObj(i -> new OrderItemDTO(FRUITS.get(i % FRUITS.size()), 1 + i % 50))
+                .toList();
+        return new OrderRequestDTO("Benchmark Client", LocalDate.now().plusDays(7), items);
+    }
+
+    static Order order(int itemCount) {
+        List<OrderItem> items = IntStream.range(0, itemCount)
+                .mapToObj(i -> new OrderItem(1 + i % FRUITS.size(), 1 + i % 50))
+                .toList();
+        return new Order(new ObjectId().toHexString(), "Benchmark Client", LocalDate.now().plusDays(7), items, 3L);
+    }
+
+    static OrderResponseDTO response(int itemCount) {
+        OrderRequestDTO request = request(itemCount);
+        return new OrderResponseDTO(new ObjectId().toHexString(), request.getClientName(), request.getDeliveryDate(),
+                request.getItems(), 3L);
+    }
+
+    // Fully cached catalog, as it is once every fruit has been seen
+    static FruitCatalogService fruitCatalog() {
+        return new FruitCatalogService() {
+            @Override
+            public int codeOf(String fruitName) {
+                return FRUITS.indexOf(fruitName) + 1;
+            }
+
+            @Override
+            public Integer findCode(String fruitName) {
+                return codeOf(fruitName);
+            }
+
+            @Override
+            public String nameOf(int fruitCode) {
+                return FRUITS.get(fruitCode - 1);
+            }
+
+            @Override
+            public String nameOf(OrderItem item) {
+                return item.getFruitCode() != null ? nameOf(item.getFruitCode()) : item.getFruitName();
+            }
+        };
+    }
+
+    // Same modules and features as the ObjectMapper Spring Boot auto-configures (JavaTimeModule, ISO dates)
+    static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    static ObjectMapper objectMapper(String format) {
+        Jackson2ObjectMapperBuilder builder = switch (format) {
+            case "json" -> Jackson2ObjectMapperBuilder.json();
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor();
+            case "smile" -> Jackson2ObjectMapperBuilder.smile();
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+        return builder.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+    }
+}
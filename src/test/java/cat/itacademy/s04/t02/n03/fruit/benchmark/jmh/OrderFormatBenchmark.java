@@ -0,0 +1,64 @@
+package cat.itacademy.s04.t02.n03.fruit.benchmark.jmh;
+
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderRequestDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderResponseDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialization CPU of one order per wire format, and the cost gzip adds on top of it when the response is
+ * compressed. Payload sizes are reported by {@code OrderPayloadSizeBenchmark}.
+ */
+@State(Scope.Benchmark)
+public class OrderFormatBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"1", "10", "100", "500"})
+    private int itemCount;
+
+    private ObjectReader requestReader;
+    private ObjectWriter responseWriter;
+    private byte[] requestBytes;
+    private OrderResponseDTO response;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = BenchmarkOrders.objectMapper(format);
+        requestReader = objectMapper.readerFor(OrderRequestDTO.class);
+        responseWriter = objectMapper.writerFor(OrderResponseDTO.class);
+
+        requestBytes = objectMapper.writeValueAsBytes(BenchmarkOrders.request(itemCount));
+        response = BenchmarkOrders.response(itemCount);
+    }
+
+    @Benchmark
+    public OrderRequestDTO deserializeRequest() throws IOException {
+        return requestReader.readValue(requestBytes);
+    }
+
+    @Benchmark
+    public byte[] serializeResponse() throws IOException {
+        return responseWriter.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] serializeResponseGzip() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            responseWriter.writeValue(gzip, response);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,64 @@
+package cat.itacademy.s04.t02.n03.fruit.benchmark.jmh;
+
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderRequestDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderResponseDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+
+@State(Scope.Benchmark)
+public class OrderJsonBenchmark {
+
+    @Param({"1", "10", "100", "1000", "10000"})
+    private int itemCount;
+
+    private ObjectReader requestReader;
+    private ObjectWriter responseWriter;
+    private ObjectWriter requestWriter;
+    private ObjectReader responseReader;
+    private byte[] requestJson;
+    private byte[] responseJson;
+    private OrderRequestDTO request;
+    private OrderResponseDTO response;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = BenchmarkOrders.objectMapper();
+        requestReader = objectMapper.readerFor(OrderRequestDTO.class);
+        requestWriter = objectMapper.writerFor(OrderRequestDTO.class);
+        responseReader = objectMapper.readerFor(OrderResponseDTO.class);
+        responseWriter = objectMapper.writerFor(OrderResponseDTO.class);
+
+        request = BenchmarkOrders.request(itemCount);
+        response = BenchmarkOrders.response(itemCount);
+        requestJson = requestWriter.writeValueAsBytes(request);
+        responseJson = responseWriter.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public OrderRequestDTO deserializeRequest() throws IOException {
+        return requestReader.readValue(requestJson);
+    }
+
+    @Benchmark
+    public byte[] serializeRequest() throws IOException {
+        return requestWriter.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public OrderResponseDTO deserializeResponse() throws IOException {
+        return responseReader.readValue(responseJson);
+    }
+
+    @Benchmark
+    public byte[] serializeResponse() throws IOException {
+        return responseWriter.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,38 @@
+package cat.itacademy.s04.t02.n03.fruit.benchmark.jmh;
+
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderRequestDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderResponseDTO;
+import cat.itacademy.s04.t02.n03.fruit.mapper.OrderMapper;
+import cat.itacademy.s04.t02.n03.fruit.model.Order;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+public class OrderMapperBenchmark {
+
+    @Param({"1", "10", "100", "1000", "10000"})
+    private int itemCount;
+
+    private final OrderMapper orderMapper = new OrderMapper(BenchmarkOrders.fruitCatalog());
+    private OrderRequestDTO request;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        request = BenchmarkOrders.request(itemCount);
+        order = BenchmarkOrders.order(itemCount);
+    }
+
+    @Benchmark
+    public Order toEntity() {
+        return orderMapper.toEntity(request);
+    }
+
+    @Benchmark
+    public OrderResponseDTO toResponseDTO() {
+        return orderMapper.toResponseDTO(order);
+    }
+}
@@ -0,0 +1,69 @@
+package cat.itacademy.s04.t02.n03.fruit.benchmark.jmh;
+
+import cat.itacademy.s04.t02.n03.fruit.config.JacksonConfig;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderResponseDTO;
+import cat.itacademy.s04.t02.n03.fruit.serialization.OrderSerializersModule;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Response serialization with Jackson's reflective bean serializers against the prebuilt ones of
+ * {@link OrderSerializersModule}, on a mapper configured like the application's (sparse fieldset mixins,
+ * ISO dates). A single order is written to a byte array, a page of 50 straight to a stream as the list
+ * endpoints do.
+ */
+@State(Scope.Benchmark)
+public class OrderSerializerBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+
+    @Param({"bean", "prebuilt"})
+    private String serializer;
+
+    @Param({"1", "10", "100", "1000"})
+    private int itemCount;
+
+    private ObjectWriter responseWriter;
+    private ObjectWriter pageWriter;
+    private OrderResponseDTO response;
+    private List<OrderResponseDTO> page;
+
+    @Setup
+    public void setUp() {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        JacksonConfig jacksonConfig = new JacksonConfig();
+        jacksonConfig.orderFieldFilterCustomizer().customize(builder);
+        if (serializer.equals("prebuilt")) {
+            builder.modulesToInstall(jacksonConfig.orderSerializersModule());
+        }
+
+        ObjectMapper objectMapper = builder.build();
+        responseWriter = objectMapper.writerFor(OrderResponseDTO.class);
+        pageWriter = objectMapper.writer();
+        response = BenchmarkOrders.response(itemCount);
+        page = IntStream.range(0, PAGE_SIZE).mapToObj(i -> BenchmarkOrders.response(itemCount)).toList();
+    }
+
+    @Benchmark
+    public byte[] serializeResponse() throws IOException {
+        return responseWriter.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public void serializePage() throws IOException {
+        pageWriter.writeValue(OutputStream.nullOutputStream(), page);
+    }
+}
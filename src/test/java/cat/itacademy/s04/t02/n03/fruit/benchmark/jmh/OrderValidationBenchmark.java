@@ -0,0 +1,53 @@
+package cat.itacademy.s04.t02.n03.fruit.benchmark.jmh;
+
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderRequestDTO;
+import cat.itacademy.s04.t02.n03.fruit.validation.FutureDateValidator;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+@State(Scope.Benchmark)
+public class OrderValidationBenchmark {
+
+    @Param({"1", "10", "100", "1000", "10000"})
+    private int itemCount;
+
+    private final FutureDateValidator futureDateValidator = new FutureDateValidator();
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private OrderRequestDTO request;
+    private LocalDate deliveryDate;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        request = BenchmarkOrders.request(itemCount);
+        deliveryDate = request.getDeliveryDate();
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public boolean futureDateIsValid() {
+        return futureDateValidator.isValid(deliveryDate, null);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<OrderRequestDTO>> validateOrderRequest() {
+        return validator.validate(request);
+    }
+}
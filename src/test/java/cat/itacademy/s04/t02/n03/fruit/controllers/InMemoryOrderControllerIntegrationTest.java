@@ -0,0 +1,13 @@
+package cat.itacademy.s04.t02.n03.fruit.controllers;
+
+import org.junit.jupiter.api.DisplayName;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Runs the whole controller suite against the {@code memory} profile, without MongoDB.
+ */
+@ActiveProfiles("memory")
+@DisplayName("Order Controller Integration Tests - In-Memory Storage")
+class InMemoryOrderControllerIntegrationTest extends OrderControllerIntegrationTest {
+
+}
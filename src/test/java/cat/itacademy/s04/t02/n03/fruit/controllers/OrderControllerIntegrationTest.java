@@ -1,22 +1,39 @@
 package cat.itacademy.s04.t02.n03.fruit.controllers;
 
 import cat.itacademy.s04.t02.n03.fruit.config.BaseIntegrationTest;
+import cat.itacademy.s04.t02.n03.fruit.config.CacheConfig;
 import cat.itacademy.s04.t02.n03.fruit.dto.OrderItemDTO;
 import cat.itacademy.s04.t02.n03.fruit.dto.OrderRequestDTO;
 import cat.itacademy.s04.t02.n03.fruit.dto.OrderResponseDTO;
+import cat.itacademy.s04.t02.n03.fruit.repository.DailyDemandRepository;
+import cat.itacademy.s04.t02.n03.fruit.repository.IdempotencyRecordRepository;
 import cat.itacademy.s04.t02.n03.fruit.repository.OrderRepository;
+import cat.itacademy.s04.t02.n03.fruit.services.OrderServiceImpl;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -24,6 +41,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+@AutoConfigureObservability
 @DisplayName("Order Controller Integration Tests - Create Order")
 class OrderControllerIntegrationTest extends BaseIntegrationTest {
 
@@ -36,9 +54,23 @@ class OrderControllerIntegrationTest extends BaseIntegrationTest {
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private DailyDemandRepository dailyDemandRepository;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
     @BeforeEach
     void setUp() {
         orderRepository.deleteAll();
+        dailyDemandRepository.deleteAll();
+        idempotencyRecordRepository.deleteAll();
+        cacheManager.getCache(OrderServiceImpl.ORDERS_CACHE).clear();
+        cacheManager.getCache(CacheConfig.ORDER_STATS_CACHE).clear();
+        cacheManager.getCache(CacheConfig.IDEMPOTENCY_CACHE).clear();
     }
 
 
@@ -209,6 +241,118 @@ class OrderControllerIntegrationTest extends BaseIntegrationTest {
                 .andExpect(jsonPath("$.message").exists());
     }
 
+    @Test
+    @DisplayName("POST /orders replayed with the same Idempotency-Key returns the original order")
+    void testCreateOrder_WithReplayedIdempotencyKey_ReturnsOriginalOrder() throws Exception {
+        String body = objectMapper.writeValueAsString(createValidOrderRequest());
+
+        String location = mockMvc.perform(post("/orders")
+                        .header("Idempotency-Key", "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getHeader("Location");
+
+        cacheManager.getCache(CacheConfig.IDEMPOTENCY_CACHE).clear();
+        mockMvc.perform(post("/orders")
+                        .header("Idempotency-Key", "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Location", location))
+                .andExpect(header().string("ETag", "\"0\""))
+                .andExpect(jsonPath("$.clientName").value("John Doe"));
+
+        assertThat(orderRepository.count()).isEqualTo(1);
+        assertThat(location).endsWith(orderRepository.findAll().get(0).getId());
+    }
+
+    @Test
+    @DisplayName("POST /orders reusing an Idempotency-Key with a different body returns 422")
+    void testCreateOrder_WithReusedIdempotencyKey_Returns422() throws Exception {
+        OrderRequestDTO orderRequest = createValidOrderRequest();
+        mockMvc.perform(post("/orders")
+                        .header("Idempotency-Key", "key-2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(orderRequest)))
+                .andExpect(status().isCreated());
+
+        orderRequest.setClientName("Jane Doe");
+        mockMvc.perform(post("/orders")
+                        .header("Idempotency-Key", "key-2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(orderRequest)))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.message").value(containsString("key-2")));
+
+        assertThat(orderRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("concurrent POST /orders with the same Idempotency-Key create a single order")
+    void testCreateOrder_WithConcurrentIdempotencyKey_CreatesOnce() throws Exception {
+        String body = objectMapper.writeValueAsString(createValidOrderRequest());
+        int requests = 16;
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<MvcResult>> responses = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(requests)) {
+            for (int i = 0; i < requests; i++) {
+                responses.add(executor.submit(() -> {
+                    start.await();
+                    return mockMvc.perform(post("/orders")
+                                    .header("Idempotency-Key", "key-3")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(body))
+                            .andReturn();
+                }));
+            }
+            start.countDown();
+
+            Set<String> ids = new HashSet<>();
+            for (Future<MvcResult> response : responses) {
+                MvcResult result = response.get(30, TimeUnit.SECONDS);
+                assertThat(result.getResponse().getStatus()).isEqualTo(201);
+                ids.add(objectMapper.readValue(result.getResponse().getContentAsString(), OrderResponseDTO.class).getId());
+            }
+            assertThat(ids).hasSize(1);
+        }
+
+        assertThat(orderRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("POST /orders/batch stores valid orders and reports invalid ones")
+    void testCreateOrders_WithMixedBatch_ReturnsPerItemResults() throws Exception {
+        OrderRequestDTO invalidOrder = createValidOrderRequest();
+        invalidOrder.setDeliveryDate(LocalDate.now().minusDays(1));
+
+        List<OrderRequestDTO> batch = List.of(createValidOrderRequest(), invalidOrder, createValidOrderRequest());
+
+        mockMvc.perform(post("/orders/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.results", hasSize(3)))
+                .andExpect(jsonPath("$.results[0].id").exists())
+                .andExpect(jsonPath("$.results[1].error").value("Delivery date must be at least tomorrow"))
+                .andExpect(jsonPath("$.results[2].id").exists());
+
+        assertThat(orderRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("POST /orders/batch with empty array returns 400 Bad Request")
+    void testCreateOrders_WithEmptyBatch_Returns400() throws Exception {
+        mockMvc.perform(post("/orders/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").exists());
+    }
+
     @Test
     @DisplayName("GET /orders returns 200 OK with empty list when no orders exist")
     void testGetAllOrders_WithNoOrders_ReturnsEmptyList() throws Exception {
@@ -266,6 +410,373 @@ class OrderControllerIntegrationTest extends BaseIntegrationTest {
                 .andExpect(jsonPath("$[0].items[0].quantityInKilos").value(5));
     }
 
+    @Test
+    @DisplayName("GET /orders pages results with a next cursor")
+    void testGetAllOrders_WithPageSize_ReturnsNextCursor() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(post("/orders")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(createValidOrderRequest())));
+        }
+
+        String nextCursor = mockMvc.perform(get("/orders")
+                        .param("size", "2")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(header().string("Link", containsString("rel=\"next\"")))
+                .andExpect(header().exists("X-Next-Cursor"))
+                .andReturn()
+                .getResponse()
+                .getHeader("X-Next-Cursor");
+
+        mockMvc.perform(get("/orders")
+                        .param("size", "2")
+                        .param("cursor", nextCursor)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(header().doesNotExist("Link"))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    @DisplayName("GET /orders filters by client, delivery date range and fruit")
+    void testGetAllOrders_WithFilters_ReturnsMatchingOrders() throws Exception {
+        OrderRequestDTO johnTomorrow = createValidOrderRequest();
+        OrderRequestDTO janeNextWeek = createValidOrderRequest();
+        janeNextWeek.setClientName("Jane Smith");
+        janeNextWeek.setDeliveryDate(LocalDate.now().plusDays(7));
+        janeNextWeek.setItems(List.of(new OrderItemDTO("Cherry", 2)));
+
+        for (OrderRequestDTO order : List.of(johnTomorrow, janeNextWeek)) {
+            mockMvc.perform(post("/orders")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(order)));
+        }
+
+        mockMvc.perform(get("/orders").param("client", "Jane Smith"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].clientName").value("Jane Smith"));
+
+        mockMvc.perform(get("/orders")
+                        .param("from", LocalDate.now().plusDays(1).toString())
+                        .param("to", LocalDate.now().plusDays(2).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].clientName").value("John Doe"));
+
+        mockMvc.perform(get("/orders").param("fruit", "Cherry").param("client", "John Doe"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    @DisplayName("GET /orders with malformed or inverted date range returns 400 Bad Request")
+    void testGetAllOrders_WithInvalidDateRange_Returns400() throws Exception {
+        mockMvc.perform(get("/orders").param("from", "not-a-date"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").exists());
+
+        mockMvc.perform(get("/orders")
+                        .param("from", LocalDate.now().plusDays(5).toString())
+                        .param("to", LocalDate.now().plusDays(1).toString()))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").exists());
+    }
+
+    @Test
+    @DisplayName("GET /orders with invalid cursor returns 400 Bad Request")
+    void testGetAllOrders_WithInvalidCursor_Returns400() throws Exception {
+        mockMvc.perform(get("/orders")
+                        .param("cursor", "not-a-cursor")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").exists());
+    }
+
+    @Test
+    @DisplayName("GET /orders?view=summary returns item count and total kilos without items")
+    void testGetAllOrders_WithSummaryView_ReturnsProjectedSummaries() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(post("/orders")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(createValidOrderRequest())));
+        }
+
+        String nextCursor = mockMvc.perform(get("/orders")
+                        .param("view", "summary")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id").isNotEmpty())
+                .andExpect(jsonPath("$[0].clientName").value("John Doe"))
+                .andExpect(jsonPath("$[0].deliveryDate").value(LocalDate.now().plusDays(1).toString()))
+                .andExpect(jsonPath("$[0].itemCount").value(2))
+                .andExpect(jsonPath("$[0].totalKilos").value(8))
+                .andExpect(jsonPath("$[0].items").doesNotExist())
+                .andExpect(header().string("Link", containsString("view=summary")))
+                .andReturn()
+                .getResponse()
+                .getHeader("X-Next-Cursor");
+
+        mockMvc.perform(get("/orders")
+                        .param("view", "summary")
+                        .param("cursor", nextCursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    @DisplayName("GET /orders with unknown view returns 400 Bad Request")
+    void testGetAllOrders_WithUnknownView_Returns400() throws Exception {
+        mockMvc.perform(get("/orders").param("view", "compact"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Unsupported view: compact"));
+    }
+
+    @Test
+    @DisplayName("GET /orders?fields= returns only the requested fields")
+    void testGetAllOrders_WithFields_ReturnsSparseOrders() throws Exception {
+        mockMvc.perform(post("/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createValidOrderRequest())));
+
+        mockMvc.perform(get("/orders").param("fields", "id,clientName,items.fruitName"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").isNotEmpty())
+                .andExpect(jsonPath("$[0].clientName").value("John Doe"))
+                .andExpect(jsonPath("$[0].deliveryDate").doesNotExist())
+                .andExpect(jsonPath("$[0].items", hasSize(2)))
+                .andExpect(jsonPath("$[0].items[0].fruitName").value("Apple"))
+                .andExpect(jsonPath("$[0].items[0].quantityInKilos").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("GET /orders/{id}?fields= returns a sparse order with a weak ETag")
+    void testGetOrderById_WithFields_ReturnsSparseOrder() throws Exception {
+        String response = mockMvc.perform(post("/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createValidOrderRequest())))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        String orderId = objectMapper.readValue(response, OrderResponseDTO.class).getId();
+
+        mockMvc.perform(get("/orders/{id}", orderId).param("fields", "deliveryDate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"0\""))
+                .andExpect(jsonPath("$.deliveryDate").value(LocalDate.now().plusDays(1).toString()))
+                .andExpect(jsonPath("$.id").doesNotExist())
+                .andExpect(jsonPath("$.clientName").doesNotExist())
+                .andExpect(jsonPath("$.items").doesNotExist());
+
+        mockMvc.perform(get("/orders/{id}", orderId)
+                        .param("fields", "deliveryDate")
+                        .header("If-None-Match", "W/\"0\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @DisplayName("GET /orders with unknown field returns 400 Bad Request")
+    void testGetAllOrders_WithUnknownField_Returns400() throws Exception {
+        mockMvc.perform(get("/orders").param("fields", "id,price"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Unknown field: price"));
+
+        mockMvc.perform(get("/orders/{id}", "507f1f77bcf86cd799439011").param("fields", "items.price"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Unknown field: items.price"));
+    }
+
+    @Test
+    @DisplayName("GET /orders/export streams one JSON document per line")
+    void testExportOrders_StreamsNdjson() throws Exception {
+        OrderRequestDTO order2 = createValidOrderRequest();
+        order2.setClientName("Jane Smith");
+
+        mockMvc.perform(post("/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createValidOrderRequest())));
+        mockMvc.perform(post("/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(order2)));
+
+        String body = mockMvc.perform(get("/orders/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        List<OrderResponseDTO> exported = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            exported.add(objectMapper.readValue(line, OrderResponseDTO.class));
+        }
+
+        assertThat(exported)
+                .extracting(OrderResponseDTO::getClientName)
+                .containsExactlyInAnyOrder("John Doe", "Jane Smith");
+    }
+
+    @Test
+    @DisplayName("POST /orders and GET /orders/{id} read and write CBOR and Smile")
+    void testOrder_WithBinaryFormats_RoundTrips() throws Exception {
+        Map<MediaType, ObjectMapper> formats = Map.of(
+                MediaType.APPLICATION_CBOR, Jackson2ObjectMapperBuilder.cbor().build(),
+                MediaType.parseMediaType("application/x-jackson-smile"), Jackson2ObjectMapperBuilder.smile().build());
+
+        for (Map.Entry<MediaType, ObjectMapper> format : formats.entrySet()) {
+            ObjectMapper binaryMapper = format.getValue();
+            MvcResult created = mockMvc.perform(post("/orders")
+                            .contentType(format.getKey())
+                            .accept(format.getKey())
+                            .content(binaryMapper.writeValueAsBytes(createValidOrderRequest())))
+                    .andExpect(status().isCreated())
+                    .andExpect(content().contentTypeCompatibleWith(format.getKey()))
+                    .andReturn();
+            OrderResponseDTO order = binaryMapper.readValue(created.getResponse().getContentAsByteArray(),
+                    OrderResponseDTO.class);
+
+            MvcResult fetched = mockMvc.perform(get("/orders/{id}", order.getId()).accept(format.getKey()))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(format.getKey()))
+                    .andReturn();
+
+            assertThat(order.getClientName()).isEqualTo("John Doe");
+            assertThat(order.getDeliveryDate()).isEqualTo(LocalDate.now().plusDays(1));
+            assertThat(binaryMapper.readValue(fetched.getResponse().getContentAsByteArray(), OrderResponseDTO.class))
+                    .isEqualTo(order);
+        }
+    }
+
+    @Test
+    @DisplayName("GET /orders/stats/fruits and /stats/clients aggregate kilos server-side")
+    void testDemandStats_AggregatesKilos() throws Exception {
+        OrderRequestDTO janeOrder = createValidOrderRequest();
+        janeOrder.setClientName("Jane Smith");
+        janeOrder.setDeliveryDate(LocalDate.now().plusDays(5));
+        janeOrder.setItems(List.of(new OrderItemDTO("Apple", 10)));
+
+        for (OrderRequestDTO order : List.of(createValidOrderRequest(), createValidOrderRequest(), janeOrder)) {
+            mockMvc.perform(post("/orders")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(order)));
+        }
+
+        mockMvc.perform(get("/orders/stats/fruits"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].fruitName").value("Apple"))
+                .andExpect(jsonPath("$[0].totalKilos").value(20))
+                .andExpect(jsonPath("$[1].fruitName").value("Banana"))
+                .andExpect(jsonPath("$[1].totalKilos").value(6));
+
+        mockMvc.perform(get("/orders/stats/fruits")
+                        .param("to", LocalDate.now().plusDays(2).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].fruitName").value("Apple"))
+                .andExpect(jsonPath("$[0].totalKilos").value(10));
+
+        mockMvc.perform(get("/orders/stats/clients").param("fruit", "Apple"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].clientName").value("Jane Smith"))
+                .andExpect(jsonPath("$[0].totalKilos").value(10))
+                .andExpect(jsonPath("$[1].clientName").value("John Doe"))
+                .andExpect(jsonPath("$[1].totalKilos").value(10));
+    }
+
+    @Test
+    @DisplayName("GET /orders/stats/daily/{date} follows creates, updates and deletes")
+    void testDailyDemand_IsMaintainedIncrementally() throws Exception {
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        LocalDate nextWeek = LocalDate.now().plusDays(7);
+
+        String firstBody = mockMvc.perform(post("/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createValidOrderRequest())))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        String firstId = objectMapper.readValue(firstBody, OrderResponseDTO.class).getId();
+
+        String secondBody = mockMvc.perform(post("/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createValidOrderRequest())))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        String secondId = objectMapper.readValue(secondBody, OrderResponseDTO.class).getId();
+
+        mockMvc.perform(get("/orders/stats/daily/{date}", tomorrow))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.kilosByFruit.Apple").value(10))
+                .andExpect(jsonPath("$.kilosByFruit.Banana").value(6));
+
+        OrderRequestDTO moved = createValidOrderRequest();
+        moved.setDeliveryDate(nextWeek);
+        moved.setItems(List.of(new OrderItemDTO("Kiwi", 4)));
+        mockMvc.perform(put("/orders/{id}", firstId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(moved)))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/orders/{id}", secondId))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/orders/stats/daily/{date}", tomorrow))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.kilosByFruit").isEmpty());
+        mockMvc.perform(get("/orders/stats/daily/{date}", nextWeek))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.kilosByFruit.Kiwi").value(4));
+
+        mockMvc.perform(post("/orders/stats/daily/verify"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.drifts", hasSize(0)));
+    }
+
+    @Test
+    @DisplayName("POST /orders/stats/daily/verify reports and repairs drift")
+    void testDailyDemandVerify_ReportsAndRepairsDrift() throws Exception {
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        mockMvc.perform(post("/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createValidOrderRequest())));
+
+        dailyDemandRepository.deleteAll();
+
+        mockMvc.perform(post("/orders/stats/daily/verify").param("repair", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.drifts", hasSize(2)))
+                .andExpect(jsonPath("$.drifts[0].fruitName").value("Apple"))
+                .andExpect(jsonPath("$.drifts[0].expectedKilos").value(5))
+                .andExpect(jsonPath("$.drifts[0].actualKilos").value(0))
+                .andExpect(jsonPath("$.repaired").value(true));
+
+        mockMvc.perform(get("/orders/stats/daily/{date}", tomorrow))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.kilosByFruit.Apple").value(5))
+                .andExpect(jsonPath("$.kilosByFruit.Banana").value(3));
+    }
+
+    @Test
+    @DisplayName("daily demand repair does not overwrite a day written since its revision was read")
+    void testDailyDemandReplaceDay_WithConcurrentDelta_IsRefused() {
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        dailyDemandRepository.applyDeltas(Map.of(tomorrow, Map.of("Apple", 5L)));
+        Long revision = dailyDemandRepository.findAllRevisions().get(tomorrow);
+
+        dailyDemandRepository.applyDeltas(Map.of(tomorrow, Map.of("Apple", 2L)));
+
+        assertThat(dailyDemandRepository.replaceDay(tomorrow, Map.of("Apple", 5L), revision)).isFalse();
+        assertThat(dailyDemandRepository.replaceDay(tomorrow.plusDays(1), Map.of("Apple", 1L), null)).isTrue();
+        assertThat(dailyDemandRepository.replaceDay(tomorrow, Map.of("Apple", 7L), revision + 1)).isTrue();
+        assertThat(dailyDemandRepository.findKilosByFruit(tomorrow)).contains(Map.of("Apple", 7L));
+    }
+
     @Test
     @DisplayName("GET /orders/{id} with existing ID returns 200 OK")
     void testGetOrderById_WithExistingId_Returns200() throws Exception {
@@ -317,6 +828,35 @@ class OrderControllerIntegrationTest extends BaseIntegrationTest {
                 .andExpect(jsonPath("$.items[0].quantityInKilos").value(5));
     }
 
+    @Test
+    @DisplayName("GET /orders/{id} is served from cache and PUT invalidates it")
+    void testGetOrderById_IsCachedAndInvalidatedOnUpdate() throws Exception {
+        String responseBody = mockMvc.perform(post("/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createValidOrderRequest())))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        String orderId = objectMapper.readValue(responseBody, OrderResponseDTO.class).getId();
+
+        mockMvc.perform(get("/orders/{id}", orderId))
+                .andExpect(status().isOk());
+        assertThat(cacheManager.getCache(OrderServiceImpl.ORDERS_CACHE).get(orderId)).isNotNull();
+
+        OrderRequestDTO update = createValidOrderRequest();
+        update.setClientName("Jane Smith");
+        mockMvc.perform(put("/orders/{id}", orderId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(update)))
+                .andExpect(status().isOk());
+
+        assertThat(cacheManager.getCache(OrderServiceImpl.ORDERS_CACHE).get(orderId)).isNull();
+        mockMvc.perform(get("/orders/{id}", orderId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.clientName").value("Jane Smith"));
+    }
+
     @Test
     @DisplayName("GET /orders/{id} with non-existing ID returns 404 Not Found")
     void testGetOrderById_WithNonExistingId_Returns404() throws Exception {
@@ -539,6 +1079,91 @@ class OrderControllerIntegrationTest extends BaseIntegrationTest {
                 .andExpect(jsonPath("$.message").exists());
     }
 
+    @Test
+    @DisplayName("GET /orders/{id} returns ETag and 304 when If-None-Match matches")
+    void testGetOrderById_WithMatchingIfNoneMatch_Returns304() throws Exception {
+        String eTag = mockMvc.perform(post("/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createValidOrderRequest())))
+                .andExpect(header().string("ETag", "\"0\""))
+                .andReturn()
+                .getResponse()
+                .getHeader("ETag");
+        String orderId = orderRepository.findAll().get(0).getId();
+
+        mockMvc.perform(get("/orders/{id}", orderId)
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", eTag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @DisplayName("PUT /orders/{id} with stale If-Match returns 412 and keeps the order")
+    void testUpdateOrder_WithStaleIfMatch_Returns412() throws Exception {
+        String responseBody = mockMvc.perform(post("/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createValidOrderRequest())))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        String orderId = objectMapper.readValue(responseBody, OrderResponseDTO.class).getId();
+
+        OrderRequestDTO update = createValidOrderRequest();
+        update.setClientName("Jane Smith");
+
+        mockMvc.perform(put("/orders/{id}", orderId)
+                        .header("If-Match", "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(update)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""));
+
+        update.setClientName("Lost Update");
+        mockMvc.perform(put("/orders/{id}", orderId)
+                        .header("If-Match", "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(update)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.status").value(412));
+
+        mockMvc.perform(delete("/orders/{id}", orderId)
+                        .header("If-Match", "\"0\""))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(get("/orders/{id}", orderId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.clientName").value("Jane Smith"));
+    }
+
+    @Test
+    @DisplayName("GET /actuator/prometheus exposes latency histograms with outcome tags")
+    void testPrometheus_ExposesOperationHistogramsWithOutcomes() throws Exception {
+        String body = mockMvc.perform(post("/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createValidOrderRequest())))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        String id = objectMapper.readValue(body, OrderResponseDTO.class).getId();
+
+        mockMvc.perform(get("/orders/{id}", id));
+        mockMvc.perform(get("/orders/{id}", "507f1f77bcf86cd799439011"));
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertThat(scrape)
+                .contains("orders_service_seconds_bucket{")
+                .containsPattern("orders_service_seconds_count\\{[^}]*operation=\"getOrderById\"[^}]*order_outcome=\"found\"")
+                .containsPattern("orders_service_seconds_count\\{[^}]*operation=\"getOrderById\"[^}]*order_outcome=\"not_found\"")
+                .containsPattern("orders_items_per_order_items_count\\{[^}]*operation=\"createOrder\"")
+                .containsPattern("http_server_requests_seconds_count\\{[^}]*order_outcome=\"not_found\"[^}]*uri=\"/orders/\\{id}\"");
+    }
+
     @Test
     @DisplayName("DELETE /orders/{id} with existing ID returns 204 No Content")
     void testDeleteOrder_WithExistingId_Returns204() throws Exception {
@@ -0,0 +1,303 @@
+package cat.itacademy.s04.t02.n03.fruit.controllers;
+
+import cat.itacademy.s04.t02.n03.fruit.config.CacheConfig;
+import cat.itacademy.s04.t02.n03.fruit.config.TestContainersConfiguration;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderItemDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderRequestDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderResponseDTO;
+import cat.itacademy.s04.t02.n03.fruit.repository.DailyDemandRepository;
+import cat.itacademy.s04.t02.n03.fruit.repository.IdempotencyRecordRepository;
+import cat.itacademy.s04.t02.n03.fruit.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient
+@Import(TestContainersConfiguration.class)
+@ActiveProfiles({"test", "reactive"})
+@DisplayName("Reactive Order Controller Integration Tests")
+class ReactiveOrderControllerIntegrationTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private DailyDemandRepository dailyDemandRepository;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        dailyDemandRepository.deleteAll();
+        idempotencyRecordRepository.deleteAll();
+        cacheManager.getCache(CacheConfig.IDEMPOTENCY_CACHE).clear();
+    }
+
+    @Test
+    @DisplayName("POST /orders with valid order returns 201 Created with Location and ETag")
+    void testCreateOrder_WithValidData_Returns201() {
+        webTestClient.post().uri("/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(createValidOrderRequest())
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().exists(HttpHeaders.LOCATION)
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0\"")
+                .expectBody()
+                .jsonPath("$.id").isNotEmpty()
+                .jsonPath("$.clientName").isEqualTo("John Doe")
+                .jsonPath("$.items.length()").isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("POST /orders with empty clientName returns 400 Bad Request")
+    void testCreateOrder_WithEmptyClientName_Returns400() {
+        OrderRequestDTO orderRequest = createValidOrderRequest();
+        orderRequest.setClientName("");
+
+        webTestClient.post().uri("/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(orderRequest)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(400)
+                .jsonPath("$.message").exists()
+                .jsonPath("$.path").isEqualTo("/orders");
+    }
+
+    @Test
+    @DisplayName("POST /orders replayed with the same Idempotency-Key returns the original order")
+    void testCreateOrder_WithReplayedIdempotencyKey_ReturnsOriginalOrder() {
+        OrderRequestDTO orderRequest = createValidOrderRequest();
+
+        String location = webTestClient.post().uri("/orders")
+                .header("Idempotency-Key", "key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(orderRequest)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody().returnResult()
+                .getResponseHeaders().getFirst(HttpHeaders.LOCATION);
+
+        webTestClient.post().uri("/orders")
+                .header("Idempotency-Key", "key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(orderRequest)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().valueEquals(HttpHeaders.LOCATION, location);
+
+        orderRequest.setClientName("Jane Doe");
+        webTestClient.post().uri("/orders")
+                .header("Idempotency-Key", "key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(orderRequest)
+                .exchange()
+                .expectStatus().isEqualTo(422);
+
+        assertThat(orderRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("GET /orders pages results with a next cursor")
+    void testGetAllOrders_WithPageSize_ReturnsNextCursor() {
+        for (int i = 0; i < 3; i++) {
+            createOrder();
+        }
+
+        String nextCursor = webTestClient.get().uri("/orders?size=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().value(HttpHeaders.LINK, containsString("rel=\"next\""))
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .returnResult()
+                .getResponseHeaders()
+                .getFirst(OrderController.NEXT_CURSOR_HEADER);
+
+        webTestClient.get().uri("/orders?size=2&cursor={cursor}", nextCursor)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(OrderController.NEXT_CURSOR_HEADER)
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("GET /orders with malformed date returns 400 Bad Request")
+    void testGetAllOrders_WithMalformedDate_Returns400() {
+        webTestClient.get().uri("/orders?from=not-a-date")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").value(containsString("from"));
+    }
+
+    @Test
+    @DisplayName("GET /orders/export streams one JSON document per line")
+    void testExportOrders_StreamsNdjson() {
+        createOrder();
+        createOrder();
+
+        List<OrderResponseDTO> exported = webTestClient.get().uri("/orders/export")
+                .accept(MediaType.parseMediaType(OrderController.NDJSON_MEDIA_TYPE))
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(OrderResponseDTO.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertThat(exported).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("GET /orders/stream sends the changes made through the reactive endpoints")
+    void testStreamOrderChanges_WithReactiveWrites_SendsChanges() {
+        // An unknown Last-Event-ID gets an immediate resync, so the subscription is open before the writes
+        Flux<ServerSentEvent<String>> events = webTestClient.get().uri("/orders/stream")
+                .header(OrderController.LAST_EVENT_ID_HEADER, "unknown-1")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<String>>() {
+                })
+                .getResponseBody();
+
+        OrderResponseDTO created = createOrder();
+        webTestClient.delete().uri("/orders/{id}", created.getId())
+                .exchange()
+                .expectStatus().isNoContent();
+
+        List<ServerSentEvent<String>> received = events
+                .filter(event -> event.event() != null)
+                .take(3)
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertThat(received).extracting(ServerSentEvent::event).containsExactly("resync", "created", "deleted");
+        assertThat(received.get(1).data()).contains(created.getId());
+    }
+
+    @Test
+    @DisplayName("GET /orders/{id} returns ETag and 304 when If-None-Match matches")
+    void testGetOrderById_WithMatchingIfNoneMatch_Returns304() {
+        OrderResponseDTO created = createOrder();
+
+        webTestClient.get().uri("/orders/{id}", created.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, "\"0\"")
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    @DisplayName("GET /orders/{id} with non-existing ID returns 404 Not Found")
+    void testGetOrderById_WithNonExistingId_Returns404() {
+        webTestClient.get().uri("/orders/{id}", "507f1f77bcf86cd799439011")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(404)
+                .jsonPath("$.message").exists();
+    }
+
+    @Test
+    @DisplayName("PUT /orders/{id} with stale If-Match returns 412 and keeps the order")
+    void testUpdateOrder_WithStaleIfMatch_Returns412() {
+        OrderResponseDTO created = createOrder();
+        OrderRequestDTO update = createValidOrderRequest();
+        update.setClientName("Jane Doe");
+
+        webTestClient.put().uri("/orders/{id}", created.getId())
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(update)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"")
+                .expectBody()
+                .jsonPath("$.clientName").isEqualTo("Jane Doe");
+
+        webTestClient.put().uri("/orders/{id}", created.getId())
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(createValidOrderRequest())
+                .exchange()
+                .expectStatus().isEqualTo(412);
+
+        assertThat(orderRepository.findById(created.getId()).orElseThrow().getClientName()).isEqualTo("Jane Doe");
+    }
+
+    @Test
+    @DisplayName("DELETE /orders/{id} deletes the order and a second DELETE returns 404")
+    void testDeleteOrder_DeletesOrder() {
+        OrderResponseDTO created = createOrder();
+
+        webTestClient.delete().uri("/orders/{id}", created.getId())
+                .exchange()
+                .expectStatus().isNoContent();
+
+        webTestClient.delete().uri("/orders/{id}", created.getId())
+                .exchange()
+                .expectStatus().isNotFound();
+
+        assertThat(orderRepository.count()).isZero();
+    }
+
+    private OrderResponseDTO createOrder() {
+        return webTestClient.post().uri("/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(createValidOrderRequest())
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(OrderResponseDTO.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private OrderRequestDTO createValidOrderRequest() {
+        OrderItemDTO item1 = new OrderItemDTO();
+        item1.setFruitName("Apple");
+        item1.setQuantityInKilos(5);
+
+        OrderItemDTO item2 = new OrderItemDTO();
+        item2.setFruitName("Banana");
+        item2.setQuantityInKilos(3);
+
+        OrderRequestDTO orderRequest = new OrderRequestDTO();
+        orderRequest.setClientName("John Doe");
+        orderRequest.setDeliveryDate(LocalDate.now().plusDays(1));
+        orderRequest.setItems(List.of(item1, item2));
+
+        return orderRequest;
+    }
+}
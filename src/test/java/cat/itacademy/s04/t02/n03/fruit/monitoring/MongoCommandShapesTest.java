@@ -0,0 +1,95 @@
+package cat.itacademy.s04.t02.n03.fruit.monitoring;
+
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("MongoCommandShapes Unit Tests")
+class MongoCommandShapesTest {
+
+    @Test
+    @DisplayName("find keeps field names and operators but redacts every value")
+    void testOf_WithFind_RedactsFilterValues() {
+        BsonDocument command = BsonDocument.parse("""
+                {"find": "orders",
+                 "filter": {"clientName": "John Doe", "deliveryDate": {"$gte": {"$date": "2030-01-01T00:00:00Z"}},
+                            "items.fruitName": {"$in": ["Apple", "Banana"]}},
+                 "sort": {"deliveryDate": 1, "_id": 1},
+                 "limit": 51, "$db": "fruit_orders", "lsid": {"id": "secret"}}
+                """);
+
+        BsonDocument shape = MongoCommandShapes.of("find", command);
+
+        assertThat(shape).isEqualTo(BsonDocument.parse("""
+                {"find": "orders",
+                 "filter": {"clientName": "?", "deliveryDate": {"$gte": "?"}, "items.fruitName": {"$in": ["?"]}},
+                 "sort": {"deliveryDate": 1, "_id": 1}}
+                """));
+    }
+
+    @Test
+    @DisplayName("find keeps every clause of $and and $or, as built for a filtered page after a cursor")
+    void testOf_WithLogicalOperators_KeepsEveryClause() {
+        BsonDocument command = BsonDocument.parse("""
+                {"find": "orders",
+                 "filter": {"$and": [{"c": "John Doe"}, {"d": {"$gte": 20454}},
+                                     {"$or": [{"d": {"$gt": 20460}},
+                                              {"d": 20460, "_id": {"$gt": {"$oid": "65a1b2c3d4e5f60718293a4b"}}}]}]},
+                 "sort": {"d": 1, "_id": 1}, "limit": 51}
+                """);
+
+        BsonDocument shape = MongoCommandShapes.of("find", command);
+
+        assertThat(shape).isEqualTo(BsonDocument.parse("""
+                {"find": "orders",
+                 "filter": {"$and": [{"c": "?"}, {"d": {"$gte": "?"}},
+                                     {"$or": [{"d": {"$gt": "?"}}, {"d": "?", "_id": {"$gt": "?"}}]}]},
+                 "sort": {"d": 1, "_id": 1}}
+                """));
+    }
+
+    @Test
+    @DisplayName("aggregate keeps every pipeline stage")
+    void testOf_WithAggregate_KeepsEveryStage() {
+        BsonDocument command = BsonDocument.parse("""
+                {"aggregate": "orders",
+                 "pipeline": [{"$match": {"f": 3}}, {"$unwind": {"path": "$f", "includeArrayIndex": "i"}},
+                              {"$group": {"_id": "$f", "totalKilos": {"$sum": {"$arrayElemAt": ["$q", "$i"]}}}}]}
+                """);
+
+        BsonDocument shape = MongoCommandShapes.of("aggregate", command);
+
+        assertThat(shape.getArray("pipeline")).hasSize(3);
+        assertThat(shape.getArray("pipeline").get(0)).isEqualTo(BsonDocument.parse("""
+                {"$match": {"f": "?"}}
+                """));
+    }
+
+    @Test
+    @DisplayName("update and delete statements only expose the shape of their query")
+    void testOf_WithUpdate_RedactsStatementQuery() {
+        BsonDocument command = BsonDocument.parse("""
+                {"update": "orders",
+                 "updates": [{"q": {"_id": "abc", "version": {"$in": [1, 2]}}, "u": {"$set": {"clientName": "Jane"}}}]}
+                """);
+
+        BsonDocument shape = MongoCommandShapes.of("update", command);
+
+        assertThat(shape).isEqualTo(BsonDocument.parse("""
+                {"update": "orders", "updates": [{"q": {"_id": "?", "version": {"$in": ["?"]}}}]}
+                """));
+    }
+
+    @Test
+    @DisplayName("insert never exposes document contents")
+    void testOf_WithInsert_OmitsDocuments() {
+        BsonDocument command = BsonDocument.parse("""
+                {"insert": "orders", "documents": [{"clientName": "John Doe"}], "ordered": false}
+                """);
+
+        assertThat(MongoCommandShapes.of("insert", command))
+                .isEqualTo(new BsonDocument("insert", command.get("insert")));
+    }
+}
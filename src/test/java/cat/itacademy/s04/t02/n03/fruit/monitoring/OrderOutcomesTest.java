@@ -0,0 +1,29 @@
+package cat.itacademy.s04.t02.n03.fruit.monitoring;
+
+import cat.itacademy.s04.t02.n03.fruit.exception.FruitCatalogFullException;
+import cat.itacademy.s04.t02.n03.fruit.exception.OrderNotFoundException;
+import cat.itacademy.s04.t02.n03.fruit.exception.OrderQueueFullException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("OrderOutcomes Unit Tests")
+class OrderOutcomesTest {
+
+    @Test
+    @DisplayName("rejections the client can act on get their own outcome instead of error")
+    void testOf_WithRejections_ReturnsDedicatedOutcomes() {
+        assertThat(OrderOutcomes.of(new OrderNotFoundException("id-1"))).isEqualTo(OrderOutcomes.NOT_FOUND);
+        assertThat(OrderOutcomes.of(new OrderQueueFullException("full"))).isEqualTo(OrderOutcomes.QUEUE_FULL);
+        assertThat(OrderOutcomes.of(new FruitCatalogFullException("Kiwi", 2))).isEqualTo(OrderOutcomes.CATALOG_FULL);
+        assertThat(OrderOutcomes.of(new IllegalStateException("boom"))).isEqualTo(OrderOutcomes.ERROR);
+    }
+
+    @Test
+    @DisplayName("a 429 response is tagged queue_full")
+    void testOf_WithTooManyRequests_ReturnsQueueFull() {
+        assertThat(OrderOutcomes.of("POST", "/orders", 429)).isEqualTo(OrderOutcomes.QUEUE_FULL);
+        assertThat(OrderOutcomes.of("POST", "/orders", 422)).isEqualTo(OrderOutcomes.CLIENT_ERROR);
+    }
+}
@@ -0,0 +1,168 @@
+package cat.itacademy.s04.t02.n03.fruit.repository;
+
+import cat.itacademy.s04.t02.n03.fruit.config.BaseIntegrationTest;
+import cat.itacademy.s04.t02.n03.fruit.model.Order;
+import cat.itacademy.s04.t02.n03.fruit.model.OrderItem;
+import cat.itacademy.s04.t02.n03.fruit.pagination.OrderCursor;
+import cat.itacademy.s04.t02.n03.fruit.pagination.OrderSortField;
+import cat.itacademy.s04.t02.n03.fruit.services.FruitCatalogService;
+import com.mongodb.ExplainVerbosity;
+import com.mongodb.client.FindIterable;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Order Repository Index Usage Tests - Filtered Queries")
+class OrderIndexUsageTest extends BaseIntegrationTest {
+
+    private static final LocalDate FROM = LocalDate.now().plusDays(1);
+    private static final LocalDate TO = LocalDate.now().plusDays(7);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private FruitCatalogService fruitCatalog;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            orders.add(new Order(null, "Client " + (i % 20), FROM.plusDays(i % 10),
+                    List.of(new OrderItem(fruitCatalog.codeOf("Fruit " + (i % 15)), 1 + i % 5)), null));
+        }
+        orderRepository.saveAll(orders);
+    }
+
+    static Stream<Arguments> filterCombinations() {
+        List<Arguments> combinations = new ArrayList<>();
+        for (int mask = 1; mask < 16; mask++) {
+            OrderFilter filter = new OrderFilter(
+                    (mask & 1) != 0 ? "Client 3" : null,
+                    (mask & 2) != 0 ? FROM : null,
+                    (mask & 4) != 0 ? TO : null,
+                    (mask & 8) != 0 ? "Fruit 7" : null);
+            for (OrderSortField sortField : OrderSortField.values()) {
+                combinations.add(Arguments.of(filter, sortField));
+            }
+        }
+        return combinations.stream();
+    }
+
+    @ParameterizedTest(name = "{0} sorted by {1}")
+    @MethodSource("filterCombinations")
+    @DisplayName("every filter combination is served by the index of its most selective filter, never a COLLSCAN")
+    void testFilteredPageQuery_UsesIndex(OrderFilter filter, OrderSortField sortField) {
+        Order first = orderRepository.findAll().get(0);
+        OrderCursor cursor = OrderCursor.after(first, sortField);
+        String expectedIndex = filter.getClientName() != null ? "c_d_id"
+                : filter.getFruitName() != null ? "f_d_id"
+                : "d_id";
+
+        assertUsesIndex(filter, sortField, null, expectedIndex);
+        assertUsesIndex(filter, sortField, cursor, expectedIndex);
+    }
+
+    static Stream<Arguments> singleKeyFilters() {
+        return Stream.of(
+                Arguments.of(new OrderFilter("Client 3", null, null, null), "c_d_id"),
+                Arguments.of(new OrderFilter(null, null, null, "Fruit 7"), "f_d_id"),
+                Arguments.of(new OrderFilter(null, FROM, TO, null), "d_id"));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("singleKeyFilters")
+    @DisplayName("without the hint the planner picks the same index, so the declared indexes match the query shape")
+    void testFilteredPageQuery_WithoutHint_PlannerPicksSameIndex(OrderFilter filter, String expectedIndex) {
+        Query query = OrderQueries.pageQuery(filter, fruitCatalog, OrderSortField.DELIVERY_DATE, null, 51);
+
+        Document explain = explain(query, false);
+
+        assertThat(scannedIndexes(explain)).containsExactly(expectedIndex);
+        assertThat(docsExamined(explain)).isEqualTo(returned(explain));
+    }
+
+    private void assertUsesIndex(OrderFilter filter, OrderSortField sortField, OrderCursor cursor, String expectedIndex) {
+        Query query = OrderQueries.pageQuery(filter, fruitCatalog, sortField, cursor, 51);
+
+        Document explain = explain(query, true);
+
+        assertThat(scannedIndexes(explain)).containsExactly(expectedIndex);
+        assertThat(explain.get("queryPlanner", Document.class).toJson()).doesNotContain("COLLSCAN");
+        // A hint forces the index whether or not it fits: only the documents matching its keys may be read
+        assertThat(docsExamined(explain)).isLessThanOrEqualTo(matchingIndexKeys(filter, sortField));
+    }
+
+    // Orders matching the predicates the index serves; the fruit is a residual filter on c_d_id
+    private long matchingIndexKeys(OrderFilter filter, OrderSortField sortField) {
+        OrderFilter indexFilter = filter.getClientName() != null
+                ? new OrderFilter(filter.getClientName(), filter.getFrom(), filter.getTo(), null)
+                : filter;
+        return mongoTemplate.count(OrderQueries.pageQuery(indexFilter, fruitCatalog, sortField, null, 0), Order.class);
+    }
+
+    private Document explain(Query query, boolean hinted) {
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(Order.class);
+        QueryMapper queryMapper = new QueryMapper(mongoTemplate.getConverter());
+        Document mappedFilter = queryMapper.getMappedObject(query.getQueryObject(), entity);
+        Document mappedSort = queryMapper.getMappedSort(query.getSortObject(), entity);
+
+        FindIterable<Document> find = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Order.class))
+                .find(mappedFilter)
+                .sort(mappedSort)
+                .limit(query.getLimit());
+        if (hinted) {
+            find.hintString(query.getHint());
+        }
+        return find.explain(ExplainVerbosity.EXECUTION_STATS);
+    }
+
+    private static Set<String> scannedIndexes(Document explain) {
+        Set<String> scannedIndexes = new HashSet<>();
+        collectScannedIndexes(explain.get("queryPlanner", Document.class).get("winningPlan", Document.class),
+                scannedIndexes);
+        return scannedIndexes;
+    }
+
+    private static long docsExamined(Document explain) {
+        return ((Number) explain.get("executionStats", Document.class).get("totalDocsExamined")).longValue();
+    }
+
+    private static long returned(Document explain) {
+        return ((Number) explain.get("executionStats", Document.class).get("nReturned")).longValue();
+    }
+
+    // Walks the stage tree, whether the server nests it under queryPlan or not
+    private static void collectScannedIndexes(Object node, Set<String> indexes) {
+        if (node instanceof Document stage) {
+            if ("IXSCAN".equals(stage.get("stage"))) {
+                indexes.add(stage.getString("indexName"));
+            }
+            stage.values().forEach(value -> collectScannedIndexes(value, indexes));
+        } else if (node instanceof List<?> stages) {
+            stages.forEach(value -> collectScannedIndexes(value, indexes));
+        }
+    }
+}
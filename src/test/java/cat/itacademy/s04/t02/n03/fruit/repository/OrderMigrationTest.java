@@ -0,0 +1,185 @@
+package cat.itacademy.s04.t02.n03.fruit.repository;
+
+import cat.itacademy.s04.t02.n03.fruit.config.BaseIntegrationTest;
+import cat.itacademy.s04.t02.n03.fruit.dto.ClientDemandDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.DemandVerificationDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.FruitDemandDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderMigrationReportDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderResponseDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderSummaryDTO;
+import cat.itacademy.s04.t02.n03.fruit.mapper.OrderMapper;
+import cat.itacademy.s04.t02.n03.fruit.model.Order;
+import cat.itacademy.s04.t02.n03.fruit.model.OrderItem;
+import cat.itacademy.s04.t02.n03.fruit.pagination.OrderCursor;
+import cat.itacademy.s04.t02.n03.fruit.pagination.OrderSortField;
+import cat.itacademy.s04.t02.n03.fruit.services.DailyDemandService;
+import cat.itacademy.s04.t02.n03.fruit.services.FruitCatalogService;
+import cat.itacademy.s04.t02.n03.fruit.services.OrderMigrationService;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Order Layout Migration Tests - Legacy Orders")
+class OrderMigrationTest extends BaseIntegrationTest {
+
+    private static final LocalDate DELIVERY_DATE = LocalDate.now().plusDays(1);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderMapper orderMapper;
+
+    @Autowired
+    private FruitCatalogService fruitCatalog;
+
+    @Autowired
+    private OrderMigrationService orderMigrationService;
+
+    @Autowired
+    private DailyDemandService dailyDemandService;
+
+    @Autowired
+    private DailyDemandRepository dailyDemandRepository;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("legacy orders are readable before and after they are rewritten in the compact layout")
+    void testMigrateLegacyOrders_RewritesCompactLayout() {
+        ObjectId id = insertLegacyOrder();
+        OrderResponseDTO beforeMigration = orderMapper.toResponseDTO(orderRepository.findById(id.toHexString()).orElseThrow());
+
+        OrderMigrationReportDTO report = orderMigrationService.migrateLegacyOrders();
+
+        assertThat(report.getMigratedOrders()).isEqualTo(1);
+        assertThat(report.getBefore().getDocuments()).isEqualTo(1);
+        assertThat(report.getAfter().getIndexSizes()).doesNotContainKeys("deliveryDate_id", "fruitName_deliveryDate_id");
+
+        Document stored = rawOrder(id);
+        assertThat(stored).doesNotContainKeys("clientName", "deliveryDate", "items");
+        assertThat(stored.get("sv")).isEqualTo(2);
+        assertThat(stored.get("c")).isEqualTo("John Doe");
+        assertThat(stored.get("d")).isEqualTo((int) DELIVERY_DATE.toEpochDay());
+        assertThat(stored.getList("f", Integer.class))
+                .containsExactly(fruitCatalog.codeOf("Apple"), fruitCatalog.codeOf("Banana"));
+        assertThat(stored.getList("q", Integer.class)).containsExactly(5, 3);
+        assertThat(stored.get("version")).isEqualTo(0L);
+
+        OrderResponseDTO afterMigration = orderMapper.toResponseDTO(orderRepository.findById(id.toHexString()).orElseThrow());
+        assertThat(afterMigration).isEqualTo(beforeMigration);
+        assertThat(orderMigrationService.migrateLegacyOrders().getMigratedOrders()).isZero();
+    }
+
+    @Test
+    @DisplayName("legacy orders are reported as present until the migration has rewritten them")
+    void testHasLegacyOrders_TracksMigration() {
+        insertLegacyOrder();
+
+        assertThat(orderMigrationService.countLegacyOrders()).isEqualTo(1);
+        assertThat(orderMigrationService.hasLegacyOrders()).isTrue();
+
+        orderMigrationService.migrateLegacyOrders();
+
+        assertThat(orderMigrationService.hasLegacyOrders()).isFalse();
+    }
+
+    @Test
+    @DisplayName("filters, the delivery date order and demand totals include legacy orders until they are migrated")
+    void testQueries_WithLegacyOrders_ReadBothLayouts() {
+        ObjectId legacyId = insertLegacyOrder();
+        Order compact = orderRepository.save(new Order(null, "John Doe", DELIVERY_DATE.plusDays(1),
+                List.of(new OrderItem(fruitCatalog.codeOf("Apple"), 2)), null));
+        orderMigrationService.countLegacyOrders();
+
+        OrderFilter client = new OrderFilter("John Doe", null, null, null);
+        List<Order> firstPage = orderRepository.findPage(client, OrderSortField.DELIVERY_DATE, null, 1);
+        assertThat(firstPage).extracting(Order::getId).containsExactly(legacyId.toHexString());
+        OrderCursor cursor = OrderCursor.after(firstPage.get(0), OrderSortField.DELIVERY_DATE);
+        assertThat(orderRepository.findPage(client, OrderSortField.DELIVERY_DATE, cursor, 10))
+                .extracting(Order::getId)
+                .containsExactly(compact.getId());
+
+        assertThat(orderRepository.findPage(new OrderFilter(null, null, null, "Apple"), OrderSortField.ID, null, 10))
+                .hasSize(2);
+        assertThat(orderRepository.findSummaryPage(new OrderFilter(null, DELIVERY_DATE, DELIVERY_DATE, null),
+                OrderSortField.ID, null, 10))
+                .extracting(OrderSummaryDTO::getTotalKilos)
+                .containsExactly(8L);
+        assertThat(orderRepository.aggregateFruitDemand(new OrderFilter()))
+                .containsExactly(new FruitDemandDTO("Apple", 7), new FruitDemandDTO("Banana", 3));
+        assertThat(orderRepository.aggregateClientDemand(new OrderFilter()))
+                .containsExactly(new ClientDemandDTO("John Doe", 10));
+    }
+
+    @Test
+    @DisplayName("daily demand verification does not overwrite the rollup while legacy orders remain")
+    void testVerify_WithLegacyOrders_SkipsRepair() {
+        ObjectId id = insertLegacyOrder();
+        dailyDemandRepository.deleteAll();
+        dailyDemandService.recordChanges(List.of(), List.of(orderRepository.findById(id.toHexString()).orElseThrow()));
+        orderMigrationService.countLegacyOrders();
+
+        DemandVerificationDTO report = dailyDemandService.verify(true);
+
+        assertThat(report.getDrifts()).isNotEmpty();
+        assertThat(report.isRepaired()).isFalse();
+        assertThat(dailyDemandService.getDailyDemand(DELIVERY_DATE).getKilosByFruit())
+                .containsEntry("Apple", 5L)
+                .containsEntry("Banana", 3L);
+
+        orderMigrationService.migrateLegacyOrders();
+        assertThat(dailyDemandService.verify(true).getDrifts()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("updating a legacy order rewrites it in the compact layout")
+    void testReplaceLegacyOrder_UpgradesLayout() {
+        ObjectId id = insertLegacyOrder();
+        Order update = new Order(null, "Jane Doe", DELIVERY_DATE,
+                List.of(new OrderItem(fruitCatalog.codeOf("Cherry"), 2)), null);
+
+        assertThat(orderRepository.replaceAndGetPrevious(id.toHexString(), update, List.of(0L))).isPresent();
+
+        Document stored = rawOrder(id);
+        assertThat(stored).doesNotContainKeys("clientName", "deliveryDate", "items");
+        assertThat(stored.get("c")).isEqualTo("Jane Doe");
+        assertThat(stored.get("version")).isEqualTo(1L);
+        assertThat(orderRepository.countLegacyLayout()).isZero();
+    }
+
+    private ObjectId insertLegacyOrder() {
+        ObjectId id = new ObjectId();
+        Date deliveryDate = Date.from(DELIVERY_DATE.atStartOfDay(ZoneId.systemDefault()).toInstant());
+        mongoTemplate.getCollection("orders").insertOne(new Document("_id", id)
+                .append("clientName", "John Doe")
+                .append("deliveryDate", deliveryDate)
+                .append("items", List.of(
+                        new Document("fruitName", "Apple").append("quantityInKilos", 5),
+                        new Document("fruitName", "Banana").append("quantityInKilos", 3)))
+                .append("version", 0L)
+                .append("_class", Order.class.getName()));
+        return id;
+    }
+
+    private Document rawOrder(ObjectId id) {
+        return mongoTemplate.getCollection("orders").find(new Document("_id", id)).first();
+    }
+}
@@ -0,0 +1,159 @@
+package cat.itacademy.s04.t02.n03.fruit.repository.log;
+
+import cat.itacademy.s04.t02.n03.fruit.config.OrderLogProperties;
+import cat.itacademy.s04.t02.n03.fruit.model.Order;
+import cat.itacademy.s04.t02.n03.fruit.model.OrderItem;
+import cat.itacademy.s04.t02.n03.fruit.services.FruitCatalogService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Log Order Repository Unit Tests")
+class LogOrderRepositoryTest {
+
+    private static final LocalDate DAY = LocalDate.of(2030, 1, 1);
+
+    @TempDir
+    private Path directory;
+
+    @Mock
+    private FruitCatalogService fruitCatalog;
+
+    private OrderLogProperties properties;
+    private LogOrderRepository orderRepository;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(fruitCatalog.nameOf(any(OrderItem.class))).thenReturn("Apple");
+        lenient().when(fruitCatalog.codeOf("Apple")).thenReturn(1);
+
+        properties = new OrderLogProperties();
+        properties.setDirectory(directory);
+        properties.setSegmentSize(DataSize.ofKilobytes(4));
+        properties.setFsync(OrderLogProperties.FsyncPolicy.ALWAYS);
+        orderRepository = new LogOrderRepository(fruitCatalog, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.close();
+    }
+
+    @Test
+    @DisplayName("reopening the log recovers the latest version of every order and forgets deleted ones")
+    void testReopen_AfterWrites_RecoversLatestState() {
+        Order kept = orderRepository.save(order("John Doe", DAY, 5));
+        Order deleted = orderRepository.save(order("Jane Smith", DAY, 2));
+        kept.setClientName("John Smith");
+        orderRepository.save(kept);
+        orderRepository.deleteById(deleted.getId());
+
+        reopen();
+
+        assertThat(orderRepository.findAll()).singleElement().satisfies(order -> {
+            assertThat(order.getId()).isEqualTo(kept.getId());
+            assertThat(order.getClientName()).isEqualTo("John Smith");
+            assertThat(order.getVersion()).isEqualTo(1L);
+            assertThat(order.getDeliveryDate()).isEqualTo(DAY);
+            assertThat(order.getItems()).singleElement().isEqualTo(new OrderItem(1, 5));
+        });
+    }
+
+    @Test
+    @DisplayName("compaction drops superseded records and keeps deletes effective after reopening")
+    void testCompact_WithGarbage_ShrinksLogAndKeepsState() {
+        Order deleted = orderRepository.save(order("Jane Smith", DAY, 2));
+        Order updated = orderRepository.save(order("John Doe", DAY, 1));
+        for (int kilos = 2; kilos <= 100; kilos++) {
+            updated.getItems().get(0).setQuantityInKilos(kilos);
+            orderRepository.save(updated);
+        }
+        orderRepository.deleteById(deleted.getId());
+        for (int kilos = 101; kilos <= 200; kilos++) {
+            updated.getItems().get(0).setQuantityInKilos(kilos);
+            orderRepository.save(updated);
+        }
+
+        int segmentsBefore = orderRepository.orderLog().segmentCount();
+        orderRepository.orderLog().compact();
+
+        assertThat(segmentsBefore).isGreaterThan(2);
+        assertThat(orderRepository.orderLog().segmentCount()).isLessThan(segmentsBefore);
+        assertThat(orderRepository.orderLog().liveRecords()).isEqualTo(1);
+
+        reopen();
+
+        assertThat(orderRepository.findAll()).singleElement().satisfies(order -> {
+            assertThat(order.getId()).isEqualTo(updated.getId());
+            assertThat(order.getVersion()).isEqualTo(199L);
+            assertThat(order.getItems().get(0).getQuantityInKilos()).isEqualTo(200);
+        });
+    }
+
+    @Test
+    @DisplayName("a record torn by a crash is ignored and overwritten by the next append")
+    void testReopen_WithTornTail_IgnoresIt() throws IOException {
+        Order order = orderRepository.save(order("John Doe", DAY, 5));
+        orderRepository.close();
+        writeTornRecord(directory.resolve("segment-00000001.log"));
+
+        reopen();
+        Order next = orderRepository.save(order("Jane Smith", DAY, 3));
+        reopen();
+
+        assertThat(orderRepository.findAll()).extracting(Order::getId)
+                .containsExactlyInAnyOrder(order.getId(), next.getId());
+    }
+
+    private void reopen() {
+        orderRepository.close();
+        orderRepository = new LogOrderRepository(fruitCatalog, properties);
+    }
+
+    // Walks the intact records and leaves a length and half a payload after them, as a crash mid-append would
+    private static void writeTornRecord(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+            long position = 0;
+            while (true) {
+                length.clear();
+                channel.read(length, position);
+                int size = length.flip().getInt();
+                if (size == 0) {
+                    break;
+                }
+                position += LogSegment.HEADER_SIZE + size;
+            }
+
+            ByteBuffer torn = ByteBuffer.allocate(LogSegment.HEADER_SIZE + 8);
+            torn.putInt(40).putInt(0xCAFE).put(OrderRecords.PUT).putLong(-1L).flip();
+            channel.write(torn, position);
+        }
+    }
+
+    private Order order(String clientName, LocalDate deliveryDate, int kilos) {
+        List<OrderItem> items = new ArrayList<>();
+        items.add(new OrderItem(1, kilos));
+        return new Order(null, clientName, deliveryDate, items, null);
+    }
+}
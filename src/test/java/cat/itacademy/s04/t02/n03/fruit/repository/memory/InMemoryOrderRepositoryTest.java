@@ -0,0 +1,134 @@
+package cat.itacademy.s04.t02.n03.fruit.repository.memory;
+
+import cat.itacademy.s04.t02.n03.fruit.model.Order;
+import cat.itacademy.s04.t02.n03.fruit.model.OrderItem;
+import cat.itacademy.s04.t02.n03.fruit.pagination.OrderCursor;
+import cat.itacademy.s04.t02.n03.fruit.pagination.OrderSortField;
+import cat.itacademy.s04.t02.n03.fruit.repository.OrderFilter;
+import cat.itacademy.s04.t02.n03.fruit.services.FruitCatalogService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("In-Memory Order Repository Unit Tests")
+class InMemoryOrderRepositoryTest {
+
+    private static final LocalDate DAY = LocalDate.of(2030, 1, 1);
+
+    @Mock
+    private FruitCatalogService fruitCatalog;
+
+    @InjectMocks
+    private InMemoryOrderRepository orderRepository;
+
+    @Test
+    @DisplayName("save assigns id and version, and returned orders are copies")
+    void testSave_WithNewOrder_StoresCopy() {
+        Order order = orderRepository.save(order("John Doe", DAY, 1, 5));
+
+        assertThat(order.getId()).isNotNull();
+        assertThat(order.getVersion()).isZero();
+
+        order.setClientName("Changed");
+        Order stored = orderRepository.findById(order.getId()).orElseThrow();
+        stored.getItems().get(0).setQuantityInKilos(99);
+
+        Order reread = orderRepository.findById(order.getId()).orElseThrow();
+        assertThat(reread.getClientName()).isEqualTo("John Doe");
+        assertThat(reread.getItems().get(0).getQuantityInKilos()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("save with a stale version throws and insert with a taken id is reported as duplicate")
+    void testSave_WithStaleVersion_Throws() {
+        Order order = orderRepository.save(order("John Doe", DAY, 1, 5));
+        Order stale = orderRepository.findById(order.getId()).orElseThrow();
+        orderRepository.save(order);
+
+        assertThatThrownBy(() -> orderRepository.save(stale))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        assertThatThrownBy(() -> orderRepository.insert(stale))
+                .isInstanceOf(DuplicateKeyException.class);
+        assertThat(orderRepository.insertUnordered(List.of(stale, order("Jane Smith", DAY, 1, 2))))
+                .containsOnlyKeys(0);
+        assertThat(orderRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("findPage by delivery date walks the index from the cursor")
+    void testFindPage_ByDeliveryDate_ResumesAfterCursor() {
+        List<Order> orders = new ArrayList<>();
+        for (int day = 4; day >= 0; day--) {
+            orders.add(orderRepository.save(order("Client " + day % 2, DAY.plusDays(day), 1, day + 1)));
+        }
+
+        List<Order> firstPage = orderRepository.findPage(null, OrderSortField.DELIVERY_DATE, null, 2);
+        List<Order> secondPage = orderRepository.findPage(null, OrderSortField.DELIVERY_DATE,
+                OrderCursor.after(firstPage.get(1), OrderSortField.DELIVERY_DATE), 2);
+
+        assertThat(firstPage).extracting(Order::getDeliveryDate).containsExactly(DAY, DAY.plusDays(1));
+        assertThat(secondPage).extracting(Order::getDeliveryDate).containsExactly(DAY.plusDays(2), DAY.plusDays(3));
+
+        List<Order> clientPage = orderRepository.findPage(new OrderFilter("Client 0", DAY.plusDays(1), null, null),
+                OrderSortField.ID, null, 10);
+        assertThat(clientPage).extracting(Order::getDeliveryDate).containsExactly(DAY.plusDays(4), DAY.plusDays(2));
+    }
+
+    @Test
+    @DisplayName("replaceAndGetPrevious moves the order in the indexes and honours expected versions")
+    void testReplaceAndGetPrevious_UpdatesIndexes() {
+        Order order = orderRepository.save(order("John Doe", DAY, 1, 5));
+
+        assertThat(orderRepository.replaceAndGetPrevious(order.getId(), order("Jane Smith", DAY, 1, 5), List.of(7L)))
+                .isEmpty();
+        assertThat(orderRepository.replaceAndGetPrevious(order.getId(), order("Jane Smith", DAY.plusDays(3), 1, 5),
+                List.of(0L)))
+                .hasValueSatisfying(previous -> assertThat(previous.getClientName()).isEqualTo("John Doe"));
+
+        assertThat(orderRepository.findPage(new OrderFilter("John Doe", null, null, null),
+                OrderSortField.DELIVERY_DATE, null, 10)).isEmpty();
+        assertThat(orderRepository.findPage(new OrderFilter("Jane Smith", DAY.plusDays(3), DAY.plusDays(3), null),
+                OrderSortField.DELIVERY_DATE, null, 10))
+                .singleElement()
+                .satisfies(stored -> assertThat(stored.getVersion()).isEqualTo(1L));
+    }
+
+    @Test
+    @DisplayName("aggregateFruitDemand with a fruit filter sums only that fruit's items")
+    void testAggregateFruitDemand_WithFruitFilter_SumsMatchingItems() {
+        when(fruitCatalog.findCode("Apple")).thenReturn(1);
+        when(fruitCatalog.nameOf(1)).thenReturn("Apple");
+        Order mixed = order("John Doe", DAY, 1, 5);
+        mixed.getItems().add(new OrderItem(2, 3));
+        orderRepository.save(mixed);
+        orderRepository.save(order("Jane Smith", DAY, 1, 4));
+        orderRepository.save(order("Jane Smith", DAY, 2, 8));
+
+        assertThat(orderRepository.aggregateFruitDemand(new OrderFilter(null, null, null, "Apple")))
+                .singleElement()
+                .satisfies(demand -> assertThat(demand.getTotalKilos()).isEqualTo(9));
+        assertThat(orderRepository.aggregateClientDemand(new OrderFilter(null, null, null, "Apple")))
+                .extracting(demand -> demand.getClientName() + "=" + demand.getTotalKilos())
+                .containsExactly("John Doe=5", "Jane Smith=4");
+    }
+
+    private Order order(String clientName, LocalDate deliveryDate, int fruitCode, int kilos) {
+        List<OrderItem> items = new ArrayList<>();
+        items.add(new OrderItem(fruitCode, kilos));
+        return new Order(null, clientName, deliveryDate, items, null);
+    }
+}
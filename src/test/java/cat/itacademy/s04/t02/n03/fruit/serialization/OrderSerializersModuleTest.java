@@ -0,0 +1,103 @@
+package cat.itacademy.s04.t02.n03.fruit.serialization;
+
+import cat.itacademy.s04.t02.n03.fruit.config.JacksonConfig;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderItemDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderResponseDTO;
+import cat.itacademy.s04.t02.n03.fruit.pagination.OrderFieldSelection;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Order Serializers Module Unit Tests")
+class OrderSerializersModuleTest {
+
+    private static final List<OrderResponseDTO> ORDERS = List.of(
+            new OrderResponseDTO("order-1", "John Doe", LocalDate.of(2030, 1, 1),
+                    List.of(new OrderItemDTO("Apple", 5), new OrderItemDTO("Banana \"ripe\"", 3)), 4L),
+            new OrderResponseDTO("order-2", null, null, null, null),
+            new OrderResponseDTO("order-3", "Jane Smith", LocalDate.of(2030, 12, 31), itemsWithNull(), 0L));
+
+    @Test
+    @DisplayName("prebuilt serializers are installed and write the same bytes as the bean serializers")
+    void testSerialize_WithFullOrders_MatchesBeanSerializer() throws Exception {
+        ObjectMapper prebuilt = mapper(Jackson2ObjectMapperBuilder.json(), true, builder -> { });
+        ObjectMapper bean = mapper(Jackson2ObjectMapperBuilder.json(), false, builder -> { });
+
+        assertThat(prebuilt.getSerializerProviderInstance().findValueSerializer(OrderResponseDTO.class))
+                .isInstanceOf(OrderResponseSerializer.class);
+        assertThat(prebuilt.writeValueAsString(ORDERS)).isEqualTo(bean.writeValueAsString(ORDERS));
+        assertThat(prebuilt.writeValueAsString(ORDERS.get(0)))
+                .isEqualTo("{\"id\":\"order-1\",\"clientName\":\"John Doe\",\"deliveryDate\":\"2030-01-01\","
+                        + "\"items\":[{\"fruitName\":\"Apple\",\"quantityInKilos\":5},"
+                        + "{\"fruitName\":\"Banana \\\"ripe\\\"\",\"quantityInKilos\":3}]}");
+    }
+
+    @Test
+    @DisplayName("binary formats get the same encoding as with the bean serializers")
+    void testSerialize_WithCborAndSmile_MatchesBeanSerializer() throws Exception {
+        for (boolean cbor : new boolean[]{true, false}) {
+            ObjectMapper prebuilt = mapper(cbor ? Jackson2ObjectMapperBuilder.cbor() : Jackson2ObjectMapperBuilder.smile(),
+                    true, builder -> { });
+            ObjectMapper bean = mapper(cbor ? Jackson2ObjectMapperBuilder.cbor() : Jackson2ObjectMapperBuilder.smile(),
+                    false, builder -> { });
+
+            assertThat(prebuilt.writeValueAsBytes(ORDERS)).isEqualTo(bean.writeValueAsBytes(ORDERS));
+        }
+    }
+
+    @Test
+    @DisplayName("a fields= selection is still applied, by the bean serializers")
+    void testSerialize_WithFieldSelection_AppliesFilters() throws Exception {
+        ObjectMapper prebuilt = mapper(Jackson2ObjectMapperBuilder.json(), true, builder -> { });
+        ObjectMapper bean = mapper(Jackson2ObjectMapperBuilder.json(), false, builder -> { });
+        OrderFieldSelection selection = OrderFieldSelection.parse("clientName,items.quantityInKilos");
+
+        String sparse = prebuilt.writer(selection.toFilterProvider()).writeValueAsString(ORDERS.get(0));
+
+        assertThat(sparse).isEqualTo(bean.writer(selection.toFilterProvider()).writeValueAsString(ORDERS.get(0)));
+        assertThat(sparse).contains("\"clientName\":\"John Doe\"", "{\"quantityInKilos\":5}")
+                .doesNotContain("deliveryDate", "fruitName");
+    }
+
+    @Test
+    @DisplayName("mappers configured differently from the defaults fall back to the bean serializers")
+    void testSerialize_WithCustomMapperConfig_MatchesBeanSerializer() throws Exception {
+        Consumer<Jackson2ObjectMapperBuilder> custom = builder -> builder
+                .propertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE)
+                .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        ObjectMapper prebuilt = mapper(Jackson2ObjectMapperBuilder.json(), true, custom);
+        ObjectMapper bean = mapper(Jackson2ObjectMapperBuilder.json(), false, custom);
+
+        assertThat(prebuilt.writeValueAsString(ORDERS)).isEqualTo(bean.writeValueAsString(ORDERS))
+                .contains("\"client_name\"");
+    }
+
+    private static ObjectMapper mapper(Jackson2ObjectMapperBuilder builder, boolean prebuilt,
+                                       Consumer<Jackson2ObjectMapperBuilder> customizer) {
+        builder.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        new JacksonConfig().orderFieldFilterCustomizer().customize(builder);
+        if (prebuilt) {
+            builder.modulesToInstall(new OrderSerializersModule());
+        }
+        customizer.accept(builder);
+        return builder.build();
+    }
+
+    private static List<OrderItemDTO> itemsWithNull() {
+        List<OrderItemDTO> items = new ArrayList<>();
+        items.add(new OrderItemDTO(null, 1));
+        items.add(null);
+        return items;
+    }
+}
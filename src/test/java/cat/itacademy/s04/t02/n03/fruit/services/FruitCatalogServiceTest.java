@@ -0,0 +1,151 @@
+package cat.itacademy.s04.t02.n03.fruit.services;
+
+import cat.itacademy.s04.t02.n03.fruit.config.FruitCatalogProperties;
+import cat.itacademy.s04.t02.n03.fruit.exception.FruitCatalogFullException;
+import cat.itacademy.s04.t02.n03.fruit.model.Fruit;
+import cat.itacademy.s04.t02.n03.fruit.model.OrderItem;
+import cat.itacademy.s04.t02.n03.fruit.repository.FruitRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Fruit Catalog Service Unit Tests")
+class FruitCatalogServiceTest {
+
+    @Mock
+    private FruitRepository fruitRepository;
+
+    private final FruitCatalogProperties properties = new FruitCatalogProperties();
+
+    @Test
+    @DisplayName("lookups of known fruits are served from the catalog loaded on startup")
+    void testCodeOf_WithLoadedCatalog_ReadsNothing() {
+        FruitCatalogServiceImpl fruitCatalog = catalog(List.of(new Fruit(3, "Apple")));
+
+        assertThat(fruitCatalog.codeOf("Apple")).isEqualTo(3);
+        assertThat(fruitCatalog.findCode("Apple")).isEqualTo(3);
+        assertThat(fruitCatalog.nameOf(3)).isEqualTo("Apple");
+
+        verify(fruitRepository, times(1)).findAll();
+        verify(fruitRepository, never()).findByName(anyString());
+        verify(fruitRepository, never()).findById(anyInt());
+        verify(fruitRepository, never()).insert(any(Fruit.class));
+    }
+
+    @Test
+    @DisplayName("codeOf with new fruit registers the next free code")
+    void testCodeOf_WithNewFruit_RegistersNextCode() {
+        FruitCatalogServiceImpl fruitCatalog = catalog(List.of(new Fruit(7, "Pear")));
+        when(fruitRepository.findByName("Kiwi")).thenReturn(Optional.empty());
+        when(fruitRepository.findTopByOrderByCodeDesc()).thenReturn(Optional.of(new Fruit(7, "Pear")));
+        when(fruitRepository.insert(any(Fruit.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertThat(fruitCatalog.codeOf("Kiwi")).isEqualTo(8);
+        assertThat(fruitCatalog.nameOf(8)).isEqualTo("Kiwi");
+
+        verify(fruitRepository, times(1)).insert(new Fruit(8, "Kiwi"));
+    }
+
+    @Test
+    @DisplayName("codeOf retries when another writer registers the same fruit first")
+    void testCodeOf_WithConcurrentRegistration_ReturnsWinningCode() {
+        FruitCatalogServiceImpl fruitCatalog = catalog(List.of(new Fruit(7, "Pear")));
+        when(fruitRepository.findByName("Kiwi"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(new Fruit(8, "Kiwi")));
+        when(fruitRepository.findTopByOrderByCodeDesc()).thenReturn(Optional.of(new Fruit(7, "Pear")));
+        when(fruitRepository.insert(any(Fruit.class))).thenThrow(new DuplicateKeyException("duplicate"));
+
+        assertThat(fruitCatalog.codeOf("Kiwi")).isEqualTo(8);
+    }
+
+    @Test
+    @DisplayName("codeOf with new fruit is rejected once the catalog is full")
+    void testCodeOf_WithFullCatalog_ThrowsException() {
+        properties.setMaxSize(2);
+        FruitCatalogServiceImpl fruitCatalog = catalog(List.of(new Fruit(1, "Apple"), new Fruit(2, "Pear")));
+        when(fruitRepository.findByName("Kiwi")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> fruitCatalog.codeOf("Kiwi"))
+                .isInstanceOf(FruitCatalogFullException.class)
+                .hasMessageContaining("Kiwi");
+        assertThat(fruitCatalog.codeOf("Pear")).isEqualTo(2);
+        verify(fruitRepository, never()).insert(any(Fruit.class));
+    }
+
+    @Test
+    @DisplayName("findCode with unknown fruit returns null without registering it")
+    void testFindCode_WithUnknownFruit_ReturnsNull() {
+        FruitCatalogServiceImpl fruitCatalog = catalog(List.of(new Fruit(3, "Apple")));
+        when(fruitRepository.findByName("Durian")).thenReturn(Optional.empty());
+
+        assertThat(fruitCatalog.findCode("Durian")).isNull();
+
+        verify(fruitRepository, times(1)).findByName("Durian");
+        verify(fruitRepository, never()).insert(any(Fruit.class));
+    }
+
+    @Test
+    @DisplayName("findCode with fruit registered elsewhere since the last refresh reads and remembers it")
+    void testFindCode_WithFruitRegisteredElsewhere_ReadsItOnce() {
+        FruitCatalogServiceImpl fruitCatalog = catalog(List.of(new Fruit(3, "Apple")));
+        when(fruitRepository.findByName("Durian")).thenReturn(Optional.of(new Fruit(4, "Durian")));
+
+        assertThat(fruitCatalog.findCode("Durian")).isEqualTo(4);
+        assertThat(fruitCatalog.findCode("Durian")).isEqualTo(4);
+        assertThat(fruitCatalog.nameOf(4)).isEqualTo("Durian");
+
+        verify(fruitRepository, times(1)).findByName("Durian");
+        verify(fruitRepository, never()).findById(anyInt());
+    }
+
+    @Test
+    @DisplayName("refresh picks up fruits registered by another instance")
+    void testRefresh_WithFruitRegisteredElsewhere_FindsIt() {
+        FruitCatalogServiceImpl fruitCatalog = catalog(List.of(new Fruit(3, "Apple")));
+        when(fruitRepository.findAll()).thenReturn(List.of(new Fruit(3, "Apple"), new Fruit(4, "Durian")));
+
+        fruitCatalog.refresh();
+
+        assertThat(fruitCatalog.findCode("Durian")).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("nameOf falls back to the stored name of legacy items")
+    void testNameOf_WithLegacyItem_ReturnsStoredName() {
+        FruitCatalogServiceImpl fruitCatalog = catalog(List.of());
+
+        assertThat(fruitCatalog.nameOf(new OrderItem("Apple", 5))).isEqualTo("Apple");
+        verify(fruitRepository, never()).findById(anyInt());
+    }
+
+    @Test
+    @DisplayName("nameOf with unknown code throws IllegalStateException")
+    void testNameOf_WithUnknownCode_ThrowsException() {
+        FruitCatalogServiceImpl fruitCatalog = catalog(List.of());
+        when(fruitRepository.findById(42)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> fruitCatalog.nameOf(42))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("42");
+    }
+
+    private FruitCatalogServiceImpl catalog(List<Fruit> fruits) {
+        when(fruitRepository.findAll()).thenReturn(fruits);
+        return new FruitCatalogServiceImpl(fruitRepository, properties);
+    }
+}
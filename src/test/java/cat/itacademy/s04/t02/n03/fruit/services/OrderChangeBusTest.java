@@ -0,0 +1,152 @@
+package cat.itacademy.s04.t02.n03.fruit.services;
+
+import cat.itacademy.s04.t02.n03.fruit.config.OrderStreamProperties;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderChangeDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderResponseDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Order Change Bus Unit Tests")
+class OrderChangeBusTest {
+
+    private OrderStreamProperties properties;
+    private OrderChangeBus orderChangeBus;
+
+    @BeforeEach
+    void setUp() {
+        properties = new OrderStreamProperties();
+        properties.setSubscriberBufferSize(4);
+        properties.setReplayBufferSize(8);
+        properties.setHeartbeatInterval(Duration.ofMinutes(1));
+        orderChangeBus = new OrderChangeBus(new ObjectMapper().registerModule(new JavaTimeModule()), properties,
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("publish sends the change to every subscriber")
+    void testPublish_WithSubscribers_ReachesAll() throws Exception {
+        RecordingEmitter first = new RecordingEmitter();
+        RecordingEmitter second = new RecordingEmitter();
+        orderChangeBus.subscribe(null, first);
+        orderChangeBus.subscribe(null, second);
+
+        orderChangeBus.publish(OrderChangeDTO.Type.CREATED, order("order-1"));
+        orderChangeBus.publishDeleted("order-1", 0L);
+
+        for (RecordingEmitter emitter : List.of(first, second)) {
+            assertThat(emitter.next()).contains("event:created").contains("\"id\":\"order-1\"")
+                    .contains("\"clientName\":\"John Doe\"");
+            assertThat(emitter.next()).contains("event:deleted").contains("\"order\":null");
+        }
+    }
+
+    @Test
+    @DisplayName("subscribe with Last-Event-ID replays the changes published after it")
+    void testSubscribe_WithLastEventId_ReplaysMissedChanges() throws Exception {
+        RecordingEmitter live = new RecordingEmitter();
+        orderChangeBus.subscribe(null, live);
+        orderChangeBus.publish(OrderChangeDTO.Type.CREATED, order("order-1"));
+        String lastEventId = eventId(live.next());
+        orderChangeBus.publish(OrderChangeDTO.Type.CREATED, order("order-2"));
+        orderChangeBus.publish(OrderChangeDTO.Type.UPDATED, order("order-2"));
+
+        RecordingEmitter resumed = new RecordingEmitter();
+        orderChangeBus.subscribe(lastEventId, resumed);
+        orderChangeBus.publish(OrderChangeDTO.Type.CREATED, order("order-3"));
+
+        assertThat(resumed.next()).contains("event:created").contains("order-2");
+        assertThat(resumed.next()).contains("event:updated").contains("order-2");
+        assertThat(resumed.next()).contains("event:created").contains("order-3");
+    }
+
+    @Test
+    @DisplayName("subscribe with an id the ring buffer no longer holds asks the client to resync")
+    void testSubscribe_WithUnknownLastEventId_SendsResync() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            orderChangeBus.publish(OrderChangeDTO.Type.CREATED, order("order-" + i));
+        }
+
+        RecordingEmitter stale = new RecordingEmitter();
+        orderChangeBus.subscribe("otherepoch-3", stale);
+
+        assertThat(stale.next()).contains("event:" + OrderChangeBus.RESYNC_EVENT);
+    }
+
+    @Test
+    @DisplayName("a subscriber that does not keep up is evicted without holding back the others")
+    void testPublish_WithSlowSubscriber_EvictsIt() throws Exception {
+        CountDownLatch stuck = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(stuck);
+        RecordingEmitter fast = new RecordingEmitter();
+        orderChangeBus.subscribe(null, slow);
+        orderChangeBus.subscribe(null, fast);
+
+        for (int i = 0; i < 10; i++) {
+            orderChangeBus.publish(OrderChangeDTO.Type.CREATED, order("order-" + i));
+            fast.next();
+        }
+
+        assertThat(orderChangeBus.subscriberCount()).isEqualTo(1);
+        stuck.countDown();
+    }
+
+    private static String eventId(String frame) {
+        return frame.lines()
+                .filter(line -> line.startsWith("id:"))
+                .map(line -> line.substring("id:".length()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static OrderResponseDTO order(String id) {
+        return new OrderResponseDTO(id, "John Doe", LocalDate.of(2030, 1, 1), List.of(), 0L);
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final BlockingQueue<String> frames = new LinkedBlockingQueue<>();
+        private final CountDownLatch released;
+
+        private RecordingEmitter() {
+            this(new CountDownLatch(0));
+        }
+
+        private RecordingEmitter(CountDownLatch released) {
+            this.released = released;
+        }
+
+        @Override
+        public void send(Set<DataWithMediaType> items) throws IOException {
+            try {
+                released.await();
+            } catch (InterruptedException ex) {
+                throw new IOException(ex);
+            }
+            frames.add(items.stream().map(item -> item.getData().toString()).collect(Collectors.joining()));
+        }
+
+        private String next() throws InterruptedException {
+            String frame = frames.poll(5, TimeUnit.SECONDS);
+            assertThat(frame).as("frame sent within 5s").isNotNull();
+            return frame;
+        }
+    }
+}
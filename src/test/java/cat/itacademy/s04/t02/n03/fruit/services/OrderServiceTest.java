@@ -1,13 +1,31 @@
 package cat.itacademy.s04.t02.n03.fruit.services;
 
+import cat.itacademy.s04.t02.n03.fruit.config.OrderBatchProperties;
+import cat.itacademy.s04.t02.n03.fruit.config.OrderPaginationProperties;
+import cat.itacademy.s04.t02.n03.fruit.config.OrderWriteBehindProperties;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderBatchResultDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderChangeDTO;
 import cat.itacademy.s04.t02.n03.fruit.dto.OrderItemDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderPageDTO;
 import cat.itacademy.s04.t02.n03.fruit.dto.OrderRequestDTO;
 import cat.itacademy.s04.t02.n03.fruit.dto.OrderResponseDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderSummaryDTO;
+import cat.itacademy.s04.t02.n03.fruit.dto.OrderSummaryPageDTO;
+import cat.itacademy.s04.t02.n03.fruit.exception.FruitCatalogFullException;
+import cat.itacademy.s04.t02.n03.fruit.exception.InvalidPageRequestException;
 import cat.itacademy.s04.t02.n03.fruit.exception.OrderNotFoundException;
+import cat.itacademy.s04.t02.n03.fruit.exception.OrderQueueFullException;
+import cat.itacademy.s04.t02.n03.fruit.exception.PreconditionFailedException;
 import cat.itacademy.s04.t02.n03.fruit.mapper.OrderMapper;
 import cat.itacademy.s04.t02.n03.fruit.model.Order;
 import cat.itacademy.s04.t02.n03.fruit.model.OrderItem;
+import cat.itacademy.s04.t02.n03.fruit.pagination.OrderCursor;
+import cat.itacademy.s04.t02.n03.fruit.pagination.OrderFieldSelection;
+import cat.itacademy.s04.t02.n03.fruit.pagination.OrderSortField;
+import cat.itacademy.s04.t02.n03.fruit.repository.OrderFilter;
 import cat.itacademy.s04.t02.n03.fruit.repository.OrderRepository;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -15,15 +33,23 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import static org.mockito.Mockito.doNothing;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,6 +62,27 @@ class OrderServiceTest {
     @Mock
     private OrderMapper orderMapper;
 
+    @Mock
+    private DailyDemandService dailyDemandService;
+
+    @Mock
+    private OrderWriteBehindQueue writeBehindQueue;
+
+    @Mock
+    private OrderChangeBus orderChangeBus;
+
+    @Spy
+    private OrderPaginationProperties paginationProperties = new OrderPaginationProperties();
+
+    @Spy
+    private OrderBatchProperties batchProperties = new OrderBatchProperties();
+
+    @Spy
+    private OrderWriteBehindProperties writeBehindProperties = new OrderWriteBehindProperties();
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
     @InjectMocks
     private OrderServiceImpl orderService;
 
@@ -85,6 +132,7 @@ class OrderServiceTest {
         OrderResponseDTO result = orderService.createOrder(validOrderRequest);
 
         verify(orderRepository, times(1)).save(any(Order.class));
+        verify(orderChangeBus, times(1)).publish(OrderChangeDTO.Type.CREATED, mockResponseDTO);
         assertThat(result).isNotNull();
     }
 
@@ -125,81 +173,229 @@ class OrderServiceTest {
     }
 
     @Test
-    @DisplayName("getAllOrders returns empty list when repository is empty")
-    void testGetAllOrders_WithEmptyRepository_ReturnsEmptyList() {
-        when(orderRepository.findAll()).thenReturn(List.of());
+    @DisplayName("createOrder with write-behind running submits the order instead of saving it")
+    void testCreateOrder_WithWriteBehindRunning_SubmitsToQueue() {
+        when(writeBehindQueue.isRunning()).thenReturn(true);
+        when(orderMapper.toEntity(validOrderRequest)).thenReturn(mockOrder);
+        when(writeBehindQueue.submit(mockOrder)).thenReturn(CompletableFuture.completedFuture(savedOrder));
+        when(orderMapper.toResponseDTO(savedOrder)).thenReturn(mockResponseDTO);
 
-        List<OrderResponseDTO> result = orderService.getAllOrders();
+        OrderResponseDTO result = orderService.createOrder(validOrderRequest);
 
-        assertThat(result).isNotNull();
-        assertThat(result).isEmpty();
-        verify(orderRepository, times(1)).findAll();
+        assertThat(result.getId()).isEqualTo("generated-id-123");
+        assertThat(mockOrder.getId()).isNotNull();
+        assertThat(mockOrder.getVersion()).isZero();
+        verify(orderRepository, never()).save(any(Order.class));
+        verify(dailyDemandService, never()).recordChanges(anyList(), anyList());
     }
 
     @Test
-    @DisplayName("getAllOrders returns all orders from repository")
-    void testGetAllOrders_WithMultipleOrders_ReturnsAllOrders() {
-        Order order1 = new Order();
-        order1.setId("id-1");
-        order1.setClientName("John Doe");
-        order1.setDeliveryDate(LocalDate.now().plusDays(1));
-        order1.setItems(List.of(new OrderItem("Apple", 5)));
+    @DisplayName("createOrder with write-behind running rethrows the failure of its batch")
+    void testCreateOrder_WithFailedBatch_ThrowsCause() {
+        when(writeBehindQueue.isRunning()).thenReturn(true);
+        when(orderMapper.toEntity(validOrderRequest)).thenReturn(mockOrder);
+        when(writeBehindQueue.submit(mockOrder)).thenReturn(
+                CompletableFuture.failedFuture(new DataIntegrityViolationException("duplicate key")));
+
+        assertThatThrownBy(() -> orderService.createOrder(validOrderRequest))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .hasMessage("duplicate key");
+    }
+
+    @Test
+    @DisplayName("createOrder with write-behind running gives up once the batch is not acknowledged in time")
+    void testCreateOrder_WithUnacknowledgedBatch_ThrowsOrderQueueFullException() {
+        writeBehindProperties.setAckTimeout(Duration.ofMillis(10));
+        when(writeBehindQueue.isRunning()).thenReturn(true);
+        when(orderMapper.toEntity(validOrderRequest)).thenReturn(mockOrder);
+        when(writeBehindQueue.submit(mockOrder)).thenReturn(new CompletableFuture<>());
+
+        assertThatThrownBy(() -> orderService.createOrder(validOrderRequest))
+                .isInstanceOf(OrderQueueFullException.class)
+                .hasMessageContaining("not acknowledged");
+        verify(orderChangeBus, never()).publish(any(OrderChangeDTO.Type.class), any(OrderResponseDTO.class));
+    }
+
+    @Test
+    @DisplayName("createOrders inserts valid orders and reports invalid ones without aborting")
+    void testCreateOrders_WithMixedOrders_ReportsPerItemResults() {
+        OrderRequestDTO invalidRequest = createValidOrderRequest();
+        invalidRequest.setClientName("");
+
+        when(orderMapper.toEntity(validOrderRequest)).thenReturn(mockOrder);
+        when(orderRepository.insertUnordered(anyList())).thenReturn(Map.of());
 
+        OrderBatchResultDTO result = orderService.createOrders(List.of(validOrderRequest, invalidRequest));
+
+        assertThat(result.getCreated()).isEqualTo(1);
+        assertThat(result.getRejected()).isEqualTo(1);
+        assertThat(result.getResults().get(0).getId()).isNotNull();
+        assertThat(result.getResults().get(1).getId()).isNull();
+        assertThat(result.getResults().get(1).getError()).contains("Client name is required");
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    @DisplayName("createOrders reports orders with a fruit the full catalog cannot register")
+    void testCreateOrders_WithFullFruitCatalog_RejectsOnlyThatOrder() {
+        OrderItemDTO durian = new OrderItemDTO();
+        durian.setFruitName("Durian");
+        durian.setQuantityInKilos(2);
+        OrderRequestDTO unknownFruitRequest = createValidOrderRequest();
+        unknownFruitRequest.setItems(List.of(durian));
+
+        when(orderMapper.toEntity(validOrderRequest)).thenReturn(mockOrder);
+        when(orderMapper.toEntity(unknownFruitRequest)).thenThrow(new FruitCatalogFullException("Durian", 1_000));
+        when(orderRepository.insertUnordered(anyList())).thenReturn(Map.of());
+
+        OrderBatchResultDTO result = orderService.createOrders(List.of(validOrderRequest, unknownFruitRequest));
+
+        assertThat(result.getCreated()).isEqualTo(1);
+        assertThat(result.getResults().get(1).getError()).contains("Durian");
+    }
+
+    @Test
+    @DisplayName("createOrders writes in chunks and keeps going after a write failure")
+    void testCreateOrders_WithWriteFailure_ContinuesWithRemainingChunks() {
+        batchProperties.setChunkSize(1);
+        when(orderMapper.toEntity(any(OrderRequestDTO.class)))
+                .thenAnswer(invocation -> new Order());
+        when(orderRepository.insertUnordered(anyList()))
+                .thenReturn(Map.of(0, "E11000 duplicate key error"))
+                .thenReturn(Map.of());
+
+        OrderBatchResultDTO result = orderService.createOrders(
+                List.of(createValidOrderRequest(), createValidOrderRequest()));
+
+        verify(orderRepository, times(2)).insertUnordered(anyList());
+        assertThat(result.getCreated()).isEqualTo(1);
+        assertThat(result.getResults().get(0).getError()).contains("duplicate key");
+        assertThat(result.getResults().get(1).getId()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("getOrdersPage returns next cursor when more orders exist")
+    void testGetOrdersPage_WithMoreOrders_ReturnsNextCursor() {
+        Order order1 = new Order();
+        order1.setId("507f1f77bcf86cd799439011");
         Order order2 = new Order();
-        order2.setId("id-2");
-        order2.setClientName("Jane Smith");
-        order2.setDeliveryDate(LocalDate.now().plusDays(2));
-        order2.setItems(List.of(new OrderItem("Banana", 3)));
+        order2.setId("507f1f77bcf86cd799439012");
+        Order order3 = new Order();
+        order3.setId("507f1f77bcf86cd799439013");
 
         OrderResponseDTO dto1 = new OrderResponseDTO();
-        dto1.setId("id-1");
-        dto1.setClientName("John Doe");
-
+        dto1.setId(order1.getId());
         OrderResponseDTO dto2 = new OrderResponseDTO();
-        dto2.setId("id-2");
-        dto2.setClientName("Jane Smith");
+        dto2.setId(order2.getId());
 
-        when(orderRepository.findAll()).thenReturn(List.of(order1, order2));
+        when(orderRepository.findPage(any(OrderFilter.class), eq(OrderSortField.ID), isNull(), eq(3)))
+                .thenReturn(List.of(order1, order2, order3));
         when(orderMapper.toResponseDTO(order1)).thenReturn(dto1);
         when(orderMapper.toResponseDTO(order2)).thenReturn(dto2);
 
-        List<OrderResponseDTO> result = orderService.getAllOrders();
+        OrderPageDTO result = orderService.getOrdersPage(new OrderFilter(), null, 2, "id");
 
-        assertThat(result).isNotNull();
-        assertThat(result).hasSize(2);
-        assertThat(result.get(0).getId()).isEqualTo("id-1");
-        assertThat(result.get(1).getId()).isEqualTo("id-2");
-        verify(orderRepository, times(1)).findAll();
+        assertThat(result.getContent()).extracting(OrderResponseDTO::getId)
+                .containsExactly(order1.getId(), order2.getId());
+        assertThat(result.getNextCursor()).isNotNull();
+        assertThat(OrderCursor.decode(result.getNextCursor()).getId()).isEqualTo(order2.getId());
+        verify(orderMapper, never()).toResponseDTO(order3);
     }
 
     @Test
-    @DisplayName("getAllOrders maps entities to DTOs correctly")
-    void testGetAllOrders_MapsEntitiesToDTOs() {
+    @DisplayName("getOrdersPage returns no cursor on the last page")
+    void testGetOrdersPage_OnLastPage_ReturnsNoCursor() {
         Order order = new Order();
-        order.setId("id-123");
-        order.setClientName("Test Client");
+        order.setId("507f1f77bcf86cd799439011");
         order.setDeliveryDate(LocalDate.now().plusDays(1));
-        order.setItems(List.of(new OrderItem("Orange", 10)));
+        OrderCursor cursor = new OrderCursor(OrderSortField.DELIVERY_DATE, LocalDate.now().plusDays(1),
+                "507f1f77bcf86cd799439010");
+
+        when(orderRepository.findPage(any(OrderFilter.class), eq(OrderSortField.DELIVERY_DATE), eq(cursor), eq(3)))
+                .thenReturn(List.of(order));
+        when(orderMapper.toResponseDTO(order)).thenReturn(new OrderResponseDTO());
+
+        OrderPageDTO result = orderService.getOrdersPage(new OrderFilter(), cursor.encode(), 2, "id");
+
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(result.getNextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("getOrderSummariesPage returns projected summaries without mapping items")
+    void testGetOrderSummariesPage_WithMoreOrders_ReturnsNextCursor() {
+        LocalDate deliveryDate = LocalDate.now().plusDays(1);
+        OrderSummaryDTO summary1 = new OrderSummaryDTO("507f1f77bcf86cd799439011", "Client A", deliveryDate, 2, 8);
+        OrderSummaryDTO summary2 = new OrderSummaryDTO("507f1f77bcf86cd799439012", "Client B", deliveryDate, 1, 5);
+        OrderSummaryDTO summary3 = new OrderSummaryDTO("507f1f77bcf86cd799439013", "Client C", deliveryDate, 3, 9);
+
+        when(orderRepository.findSummaryPage(any(OrderFilter.class), eq(OrderSortField.DELIVERY_DATE), isNull(), eq(3)))
+                .thenReturn(List.of(summary1, summary2, summary3));
+
+        OrderSummaryPageDTO result = orderService.getOrderSummariesPage(new OrderFilter(), null, 2, "deliveryDate");
+
+        assertThat(result.getContent()).containsExactly(summary1, summary2);
+        OrderCursor nextCursor = OrderCursor.decode(result.getNextCursor());
+        assertThat(nextCursor.getId()).isEqualTo(summary2.getId());
+        assertThat(nextCursor.getDeliveryDate()).isEqualTo(deliveryDate);
+        verifyNoInteractions(orderMapper);
+    }
+
+    @Test
+    @DisplayName("getOrdersPage with field selection reads only the projected fields")
+    void testGetOrdersPage_WithFieldSelection_UsesProjection() {
+        Order order = new Order();
+        order.setId("507f1f77bcf86cd799439011");
+        order.setClientName("Client A");
+
+        OrderFieldSelection fields = OrderFieldSelection.parse("id,clientName,items.fruitName");
+        when(orderRepository.findProjectedPage(any(OrderFilter.class), eq(OrderSortField.ID), isNull(), eq(3),
+                eq(Set.of("clientName", "items.fruitName"))))
+                .thenReturn(List.of(order));
+
+        OrderPageDTO result = orderService.getOrdersPage(new OrderFilter(), null, 2, "id", fields);
+
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(result.getNextCursor()).isNull();
+        verify(orderRepository, never()).findPage(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("getOrdersPage caps page size at the configured maximum")
+    void testGetOrdersPage_WithOversizedPage_CapsPageSize() {
+        when(orderRepository.findPage(any(OrderFilter.class), eq(OrderSortField.ID), isNull(), eq(paginationProperties.getMaxSize() + 1)))
+                .thenReturn(List.of());
+
+        OrderPageDTO result = orderService.getOrdersPage(new OrderFilter(), null, 1_000_000, "id");
+
+        assertThat(result.getContent()).isEmpty();
+        assertThat(result.getNextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("getOrdersPage with malformed cursor throws InvalidPageRequestException")
+    void testGetOrdersPage_WithMalformedCursor_ThrowsException() {
+        assertThatThrownBy(() -> orderService.getOrdersPage(new OrderFilter(), "not-a-cursor", null, "id"))
+                .isInstanceOf(InvalidPageRequestException.class);
+
+        verify(orderRepository, never()).findPage(any(), any(), any(), anyInt());
+    }
 
+    @Test
+    @DisplayName("streamAllOrders maps streamed entities to DTOs")
+    void testStreamAllOrders_MapsStreamedEntities() {
+        Order order = new Order();
+        order.setId("id-123");
         OrderResponseDTO dto = new OrderResponseDTO();
         dto.setId("id-123");
-        dto.setClientName("Test Client");
-        dto.setDeliveryDate(LocalDate.now().plusDays(1));
-        dto.setItems(List.of(new OrderItemDTO("Orange", 10)));
 
-        when(orderRepository.findAll()).thenReturn(List.of(order));
+        when(orderRepository.streamAll()).thenReturn(Stream.of(order));
         when(orderMapper.toResponseDTO(order)).thenReturn(dto);
 
-        List<OrderResponseDTO> result = orderService.getAllOrders();
-
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getId()).isEqualTo("id-123");
-        assertThat(result.get(0).getClientName()).isEqualTo("Test Client");
-        assertThat(result.get(0).getItems()).hasSize(1);
-        assertThat(result.get(0).getItems().get(0).getFruitName()).isEqualTo("Orange");
-        assertThat(result.get(0).getItems().get(0).getQuantityInKilos()).isEqualTo(10);
-
-        verify(orderMapper, times(1)).toResponseDTO(order);
+        try (Stream<OrderResponseDTO> result = orderService.streamAllOrders()) {
+            assertThat(result).containsExactly(dto);
+        }
+        verify(orderRepository, never()).findAll();
     }
 
     @Test
@@ -271,12 +467,6 @@ class OrderServiceTest {
     void testUpdateOrder_WithValidId_UpdatesAndReturnsOrder() {
         String orderId = "existing-id-123";
 
-        Order existingOrder = new Order();
-        existingOrder.setId(orderId);
-        existingOrder.setClientName("Old Client");
-        existingOrder.setDeliveryDate(LocalDate.now().plusDays(1));
-        existingOrder.setItems(List.of(new OrderItem("Apple", 5)));
-
         OrderRequestDTO updateRequest = new OrderRequestDTO();
         updateRequest.setClientName("New Client");
         updateRequest.setDeliveryDate(LocalDate.now().plusDays(3));
@@ -288,11 +478,12 @@ class OrderServiceTest {
         updatedOrder.setDeliveryDate(LocalDate.now().plusDays(3));
         updatedOrder.setItems(List.of(new OrderItem("Orange", 10)));
 
-        Order savedOrder = new Order();
-        savedOrder.setId(orderId);
-        savedOrder.setClientName("New Client");
-        savedOrder.setDeliveryDate(LocalDate.now().plusDays(3));
-        savedOrder.setItems(List.of(new OrderItem("Orange", 10)));
+        Order previousOrder = new Order();
+        previousOrder.setId(orderId);
+        previousOrder.setClientName("Old Client");
+        previousOrder.setDeliveryDate(LocalDate.now().plusDays(1));
+        previousOrder.setItems(List.of(new OrderItem("Apple", 5)));
+        previousOrder.setVersion(2L);
 
         OrderResponseDTO responseDTO = new OrderResponseDTO();
         responseDTO.setId(orderId);
@@ -300,12 +491,11 @@ class OrderServiceTest {
         responseDTO.setDeliveryDate(LocalDate.now().plusDays(3));
         responseDTO.setItems(List.of(new OrderItemDTO("Orange", 10)));
 
-        when(orderRepository.findById(orderId)).thenReturn(java.util.Optional.of(existingOrder));
         when(orderMapper.toEntity(updateRequest)).thenReturn(updatedOrder);
-        when(orderRepository.save(any(Order.class))).thenReturn(savedOrder);
-        when(orderMapper.toResponseDTO(savedOrder)).thenReturn(responseDTO);
+        when(orderRepository.replaceAndGetPrevious(orderId, updatedOrder, null)).thenReturn(java.util.Optional.of(previousOrder));
+        when(orderMapper.toResponseDTO(updatedOrder)).thenReturn(responseDTO);
 
-        OrderResponseDTO result = orderService.updateOrder(orderId, updateRequest);
+        OrderResponseDTO result = orderService.updateOrder(orderId, updateRequest, null);
 
         assertThat(result).isNotNull();
         assertThat(result.getId()).isEqualTo(orderId);
@@ -314,10 +504,12 @@ class OrderServiceTest {
         assertThat(result.getItems()).hasSize(1);
         assertThat(result.getItems().get(0).getFruitName()).isEqualTo("Orange");
 
-        verify(orderRepository, times(1)).findById(orderId);
-        verify(orderRepository, times(1)).save(any(Order.class));
+        verify(orderRepository, times(1)).replaceAndGetPrevious(orderId, updatedOrder, null);
+        verify(orderRepository, never()).findById(any());
         verify(orderMapper, times(1)).toEntity(updateRequest);
-        verify(orderMapper, times(1)).toResponseDTO(savedOrder);
+        verify(orderMapper, times(1)).toResponseDTO(updatedOrder);
+        verify(dailyDemandService, times(1)).recordChanges(List.of(previousOrder), List.of(updatedOrder));
+        assertThat(updatedOrder.getVersion()).isEqualTo(3L);
     }
 
     @Test
@@ -326,27 +518,23 @@ class OrderServiceTest {
         String nonExistingId = "non-existing-id";
         OrderRequestDTO updateRequest = validOrderRequest;
 
-        when(orderRepository.findById(nonExistingId)).thenReturn(java.util.Optional.empty());
+        when(orderMapper.toEntity(updateRequest)).thenReturn(mockOrder);
+        when(orderRepository.replaceAndGetPrevious(nonExistingId, mockOrder, null)).thenReturn(java.util.Optional.empty());
 
-        assertThatThrownBy(() -> orderService.updateOrder(nonExistingId, updateRequest))
+        assertThatThrownBy(() -> orderService.updateOrder(nonExistingId, updateRequest, null))
                 .isInstanceOf(OrderNotFoundException.class)
                 .hasMessageContaining("Order not found with id: " + nonExistingId);
 
-        verify(orderRepository, times(1)).findById(nonExistingId);
+        verify(orderRepository, times(1)).replaceAndGetPrevious(nonExistingId, mockOrder, null);
         verify(orderRepository, never()).save(any());
-        verify(orderMapper, never()).toEntity(any());
         verify(orderMapper, never()).toResponseDTO(any());
     }
 
     @Test
-    @DisplayName("updateOrder calls repository.findById() and save()")
+    @DisplayName("updateOrder replaces the order in a single repository call")
     void testUpdateOrder_CallsRepositoryMethods() {
         String orderId = "test-id-789";
 
-        Order existingOrder = new Order();
-        existingOrder.setId(orderId);
-        existingOrder.setClientName("Old Client");
-
         Order updatedOrder = new Order();
         updatedOrder.setId(orderId);
         updatedOrder.setClientName("New Client");
@@ -355,53 +543,84 @@ class OrderServiceTest {
         responseDTO.setId(orderId);
         responseDTO.setClientName("New Client");
 
-        when(orderRepository.findById(orderId)).thenReturn(java.util.Optional.of(existingOrder));
         when(orderMapper.toEntity(validOrderRequest)).thenReturn(updatedOrder);
-        when(orderRepository.save(any(Order.class))).thenReturn(updatedOrder);
+        when(orderRepository.replaceAndGetPrevious(eq(orderId), any(Order.class), isNull())).thenReturn(java.util.Optional.of(updatedOrder));
         when(orderMapper.toResponseDTO(updatedOrder)).thenReturn(responseDTO);
 
-        orderService.updateOrder(orderId, validOrderRequest);
+        orderService.updateOrder(orderId, validOrderRequest, null);
 
         ArgumentCaptor<Order> orderCaptor = ArgumentCaptor.forClass(Order.class);
-        verify(orderRepository, times(1)).findById(orderId);
-        verify(orderRepository, times(1)).save(orderCaptor.capture());
+        verify(orderRepository, times(1)).replaceAndGetPrevious(eq(orderId), orderCaptor.capture(), isNull());
+        verify(orderRepository, never()).findById(any());
+        verify(orderRepository, never()).save(any());
 
         Order capturedOrder = orderCaptor.getValue();
-        assertThat(capturedOrder.getId()).isEqualTo(orderId);
+        assertThat(capturedOrder.getClientName()).isEqualTo("New Client");
+    }
+
+    @Test
+    @DisplayName("updateOrder with stale version throws PreconditionFailedException")
+    void testUpdateOrder_WithStaleVersion_ThrowsPreconditionFailed() {
+        String orderId = "existing-id-123";
+        List<Long> expectedVersions = List.of(1L);
+
+        when(orderMapper.toEntity(validOrderRequest)).thenReturn(mockOrder);
+        when(orderRepository.replaceAndGetPrevious(orderId, mockOrder, expectedVersions)).thenReturn(java.util.Optional.empty());
+        when(orderRepository.existsById(orderId)).thenReturn(true);
+
+        assertThatThrownBy(() -> orderService.updateOrder(orderId, validOrderRequest, expectedVersions))
+                .isInstanceOf(PreconditionFailedException.class);
+
+        verify(orderMapper, never()).toResponseDTO(any());
+    }
+
+    @Test
+    @DisplayName("deleteOrder with stale version on missing order throws OrderNotFoundException")
+    void testDeleteOrder_WithStaleVersionOnMissingOrder_ThrowsNotFound() {
+        String nonExistingId = "non-existing-id";
+        List<Long> expectedVersions = List.of(1L);
+
+        when(orderRepository.removeAndGetPrevious(nonExistingId, expectedVersions)).thenReturn(java.util.Optional.empty());
+        when(orderRepository.existsById(nonExistingId)).thenReturn(false);
+
+        assertThatThrownBy(() -> orderService.deleteOrder(nonExistingId, expectedVersions))
+                .isInstanceOf(OrderNotFoundException.class);
     }
 
     @Test
-    @DisplayName("deleteOrder with existing ID calls repository.delete()")
+    @DisplayName("deleteOrder with existing ID removes it in a single repository call")
     void testDeleteOrder_WithExistingId_CallsRepositoryDelete() {
         String orderId = "existing-id-123";
 
         Order existingOrder = new Order();
         existingOrder.setId(orderId);
-        existingOrder.setClientName("John Doe");
         existingOrder.setDeliveryDate(LocalDate.now().plusDays(1));
         existingOrder.setItems(List.of(new OrderItem("Apple", 5)));
 
-        when(orderRepository.findById(orderId)).thenReturn(java.util.Optional.of(existingOrder));
-        doNothing().when(orderRepository).delete(existingOrder);
+        when(orderRepository.removeAndGetPrevious(orderId, null)).thenReturn(java.util.Optional.of(existingOrder));
 
-        orderService.deleteOrder(orderId);
+        orderService.deleteOrder(orderId, null);
 
-        verify(orderRepository, times(1)).findById(orderId);
-        verify(orderRepository, times(1)).delete(existingOrder);
+        verify(orderRepository, times(1)).removeAndGetPrevious(orderId, null);
+        verify(orderRepository, never()).findById(any());
+        verify(dailyDemandService, times(1)).recordChanges(List.of(existingOrder), List.of());
+        verify(orderChangeBus, times(1)).publishDeleted(orderId, existingOrder.getVersion());
     }
 
     @Test
     @DisplayName("deleteOrder with non-existing ID throws OrderNotFoundException")
     void testDeleteOrder_WithNonExistingId_ThrowsException() {
         String nonExistingId = "non-existing-id";
-        when(orderRepository.findById(nonExistingId)).thenReturn(java.util.Optional.empty());
+        when(orderRepository.removeAndGetPrevious(nonExistingId, null)).thenReturn(java.util.Optional.empty());
 
-        assertThatThrownBy(() -> orderService.deleteOrder(nonExistingId))
+        assertThatThrownBy(() -> orderService.deleteOrder(nonExistingId, null))
                 .isInstanceOf(OrderNotFoundException.class)
                 .hasMessageContaining("Order not found with id: " + nonExistingId);
 
-        verify(orderRepository, times(1)).findById(nonExistingId);
+        verify(orderRepository, times(1)).removeAndGetPrevious(nonExistingId, null);
         verify(orderRepository, never()).delete(any());
+        verify(dailyDemandService, never()).recordChanges(any(), any());
+        verify(orderChangeBus, never()).publishDeleted(any(), any());
     }
 
     private OrderRequestDTO createValidOrderRequest() {
@@ -0,0 +1,134 @@
+package cat.itacademy.s04.t02.n03.fruit.services;
+
+import cat.itacademy.s04.t02.n03.fruit.config.OrderWriteBehindProperties;
+import cat.itacademy.s04.t02.n03.fruit.exception.OrderQueueFullException;
+import cat.itacademy.s04.t02.n03.fruit.model.Order;
+import cat.itacademy.s04.t02.n03.fruit.model.OrderItem;
+import cat.itacademy.s04.t02.n03.fruit.repository.OrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Order Write-Behind Queue Unit Tests - Group Commit")
+class OrderWriteBehindQueueTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private DailyDemandService dailyDemandService;
+
+    private OrderWriteBehindQueue queue;
+
+    @AfterEach
+    void tearDown() {
+        if (queue != null) {
+            queue.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("orders submitted together are stored with a single bulk insert")
+    void testSubmit_WithFullBatch_InsertsOnce() throws Exception {
+        queue = startQueue(10, 3, Duration.ofSeconds(10));
+        when(orderRepository.insertUnordered(anyList())).thenReturn(Map.of());
+
+        List<CompletableFuture<Order>> results = List.of(
+                queue.submit(newOrder()), queue.submit(newOrder()), queue.submit(newOrder()));
+
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+        ArgumentCaptor<List<Order>> batch = ArgumentCaptor.forClass(List.class);
+        verify(orderRepository, times(1)).insertUnordered(batch.capture());
+        assertThat(batch.getValue()).hasSize(3);
+        verify(dailyDemandService, times(1)).recordChanges(List.of(), batch.getValue());
+    }
+
+    @Test
+    @DisplayName("a full queue rejects new orders instead of blocking")
+    void testSubmit_WithFullQueue_ThrowsOrderQueueFullException() throws Exception {
+        queue = startQueue(2, 1, Duration.ZERO);
+        CountDownLatch inserting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(orderRepository.insertUnordered(anyList())).thenAnswer(invocation -> {
+            inserting.countDown();
+            release.await();
+            return Map.of();
+        });
+
+        CompletableFuture<Order> first = queue.submit(newOrder());
+        assertThat(inserting.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Order> second = queue.submit(newOrder());
+        CompletableFuture<Order> third = queue.submit(newOrder());
+
+        assertThatThrownBy(() -> queue.submit(newOrder()))
+                .isInstanceOf(OrderQueueFullException.class);
+
+        release.countDown();
+        CompletableFuture.allOf(first, second, third).get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("failed documents fail only their own caller")
+    void testSubmit_WithPartialFailure_FailsOnlyThatOrder() throws Exception {
+        queue = startQueue(10, 2, Duration.ofSeconds(10));
+        when(orderRepository.insertUnordered(anyList())).thenReturn(Map.of(1, "E11000 duplicate key"));
+
+        CompletableFuture<Order> stored = queue.submit(newOrder());
+        CompletableFuture<Order> rejected = queue.submit(newOrder());
+
+        assertThat(stored.get(5, TimeUnit.SECONDS)).isNotNull();
+        assertThatThrownBy(() -> rejected.get(5, TimeUnit.SECONDS))
+                .hasMessageContaining("E11000 duplicate key");
+    }
+
+    @Test
+    @DisplayName("stop drains the queued orders and rejects new ones")
+    void testStop_WithQueuedOrders_DrainsQueue() {
+        queue = startQueue(10, 100, Duration.ofSeconds(10));
+        when(orderRepository.insertUnordered(anyList())).thenReturn(Map.of());
+
+        CompletableFuture<Order> first = queue.submit(newOrder());
+        CompletableFuture<Order> second = queue.submit(newOrder());
+        queue.stop();
+
+        assertThat(first).isCompleted();
+        assertThat(second).isCompleted();
+        assertThat(queue.isRunning()).isFalse();
+        assertThatThrownBy(() -> queue.submit(newOrder()))
+                .isInstanceOf(OrderQueueFullException.class);
+    }
+
+    private OrderWriteBehindQueue startQueue(int capacity, int maxBatchSize, Duration maxWait) {
+        OrderWriteBehindProperties properties = new OrderWriteBehindProperties();
+        properties.setEnabled(true);
+        properties.setQueueCapacity(capacity);
+        properties.setMaxBatchSize(maxBatchSize);
+        properties.setMaxWait(maxWait);
+
+        OrderWriteBehindQueue started = new OrderWriteBehindQueue(orderRepository, dailyDemandService, properties);
+        started.start();
+        return started;
+    }
+
+    private Order newOrder() {
+        return new Order(null, "John Doe", LocalDate.now().plusDays(1), List.of(new OrderItem(1, 5)), 0L);
+    }
+}